@@ -36,6 +36,125 @@ public class AsyncExecutorConfig {
         return executor;
     }
 
+    /**
+     * Executor for batched embedding calls during document ingestion.
+     * Each upload keeps at most app.ingestion.max-in-flight-batches outstanding here.
+     */
+    @Bean(name = "embeddingBatchExecutor")
+    public Executor embeddingBatchExecutor(IngestionProperties ingestionProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ingestionProperties.getEmbeddingWorkers());
+        executor.setMaxPoolSize(ingestionProperties.getEmbeddingWorkers());
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("embedding-batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * Bounded worker pool for document ingestion jobs.
+     * Uploads return as soon as the job is queued; a full queue rejects new uploads.
+     */
+    @Bean(name = "documentIngestionExecutor")
+    public ThreadPoolTaskExecutor documentIngestionExecutor(IngestionProperties ingestionProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ingestionProperties.getJobWorkers());
+        executor.setMaxPoolSize(ingestionProperties.getJobWorkers());
+        executor.setQueueCapacity(ingestionProperties.getJobQueueCapacity());
+        executor.setThreadNamePrefix("doc-ingest-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * Threads Tika parses on while the ingestion job waits with a timeout.
+     * No queue: a parse gets its own thread or runs on the caller. The headroom above app.ingestion.job-workers
+     * covers parses abandoned after the timeout that are still winding down.
+     */
+    @Bean(name = "documentParseExecutor")
+    public ThreadPoolTaskExecutor documentParseExecutor(IngestionProperties ingestionProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ingestionProperties.getJobWorkers());
+        executor.setMaxPoolSize(ingestionProperties.getJobWorkers() * 4);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("doc-parse-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * Single thread that builds in-process vector index snapshots in the background, off the search path
+     */
+    @Bean(name = "localVectorIndexExecutor")
+    public ThreadPoolTaskExecutor localVectorIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("local-vector-index-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * Single thread for the online chunk table partitioning, so its long copy never holds an ingestion worker
+     */
+    @Bean(name = "chunkPartitionExecutor")
+    public ThreadPoolTaskExecutor chunkPartitionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("chunk-partition-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * Answer generation for batch document searches.
+     * Each batch keeps at most app.batch-search.max-concurrent-answers outstanding here.
+     */
+    @Bean(name = "ragBatchExecutor")
+    public ThreadPoolTaskExecutor ragBatchExecutor(BatchSearchProperties batchSearchProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(batchSearchProperties.getWorkers());
+        executor.setMaxPoolSize(batchSearchProperties.getWorkers());
+        executor.setQueueCapacity(batchSearchProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("rag-batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * Bounded worker pool for image generation jobs.
+     * Generate requests return as soon as the job is queued; a full queue rejects new generations.
+     */
+    @Bean(name = "imageGenerationExecutor")
+    public ThreadPoolTaskExecutor imageGenerationExecutor(ImageJobProperties imageJobProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageJobProperties.getWorkers());
+        executor.setMaxPoolSize(imageJobProperties.getWorkers());
+        executor.setQueueCapacity(imageJobProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("image-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
     /**
      * Executor for general async tasks
      */
@@ -0,0 +1,23 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.batch-search")
+public class BatchSearchProperties {
+    // Most queries accepted in one batch search request
+    private int maxQueries = 50;
+    // Answers generated at the same time for one batch; the rest wait for a slot
+    private int maxConcurrentAnswers = 4;
+    // Generation threads shared by all batches, bounding chat completions across tenants
+    private int workers = 8;
+    // Generations waiting for a worker before new ones are answered with an error line
+    private int queueCapacity = 200;
+    // Upper bound for one batch response, from the request until the last answer
+    private long timeoutMs = 300_000;
+}
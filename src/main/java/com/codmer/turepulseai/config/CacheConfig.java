@@ -37,7 +37,6 @@ public class CacheConfig {
                 "specificFeedback",        // Cache for specific feedback analysis - 4 hours
                 "userQuestionsAnalysis",   // Cache for user questions analysis - 1 hour
                 "ragAnswers",              // Cache for RAG-based answers - 3 hours
-                "embeddings",              // Cache for embeddings - 24 hours
                 "questionData",            // Cache for question+answers data - 30 minutes
                 "chatResponses"            // Cache for general chat responses - 1 hour
         ));
@@ -90,7 +89,8 @@ public class CacheConfig {
     }
 
     /**
-     * Bean for embeddings cache - long TTL as embeddings don't change
+     * Bean for the in-memory (L1) tier of EmbeddingCacheService - long TTL as embeddings don't change.
+     * Not registered with the CacheManager; the service builds its own typed float[] cache from it.
      */
     @Bean
     public Caffeine<Object, Object> embeddingsCaffeineConfig() {
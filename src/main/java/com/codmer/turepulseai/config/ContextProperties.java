@@ -0,0 +1,19 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.context")
+public class ContextProperties {
+    // Token budget for retrieved context in a document search answer
+    private int maxTokens = 3000;
+    // Token budget for menu text when the menu has to be derived from chunks during an order
+    private int menuMaxTokens = 6000;
+    // Token budget for business context folded into an image prompt, which has its own length limit
+    private int imageMaxTokens = 600;
+}
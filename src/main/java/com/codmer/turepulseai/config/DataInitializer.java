@@ -8,6 +8,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -17,10 +19,13 @@ public class DataInitializer {
 
     private final RoleRepository roleRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final VectorSearchProperties vectorSearchProperties;
 
     @PostConstruct
     public void init() {
         initializePgVector();
+        initializeVectorIndex();
+        initializeLexicalIndex();
         initializeRoles();
     }
 
@@ -40,6 +45,13 @@ public class DataInitializer {
             } catch (Exception e) {
                 log.debug("Embedding column might already exist or vector type not available", e);
             }
+
+            // Chunks whose embedding batch failed are stored without one and re-embedded on the next run
+            try {
+                jdbcTemplate.execute("ALTER TABLE business_document_chunks ALTER COLUMN embedding DROP NOT NULL");
+            } catch (Exception e) {
+                log.warn("Could not make the embedding column nullable; chunks of a failed embedding batch will not be stored", e);
+            }
         } catch (Exception e) {
             log.warn("""
                     Failed to initialize pgvector extension. 
@@ -59,6 +71,73 @@ public class DataInitializer {
         }
     }
 
+    /**
+     * Make sure an ANN index exists whose operator class matches app.vector-search.metric and quantization,
+     * otherwise similarity queries fall back to a sequential scan. ANN indexes left over from an earlier
+     * metric, quantization or index type are dropped once the current one exists: the planner never uses
+     * them, yet every insert still pays to maintain them.
+     */
+    private void initializeVectorIndex() {
+        if (!vectorSearchProperties.isManageIndex()) {
+            return;
+        }
+        VectorSearchProperties.Metric metric = vectorSearchProperties.getMetric();
+        String method = vectorSearchProperties.getIndexType().name().toLowerCase();
+        try {
+            List<Map<String, Object>> annIndexes = jdbcTemplate.queryForList("""
+                    SELECT indexname, indexdef FROM pg_indexes
+                    WHERE tablename = 'business_document_chunks'
+                      AND (indexdef ILIKE '%USING hnsw %' OR indexdef ILIKE '%USING ivfflat %')
+                      AND indexdef ILIKE '%embedding%'
+                    """);
+            List<String> stale = new ArrayList<>();
+            boolean present = false;
+            for (Map<String, Object> index : annIndexes) {
+                String definition = ((String) index.get("indexdef")).toLowerCase();
+                if (definition.contains("using " + method + " ")
+                        && definition.contains(vectorSearchProperties.annOperatorClass())) {
+                    present = true;
+                } else {
+                    stale.add((String) index.get("indexname"));
+                }
+            }
+            if (present) {
+                log.info("Vector index for {} ({}, {}) already present", metric, method, vectorSearchProperties.getQuantization());
+            } else {
+                String indexName = vectorSearchProperties.annIndexName();
+                log.info("Creating vector index {} for metric {}", indexName, metric);
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + indexName
+                        + " ON business_document_chunks " + vectorSearchProperties.annIndexDefinition());
+            }
+            for (String indexName : stale) {
+                log.info("Dropping vector index {}; it does not match the configured metric, quantization or index type", indexName);
+                jdbcTemplate.execute("DROP INDEX IF EXISTS \"" + indexName + "\"");
+            }
+        } catch (Exception e) {
+            log.warn("Could not create vector index for metric {}; similarity search will scan the table", metric, e);
+        }
+    }
+
+    /**
+     * Full-text side of hybrid document search: a generated tsvector over chunk content with a GIN index.
+     * Adding the stored column rewrites the table once; afterwards Postgres maintains it on every insert.
+     */
+    private void initializeLexicalIndex() {
+        try {
+            jdbcTemplate.execute("""
+                    ALTER TABLE business_document_chunks
+                    ADD COLUMN IF NOT EXISTS content_tsv tsvector
+                    GENERATED ALWAYS AS (to_tsvector('english', content)) STORED
+                    """);
+            jdbcTemplate.execute("""
+                    CREATE INDEX IF NOT EXISTS idx_doc_chunks_content_tsv
+                    ON business_document_chunks USING gin (content_tsv)
+                    """);
+        } catch (Exception e) {
+            log.warn("Could not create full-text index on document chunks; hybrid search fails until it exists, set app.vector-search.hybrid-enabled=false to use vectors only", e);
+        }
+    }
+
     private void initializeRoles() {
         Map<String, String> roles = Map.of(
                 "ADMIN", "Administrator",
@@ -0,0 +1,15 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.embedding-store")
+public class EmbeddingStoreProperties {
+    private boolean persistentEnabled = true;
+    private String model = "text-embedding-3-small";
+}
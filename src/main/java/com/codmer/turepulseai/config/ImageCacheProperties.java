@@ -0,0 +1,21 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.image-cache")
+public class ImageCacheProperties {
+    // Reuse a generated image when the same final prompt is requested again at the same size
+    private boolean enabled = true;
+    // Cached images, one file per prompt digest; survives restarts
+    private String storageDir = System.getProperty("java.io.tmpdir") + "/turepulseai/image-cache";
+    // Disk budget; least recently used images are deleted beyond it
+    private long maxSizeMb = 1024;
+    // Part of the cache key, so switching image models never serves another model's images
+    private String model = "dall-e-3";
+}
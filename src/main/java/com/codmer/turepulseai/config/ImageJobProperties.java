@@ -0,0 +1,31 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.image-jobs")
+public class ImageJobProperties {
+    // Image model calls running at the same time across all users
+    private int workers = 4;
+    // Jobs waiting for a worker before new generations are rejected with 503
+    private int queueCapacity = 100;
+    // Where finished images are written; GET /api/business-images/{id} streams them from here
+    private String storageDir = System.getProperty("java.io.tmpdir") + "/turepulseai/images";
+    // Cache-Control max-age of a finished image; a job's image never changes once READY
+    private long cacheMaxAgeSeconds = 86_400;
+    // Largest image accepted from the provider (URL download or b64_json); larger ones fail the generation
+    private long maxImageBytes = 20L * 1024 * 1024;
+    // Upper bound for downloading a provider image URL, from request until the last byte
+    private long downloadTimeoutSeconds = 60;
+    // Most variants one /generate/variants request may ask for
+    private int maxVariants = 4;
+    // Variant generations one user may have running at once; the rest wait for that user's own slots
+    private int maxConcurrentPerUser = 2;
+    // How long a variants stream stays open; images still running afterwards finish as ordinary jobs
+    private long variantsTimeoutMs = 300_000;
+}
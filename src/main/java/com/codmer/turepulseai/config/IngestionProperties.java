@@ -0,0 +1,35 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.ingestion")
+public class IngestionProperties {
+    // Upper bound of estimated tokens sent in one EmbeddingModel.embed(List) call
+    private int maxBatchTokens = 60000;
+    // Upper bound of inputs in one embedding call (OpenAI accepts at most 2048)
+    private int maxBatchSize = 128;
+    // How many embedding batches may be outstanding against the provider at once
+    private int maxInFlightBatches = 3;
+    // Worker threads shared by all uploads for embedding calls
+    private int embeddingWorkers = 6;
+    // Concurrent document ingestion jobs (extraction + chunking + embedding)
+    private int jobWorkers = 2;
+    // Jobs waiting for a worker before uploads are rejected with 503
+    private int jobQueueCapacity = 50;
+    // Extraction stops (keeping what was read so far) once this many characters were produced
+    private long maxExtractedChars = 20_000_000L;
+    // Extraction stops once a single document has been parsing for this long
+    private long parseTimeoutSeconds = 300;
+    // Where uploaded files are kept until their ingestion job finishes, so jobs survive restarts
+    private String storageDir = System.getProperty("java.io.tmpdir") + "/turepulseai/uploads";
+    // Also copy neighbouring chunk text into prev_content/next_content (legacy layout); off stores neighbours by reference
+    private boolean inlineNeighborText = false;
+    // On startup, rewrite chunks still in the legacy layout into the compact one
+    private boolean compactExistingChunks = false;
+}
@@ -0,0 +1,40 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.intent-router")
+public class IntentRouterProperties {
+    // When off every query is classified by the LLM, as before
+    private boolean enabled = true;
+    // Decide by embedding when the best order prototype beats the best non-order prototype by at least this much
+    // cosine similarity (or loses by at least this much); anything closer goes to the LLM
+    private double orderMargin = 0.06;
+    private double questionMargin = 0.04;
+    private List<String> orderPrototypes = new ArrayList<>(List.of(
+            "I want to order a chicken biryani",
+            "Place an order for two pizzas",
+            "Can I get a large coffee and a blueberry muffin",
+            "I'd like to order the paneer tikka and garlic naan",
+            "Add two samosas to my order",
+            "Please book one veg burger for pickup",
+            "I'll take a margherita pizza and a coke",
+            "Order 3 mango lassis for me"));
+    private List<String> questionPrototypes = new ArrayList<>(List.of(
+            "What is on the menu today",
+            "Do you have vegan options",
+            "How much does the biryani cost",
+            "What are your opening hours",
+            "Is the chicken curry spicy",
+            "Where are you located",
+            "Do you deliver to my area",
+            "What ingredients are in the pasta"));
+}
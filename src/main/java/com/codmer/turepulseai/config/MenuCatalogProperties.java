@@ -0,0 +1,23 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.menu-catalog")
+public class MenuCatalogProperties {
+    // Extract a menu catalog from every ingested document; when off, orders re-derive the menu per request
+    private boolean enabled = true;
+    // Document text beyond this many characters is not sent for menu extraction
+    private int maxSourceChars = 200_000;
+    // Text sent to the LLM per extraction call; longer documents are extracted in several calls
+    private int segmentChars = 12_000;
+    // Entities whose catalog is kept in memory
+    private int cacheEntries = 1000;
+    // In-memory catalogs are reloaded after this long so other instances' re-ingestions become visible
+    private long cacheTtlMinutes = 30;
+}
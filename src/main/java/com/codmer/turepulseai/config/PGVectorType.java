@@ -4,8 +4,11 @@ import com.pgvector.PGvector;
 import org.hibernate.HibernateException;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.usertype.UserType;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.Oid;
 
 import java.io.Serializable;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -57,10 +60,26 @@ public class PGVectorType implements UserType<PGvector> {
         if (value == null) {
             st.setNull(index, Types.OTHER);
         } else {
+            enableBinaryTransfer(st.getConnection());
             st.setObject(index, value);
         }
     }
 
+    /**
+     * Let pgjdbc send PGvector parameters in pgvector's binary format instead of a ~20 KB text literal.
+     * The vector type's OID differs per database, so it is resolved (and cached by the driver) per connection.
+     */
+    public static void enableBinaryTransfer(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(BaseConnection.class)) {
+            return;
+        }
+        BaseConnection pgConnection = connection.unwrap(BaseConnection.class);
+        int oid = pgConnection.getTypeInfo().getPGType("vector");
+        if (oid != Oid.UNSPECIFIED && !pgConnection.binaryTransferSend(oid)) {
+            pgConnection.getQueryExecutor().addBinarySendOid(oid);
+        }
+    }
+
     @Override
     public PGvector deepCopy(PGvector value) throws HibernateException {
         if (value == null) return null;
@@ -0,0 +1,23 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.semantic-cache")
+public class SemanticCacheProperties {
+    // Reuse answers to earlier questions that mean the same thing; off falls back to exact-text caching only
+    private boolean enabled = true;
+    // Cosine similarity between question embeddings at or above which a previous answer is reused
+    private double similarityThreshold = 0.95;
+    // Questions remembered per entity; the oldest is dropped first
+    private int maxEntriesPerEntity = 500;
+    // Heap budget for all remembered question embeddings, across entities
+    private int maxMemoryMb = 64;
+    // Matches the ragAnswers TTL so both caches age out together
+    private long ttlMinutes = 180;
+}
@@ -0,0 +1,148 @@
+package com.codmer.turepulseai.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single source of truth for how chunk embeddings are compared.
+ * The same metric drives the operator in every similarity query and the operator class of the
+ * ANN index; if they disagree Postgres cannot use the index and scans every vector.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.vector-search")
+public class VectorSearchProperties {
+    private Metric metric = Metric.COSINE;
+    private IndexType indexType = IndexType.HNSW;
+    // Opt-in smaller ANN index: HALFVEC (half the size) or BINARY (1/32), with a full-precision re-rank of its candidates
+    private Quantization quantization = Quantization.NONE;
+    // Candidates a quantized index returns for re-ranking; raised to at least the query's LIMIT
+    private int rerankCandidates = 40;
+    // Dimensions of the embedding column; quantized index expressions need a fixed size
+    private int dimensions = 1536;
+    // Candidate list size for HNSW scans; raised to at least the query's LIMIT
+    private int efSearch = 100;
+    // Lists probed by IVFFlat scans
+    private int probes = 10;
+    // Optional cut-off in the metric's distance units; hits further away are not used as context (unset = keep all)
+    private Double maxDistance;
+    // Document search fuses the vector ranking with a full-text ranking (reciprocal rank fusion)
+    private boolean hybridEnabled = true;
+    // Candidates each ranker contributes before fusion
+    private int hybridCandidates = 20;
+    // RRF damping constant: score = sum(1 / (k + rank))
+    private int rrfK = 60;
+    // Chunks sent to the model when the request does not ask for a specific number, and the most it may ask for
+    private int defaultTopK = 4;
+    private int maxTopK = 20;
+    // Create the ANN index for the configured metric on startup when it does not exist yet
+    private boolean manageIndex = true;
+    private LocalIndex localIndex = new LocalIndex();
+    private Partitioning partitioning = new Partitioning();
+
+    /**
+     * In-process read replica of the hottest entities' chunks, answering similarity search without a pooled connection
+     */
+    @Getter
+    @Setter
+    public static class LocalIndex {
+        private boolean enabled = false;
+        // Heap budget for all entity snapshots together; least valuable entities are evicted first
+        private int maxMemoryMb = 256;
+        // Entities with more chunks than this always use the database; the exact scan costs about 1.6 us per 1536-dim chunk
+        private int maxChunksPerEntity = 500;
+    }
+
+    /**
+     * Hash partitioning of business_document_chunks by business_id, each partition with its own ANN index
+     */
+    @Getter
+    @Setter
+    public static class Partitioning {
+        // Convert an unpartitioned chunk table on startup; rows are copied in the background while it stays writable
+        private boolean enabled = false;
+        // Hash partitions created by the conversion; changing it later requires another migration
+        private int partitions = 16;
+        // Rows copied per short transaction during the conversion
+        private int copyBatchSize = 5000;
+    }
+
+    /**
+     * Name of the ANN index for the configured metric, index type and quantization
+     */
+    public String annIndexName() {
+        String name = "idx_doc_chunks_embedding_" + indexType.name().toLowerCase() + "_" + metric.name().toLowerCase();
+        return quantization == Quantization.NONE ? name : name + "_" + quantization.name().toLowerCase();
+    }
+
+    public String annOperatorClass() {
+        return annOperatorClass(quantization);
+    }
+
+    public String annOperatorClass(Quantization mode) {
+        return switch (mode) {
+            case NONE -> metric.getOperatorClass();
+            case HALFVEC -> metric.getHalfvecOperatorClass();
+            case BINARY -> "bit_hamming_ops";
+        };
+    }
+
+    /**
+     * Method, indexed expression and operator class of the ANN index, as used after "ON table"
+     */
+    public String annIndexDefinition() {
+        String expression = switch (quantization) {
+            case NONE -> "embedding";
+            case HALFVEC -> "(embedding::halfvec(" + dimensions + "))";
+            case BINARY -> "(binary_quantize(embedding)::bit(" + dimensions + "))";
+        };
+        String options = indexType == IndexType.IVFFLAT ? " WITH (lists = 100)" : "";
+        return "USING " + indexType.name().toLowerCase() + " (" + expression + " " + annOperatorClass() + ")" + options;
+    }
+
+    /**
+     * ORDER BY clause matching a quantized index's expression, so the planner can scan that index
+     *
+     * @param vectorRef the query vector: a placeholder or a column
+     */
+    public String quantizedOrderBy(Quantization mode, String vectorRef) {
+        return switch (mode) {
+            case NONE -> "embedding " + metric.getOperator() + " " + vectorRef;
+            case HALFVEC -> "embedding::halfvec(" + dimensions + ") " + metric.getOperator()
+                    + " CAST(" + vectorRef + " AS halfvec(" + dimensions + "))";
+            // Hamming distance between sign bits approximates angular distance for normalized embeddings
+            case BINARY -> "binary_quantize(embedding)::bit(" + dimensions + ") <~> binary_quantize(CAST(" + vectorRef + " AS vector))";
+        };
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Metric {
+        COSINE("<=>", "vector_cosine_ops", "halfvec_cosine_ops"),
+        INNER_PRODUCT("<#>", "vector_ip_ops", "halfvec_ip_ops"),
+        L2("<->", "vector_l2_ops", "halfvec_l2_ops");
+
+        private final String operator;
+        private final String operatorClass;
+        private final String halfvecOperatorClass;
+    }
+
+    /**
+     * What the ANN index is built over. Quantized indexes are expression indexes on the embedding column,
+     * so the table keeps one full-precision copy that is only read to re-rank candidates.
+     */
+    public enum Quantization {
+        NONE,
+        HALFVEC,
+        BINARY
+    }
+
+    public enum IndexType {
+        HNSW,
+        IVFFLAT
+    }
+}
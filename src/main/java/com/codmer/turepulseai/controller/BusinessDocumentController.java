@@ -1,8 +1,11 @@
 package com.codmer.turepulseai.controller;
 
+import com.codmer.turepulseai.model.DocumentBatchSearchRequest;
 import com.codmer.turepulseai.model.DocumentSearchRequest;
 import com.codmer.turepulseai.model.DocumentSearchResponse;
+import com.codmer.turepulseai.model.DocumentStatusResponse;
 import com.codmer.turepulseai.model.DocumentUploadResponse;
+import com.codmer.turepulseai.model.VectorQuantizationReport;
 import com.codmer.turepulseai.service.BusinessDocumentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +13,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
@@ -25,7 +30,35 @@ public class BusinessDocumentController {
             @RequestParam("entityId") Long entityId,
             @RequestParam("displayName") String displayName) {
         log.info("Uploading document for entityId: {}, displayName: {}", entityId, displayName);
-        return ResponseEntity.ok(businessDocumentService.uploadDocument(file, entityId, displayName));
+        // Processing continues in the background; poll the status endpoint for progress
+        return ResponseEntity.accepted().body(businessDocumentService.uploadDocument(file, entityId, displayName));
+    }
+
+    @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<DocumentUploadResponse> replaceDocument(
+            @PathVariable Long id,
+            @RequestPart("file") MultipartFile file) {
+        log.info("Replacing document {}", id);
+        // Only chunks whose content changed are re-embedded; poll the status endpoint for progress
+        return ResponseEntity.accepted().body(businessDocumentService.replaceDocument(id, file));
+    }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity<DocumentStatusResponse> getDocumentStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(businessDocumentService.getDocumentStatus(id));
+    }
+
+    /**
+     * Recall and latency of each quantized index mode on the caller's own chunks of one entity.
+     * Runs samples x 4 similarity queries; meant for an operator choosing app.vector-search.quantization.
+     */
+    @GetMapping("/quantization-report")
+    public ResponseEntity<VectorQuantizationReport> quantizationReport(
+            @RequestParam("entityId") Long entityId,
+            @RequestParam("displayName") String displayName,
+            @RequestParam(value = "samples", defaultValue = "50") int samples,
+            @RequestParam(value = "topK", defaultValue = "10") int topK) {
+        return ResponseEntity.ok(businessDocumentService.quantizationReport(entityId, displayName, samples, topK));
     }
 
     @PostMapping("/public/search")
@@ -33,4 +66,27 @@ public class BusinessDocumentController {
         log.info("Searching documents for entityId: {}, displayName: {}", request.getEntityId(), request.getDisplayName());
         return ResponseEntity.ok(businessDocumentService.searchDocuments(request));
     }
+
+    /**
+     * Server-sent events: "metadata" (retrieved chunk ids and distances) as soon as retrieval is done,
+     * then one "token" event per generated fragment, then "answer" with the complete response.
+     * Cached answers and order replies arrive as a single "answer" event.
+     */
+    @PostMapping(value = "/public/search/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSearchDocuments(@RequestBody DocumentSearchRequest request) {
+        log.info("Streaming search for entityId: {}, displayName: {}", request.getEntityId(), request.getDisplayName());
+        return businessDocumentService.streamSearchDocuments(request);
+    }
+
+    /**
+     * Several questions about one entity in one call, e.g. to generate FAQ answers in bulk.
+     * Newline-delimited JSON, one DocumentBatchSearchResult per query in the order the answers complete;
+     * each line carries the query's index in the request.
+     */
+    @PostMapping(value = "/public/search/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter batchSearchDocuments(@RequestBody DocumentBatchSearchRequest request) {
+        log.info("Batch search for entityId: {}, displayName: {}, queries: {}", request.getEntityId(),
+                request.getDisplayName(), request.getQueries() == null ? 0 : request.getQueries().size());
+        return businessDocumentService.streamBatchSearch(request);
+    }
 }
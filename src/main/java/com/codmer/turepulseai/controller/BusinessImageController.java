@@ -1,16 +1,29 @@
 package com.codmer.turepulseai.controller;
 
+import com.codmer.turepulseai.config.ImageJobProperties;
+import com.codmer.turepulseai.model.BusinessImageContent;
 import com.codmer.turepulseai.model.BusinessImageGenerateRequest;
 import com.codmer.turepulseai.model.BusinessImageGenerateResponse;
+import com.codmer.turepulseai.model.BusinessImageJobResponse;
+import com.codmer.turepulseai.service.BusinessImageJobService;
 import com.codmer.turepulseai.service.BusinessImageService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
 
 @Slf4j
 @RestController
@@ -19,24 +32,70 @@ import org.springframework.web.bind.annotation.RestController;
 public class BusinessImageController {
 
     private final BusinessImageService businessImageService;
+    private final BusinessImageJobService businessImageJobService;
+    private final ImageJobProperties imageJobProperties;
 
     /**
-     * Generate a new business image based on the prompt and business documents.
-     * Returns only the image and overlay data (no text embedded in image).
+     * Queue a new business image generation based on the prompt and business documents.
+     * Returns at once with a job id; poll the status URL and download the image from the image URL once READY.
      *
      * @param request BusinessImageGenerateRequest with prompt, entityId, displayName, etc.
-     * @return BusinessImageGenerateResponse with image and overlay.
+     * @return BusinessImageJobResponse with the job id and status.
      */
     @PostMapping("/generate")
-    public ResponseEntity<BusinessImageGenerateResponse> generate(@Valid @RequestBody BusinessImageGenerateRequest request) {
+    public ResponseEntity<BusinessImageJobResponse> generate(@Valid @RequestBody BusinessImageGenerateRequest request) {
         log.info("Business image generation request received for entityId={}, displayName={}",
                 request.getEntityId(), request.getDisplayName());
         // Validate prompt length (example: max 4000 chars)
         if (request.getPrompt() != null && request.getPrompt().length() > 4000) {
             throw new IllegalArgumentException("Prompt too long. Maximum allowed is 4000 characters.");
         }
-        BusinessImageGenerateResponse response = businessImageService.generate(request);
-        return ResponseEntity.ok(response);
+        BusinessImageJobResponse response = businessImageJobService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Generate several variants of the same creative at once. Intent, overlays and business context are computed
+     * once and the image model calls run concurrently, so the wait is close to a single generation.
+     * Streams Server-Sent Events: "variants" with every job id up front, one "variant" per image as it finishes
+     * (with its image URL), then "done".
+     *
+     * @param request BusinessImageGenerateRequest with prompt, entityId, displayName and variants.
+     * @return SseEmitter streaming BusinessImageJobResponse events.
+     */
+    @PostMapping(value = "/generate/variants", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generateVariants(@Valid @RequestBody BusinessImageGenerateRequest request) {
+        log.info("Business image variants request received for entityId={}, displayName={}, variants={}",
+                request.getEntityId(), request.getDisplayName(), request.getVariants());
+        if (request.getPrompt() != null && request.getPrompt().length() > 4000) {
+            throw new IllegalArgumentException("Prompt too long. Maximum allowed is 4000 characters.");
+        }
+        return businessImageJobService.streamVariants(request);
+    }
+
+    /**
+     * Status of an image job, with the overlay data once the image is generated
+     */
+    @GetMapping("/{id}/status")
+    public ResponseEntity<BusinessImageJobResponse> getStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(businessImageJobService.getJob(id));
+    }
+
+    /**
+     * Raw bytes of a generated image. A job's image never changes, so its SHA-256 is a strong ETag and a
+     * matching If-None-Match is answered with 304 without sending the body.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Resource> getImage(@PathVariable Long id) {
+        BusinessImageContent image = businessImageJobService.getImage(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.getMimeType()))
+                .contentLength(image.getSizeBytes())
+                .eTag(image.getEtag())
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(imageJobProperties.getCacheMaxAgeSeconds()))
+                        .cachePrivate()
+                        .immutable())
+                .body(image.getResource());
     }
 
     /**
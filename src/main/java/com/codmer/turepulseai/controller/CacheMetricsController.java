@@ -0,0 +1,65 @@
+package com.codmer.turepulseai.controller;
+
+import com.codmer.turepulseai.model.ContextAssemblerStats;
+import com.codmer.turepulseai.model.EmbeddingCacheStats;
+import com.codmer.turepulseai.model.GeneratedImageCacheStats;
+import com.codmer.turepulseai.model.IntentRouterStats;
+import com.codmer.turepulseai.model.LocalVectorIndexStats;
+import com.codmer.turepulseai.model.SemanticAnswerCacheStats;
+import com.codmer.turepulseai.service.ContextAssembler;
+import com.codmer.turepulseai.service.EmbeddingCacheService;
+import com.codmer.turepulseai.service.GeneratedImageCache;
+import com.codmer.turepulseai.service.IntentRouter;
+import com.codmer.turepulseai.service.LocalChunkIndex;
+import com.codmer.turepulseai.service.SemanticAnswerCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Read-only counters for the AI caching layers, so we can see how many provider calls they save.
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class CacheMetricsController {
+
+    private final EmbeddingCacheService embeddingCacheService;
+    private final LocalChunkIndex localChunkIndex;
+    private final IntentRouter intentRouter;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final ContextAssembler contextAssembler;
+    private final GeneratedImageCache generatedImageCache;
+
+    @GetMapping("/embeddings")
+    public ResponseEntity<EmbeddingCacheStats> embeddingStats() {
+        return ResponseEntity.ok(embeddingCacheService.stats());
+    }
+
+    @GetMapping("/local-vector-index")
+    public ResponseEntity<LocalVectorIndexStats> localVectorIndexStats() {
+        return ResponseEntity.ok(localChunkIndex.stats());
+    }
+
+    @GetMapping("/intent-router")
+    public ResponseEntity<IntentRouterStats> intentRouterStats() {
+        return ResponseEntity.ok(intentRouter.stats());
+    }
+
+    @GetMapping("/semantic-answers")
+    public ResponseEntity<SemanticAnswerCacheStats> semanticAnswerStats() {
+        return ResponseEntity.ok(semanticAnswerCache.stats());
+    }
+
+    @GetMapping("/context-assembler")
+    public ResponseEntity<ContextAssemblerStats> contextAssemblerStats() {
+        return ResponseEntity.ok(contextAssembler.stats());
+    }
+
+    @GetMapping("/generated-images")
+    public ResponseEntity<GeneratedImageCacheStats> generatedImageStats() {
+        return ResponseEntity.ok(generatedImageCache.stats());
+    }
+}
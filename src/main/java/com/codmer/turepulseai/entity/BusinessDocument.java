@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "business_documents", indexes = {
         @Index(name = "idx_business_documents_business_id", columnList = "business_id"),
-        @Index(name = "idx_business_documents_user_id", columnList = "user_id")
+        @Index(name = "idx_business_documents_user_id", columnList = "user_id"),
+        @Index(name = "idx_business_documents_status", columnList = "status")
 })
 public class BusinessDocument {
     @Id
@@ -43,6 +44,18 @@ public class BusinessDocument {
     @Column(nullable = false)
     private String status;
 
+    // Ingestion progress, updated after every stored embedding batch
+    private Integer chunksTotal;
+
+    private Integer chunksDone;
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    // SHA-256 of the text the menu catalog was extracted from; null until the catalog has been built
+    @Column(name = "menu_catalog_hash", length = 64)
+    private String menuCatalogHash;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
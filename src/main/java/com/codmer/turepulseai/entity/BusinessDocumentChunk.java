@@ -13,9 +13,12 @@ import java.time.LocalDateTime;
 @Table(name = "business_document_chunks", indexes = {
         @Index(name = "idx_doc_chunks_document_id", columnList = "document_id"),
         @Index(name = "idx_doc_chunks_business_id", columnList = "business_id"),
-        @Index(name = "idx_doc_chunks_entity_id", columnList = "entity_id")
+        @Index(name = "idx_doc_chunks_entity_id", columnList = "entity_id"),
+        @Index(name = "idx_doc_chunks_document_hash", columnList = "document_id, content_hash"),
+        @Index(name = "idx_doc_chunks_document_index", columnList = "document_id, chunk_index")
 })
 public class BusinessDocumentChunk {
+    // When the table is hash-partitioned by business_id (ChunkTablePartitioner) the database key is (id, business_id); id alone stays unique
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,6 +41,18 @@ public class BusinessDocumentChunk {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String content;
 
+    // SHA-256 of content; lets a re-upload keep unchanged chunks and their embeddings
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Number of leading characters of content repeated from the end of the previous chunk
+    @Column(name = "overlap_chars")
+    private Integer overlapChars;
+
+    /**
+     * Neighbour text is only stored when app.ingestion.inline-neighbor-text is on.
+     * The compact layout leaves these null and resolves neighbours by (document_id, chunk_index ± 1).
+     */
     @Column(columnDefinition = "TEXT")
     private String prevContent;
 
@@ -47,11 +62,16 @@ public class BusinessDocumentChunk {
     @Column(nullable = false)
     private Integer embeddingDimension;
 
+    // Written by an ingestion run that has not finished yet; hidden from search until the run publishes the document
+    @Column(name = "staged", nullable = false, columnDefinition = "boolean default false")
+    private boolean staged;
+
     /**
      * Store embedding as PGvector for efficient similarity search in PostgreSQL
      * Uses pgvector extension for vector operations and HNSW indexing
+     * Null while a chunk whose embedding batch failed waits to be re-embedded
      */
-    @Column(name = "embedding", columnDefinition = "vector(1536)", nullable = false)
+    @Column(name = "embedding", columnDefinition = "vector(1536)")
     @Type(PGVectorType.class)
     private PGvector embedding;
 
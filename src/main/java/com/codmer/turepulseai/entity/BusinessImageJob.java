@@ -0,0 +1,85 @@
+package com.codmer.turepulseai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One asynchronous image generation. The row carries the request so PENDING jobs survive a restart,
+ * and the finished image lives on disk at storagePath rather than in the row.
+ */
+@Data
+@Entity
+@Table(name = "business_image_jobs", indexes = {
+        @Index(name = "idx_business_image_jobs_username", columnList = "username"),
+        @Index(name = "idx_business_image_jobs_status", columnList = "status")
+})
+public class BusinessImageJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Only the user who requested the image can poll it or download it
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "display_name", nullable = false)
+    private String displayName;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String prompt;
+
+    @Column(name = "image_size")
+    private String imageSize;
+
+    // Bypass the generated image cache for this job
+    @Column(name = "force_new", nullable = false, columnDefinition = "boolean default false")
+    private boolean forceNew;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(columnDefinition = "TEXT")
+    private String revisedPrompt;
+
+    // OverlaySpec list as JSON, so the status endpoint can return it without re-running intent analysis
+    @Column(columnDefinition = "TEXT")
+    private String overlays;
+
+    @Column(columnDefinition = "TEXT")
+    private String storagePath;
+
+    private String mimeType;
+
+    private Long sizeBytes;
+
+    // The image was copied from the generated image cache rather than generated
+    private Boolean cached;
+
+    // Hex SHA-256 of the stored image, served as its ETag
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
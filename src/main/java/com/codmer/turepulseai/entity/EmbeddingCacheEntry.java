@@ -0,0 +1,45 @@
+package com.codmer.turepulseai.entity;
+
+import com.codmer.turepulseai.config.PGVectorType;
+import com.pgvector.PGvector;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable (L2) copy of an embedding, addressed by the SHA-256 of the normalized input text
+ * together with the embedding model and vector dimensions that produced it.
+ */
+@Data
+@Entity
+@Table(name = "embedding_cache", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_embedding_cache_key", columnNames = {"content_hash", "model", "dimensions"})
+})
+public class EmbeddingCacheEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 100)
+    private String model;
+
+    @Column(nullable = false)
+    private Integer dimensions;
+
+    @Column(name = "embedding", columnDefinition = "vector", nullable = false)
+    @Type(PGVectorType.class)
+    private PGvector embedding;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,46 @@
+package com.codmer.turepulseai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One menu item extracted from a business document at ingestion time.
+ * Rows belong to the document that produced them and are replaced whenever that document is re-ingested.
+ */
+@Data
+@Entity
+@Table(name = "menu_catalog_items", indexes = {
+        @Index(name = "idx_menu_catalog_business_entity", columnList = "business_id, entity_id"),
+        @Index(name = "idx_menu_catalog_document", columnList = "document_id")
+})
+public class MenuCatalogItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Column(name = "business_id", nullable = false)
+    private String businessId;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private String name;
+
+    // Lower-cased, whitespace-collapsed name used for matching
+    @Column(name = "normalized_name", nullable = false)
+    private String normalizedName;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
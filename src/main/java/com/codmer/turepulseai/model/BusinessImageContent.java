@@ -0,0 +1,22 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.core.io.Resource;
+
+/**
+ * A stored image ready to be streamed to the client
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessImageContent {
+    private Resource resource;
+    private String mimeType;
+    private long sizeBytes;
+    // Hex SHA-256 of the image bytes
+    private String etag;
+}
@@ -11,6 +11,12 @@ public class BusinessImageGenerateRequest {
     // Optional: if null, service uses a safe default.
     private String size;
 
+    // Optional: skip the generated image cache and pay for a fresh variant even if this prompt was generated before.
+    private Boolean forceNew;
+
+    // Optional, /generate/variants only: how many images to generate from the same prompt (default 2).
+    private Integer variants;
+
     /**
      * Optional: base image to refine or adjust. Expected as a data URL (e.g. "data:image/png;base64,....")
      * or raw Base64 image string. When present, regenerate API will treat this as the visual baseline
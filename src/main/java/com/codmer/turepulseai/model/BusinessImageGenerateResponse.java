@@ -1,7 +1,9 @@
 package com.codmer.turepulseai.model;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Builder;
+import lombok.NoArgsConstructor;
 
 import java.util.List;
 
@@ -22,6 +24,8 @@ public class BusinessImageGenerateResponse {
 
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class OverlaySpec {
         private int slot;
         private String role;      // brand, offer, headline, details, contact, etc.
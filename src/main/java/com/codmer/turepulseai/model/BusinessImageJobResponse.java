@@ -0,0 +1,33 @@
+package com.codmer.turepulseai.model;
+
+import com.codmer.turepulseai.model.BusinessImageGenerateResponse.OverlaySpec;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessImageJobResponse {
+    private Long jobId;
+    private Long entityId;
+    private String displayName;
+    private String status;
+    private String message;
+    // Poll this URL until status is READY or FAILED
+    private String statusUrl;
+    // Raw image bytes, set once the job is READY
+    private String imageUrl;
+    private String mimeType;
+    private Long sizeBytes;
+    // The image came from the generated image cache; send forceNew for a fresh variant
+    private Boolean cached;
+    private List<OverlaySpec> overlays;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContextAssemblerStats {
+    private long assemblies;
+    // Tokens the context would have cost as plain joined chunks
+    private long rawTokens;
+    private long assembledTokens;
+    private long savedTokens;
+    // Lower-ranked blocks left out because the budget was spent
+    private long droppedBlocks;
+}
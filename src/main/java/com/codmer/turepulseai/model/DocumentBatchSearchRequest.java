@@ -0,0 +1,15 @@
+package com.codmer.turepulseai.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DocumentBatchSearchRequest {
+    private Long entityId;
+    private String displayName;
+    private List<String> queries;
+    private Integer topK;
+    // Also send the chunks before and after each hit to the model
+    private Boolean expandContext;
+}
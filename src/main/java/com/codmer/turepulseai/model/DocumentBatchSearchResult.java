@@ -0,0 +1,24 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a batch search response, written as soon as its answer is ready
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentBatchSearchResult {
+    // Position of the query in the request; lines arrive in completion order
+    private int index;
+    private String query;
+    private String answer;
+    // True when the answer came from the exact or semantic answer cache
+    private boolean cached;
+    // Set instead of answer when this query failed; the other queries are unaffected
+    private String error;
+}
@@ -0,0 +1,35 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * First event of a streamed search: what the answer is going to be grounded on
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSearchMetadata {
+    private String businessId;
+    private Long entityId;
+    private String displayName;
+    private String query;
+    private List<RetrievedChunk> chunks;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RetrievedChunk {
+        private Long chunkId;
+        private Long documentId;
+        private Integer chunkIndex;
+        // Vector distance under the configured metric; null for hits only the full-text ranker found
+        private Double distance;
+    }
+}
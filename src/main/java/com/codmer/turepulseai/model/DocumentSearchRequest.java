@@ -8,4 +8,6 @@ public class DocumentSearchRequest {
     private String displayName;
     private String query;
     private Integer topK;
+    // Also send the chunks before and after each hit to the model
+    private Boolean expandContext;
 }
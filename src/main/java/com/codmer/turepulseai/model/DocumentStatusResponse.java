@@ -0,0 +1,22 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStatusResponse {
+    private Long documentId;
+    private String title;
+    private String status;
+    private Integer chunksDone;
+    private Integer chunksTotal;
+    private String message;
+    private LocalDateTime updatedAt;
+}
@@ -17,4 +17,6 @@ public class DocumentUploadResponse {
     private String title;
     private String status;
     private String message;
+    // Poll this URL for ingestion progress; documentId doubles as the ingestion job id
+    private String statusUrl;
 }
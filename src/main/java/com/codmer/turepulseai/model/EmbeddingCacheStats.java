@@ -0,0 +1,22 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmbeddingCacheStats {
+    private String model;
+    private int dimensions;
+    private long l1Hits;
+    private long l2Hits;
+    private long misses;
+    private long l2Reads;
+    private long l2Writes;
+    private long l1Size;
+    private double hitRate;
+}
@@ -0,0 +1,24 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeneratedImageCacheStats {
+    private boolean enabled;
+    private long entries;
+    private long bytes;
+    private long maxBytes;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    // Image bytes copied from the cache instead of being generated by the provider
+    private long bytesServed;
+    private long stores;
+    private long evictions;
+}
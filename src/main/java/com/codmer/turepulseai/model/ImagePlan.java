@@ -0,0 +1,31 @@
+package com.codmer.turepulseai.model;
+
+import com.codmer.turepulseai.model.BusinessImageGenerateResponse.OverlaySpec;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything decided before the image model call: intent, overlays and the RAG-grounded final prompt.
+ * Built once and rendered any number of times, e.g. once per variant.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImagePlan {
+    private Long entityId;
+    private String displayName;
+    private String revisedPrompt;
+    private List<OverlaySpec> overlays;
+    // As requested; validated when rendering
+    private String size;
+    private boolean refine;
+    // Look the final prompt up in the generated image cache and store the result there
+    private boolean cacheable;
+    // Skip the cache lookup but still store the fresh image
+    private boolean forceNew;
+}
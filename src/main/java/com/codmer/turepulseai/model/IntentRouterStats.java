@@ -0,0 +1,20 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntentRouterStats {
+    private boolean enabled;
+    private long ruleDecisions;
+    private long embeddingDecisions;
+    private long llmDecisions;
+    private long orderIntents;
+    // Share of decisions made without a chat completion
+    private double localRate;
+}
@@ -0,0 +1,22 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocalVectorIndexStats {
+    private boolean enabled;
+    private long entities;
+    private long estimatedBytes;
+    private long maxBytes;
+    private long hits;
+    private long misses;
+    private long builds;
+    private long evictions;
+    private double hitRate;
+}
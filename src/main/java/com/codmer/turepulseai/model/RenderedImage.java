@@ -0,0 +1,33 @@
+package com.codmer.turepulseai.model;
+
+import com.codmer.turepulseai.model.BusinessImageGenerateResponse.OverlaySpec;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of one image model call: size and type of the image written to the caller's stream, or the error,
+ * plus the overlay metadata the client renders on top of the (text-free) image
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RenderedImage {
+    private Long entityId;
+    private String displayName;
+    private String revisedPrompt;
+    private List<OverlaySpec> overlays;
+    private long sizeBytes;
+    private String mimeType;
+    // Served from the generated image cache instead of a new image model call
+    private boolean cached;
+    private String error;
+
+    public boolean isSuccess() {
+        return error == null && sizeBytes > 0;
+    }
+}
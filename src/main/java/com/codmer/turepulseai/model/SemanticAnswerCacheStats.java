@@ -0,0 +1,23 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SemanticAnswerCacheStats {
+    private boolean enabled;
+    private double similarityThreshold;
+    private long entities;
+    private long entries;
+    private long estimatedBytes;
+    private long maxBytes;
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private double hitRate;
+}
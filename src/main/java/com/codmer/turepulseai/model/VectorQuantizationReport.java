@@ -0,0 +1,45 @@
+package com.codmer.turepulseai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Recall and latency of each ANN index mode against exact search, measured on one entity's own chunks
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VectorQuantizationReport {
+    private String businessId;
+    private Long entityId;
+    private String displayName;
+    // Stored chunk embeddings used as queries
+    private int samples;
+    private int topK;
+    private int rerankCandidates;
+    private double exactMeanLatencyMs;
+    private List<ModeResult> modes;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ModeResult {
+        private String quantization;
+        // The mode app.vector-search.quantization currently selects
+        private boolean configured;
+        // False when the mode's index does not exist; its numbers then describe a sequential scan
+        private boolean indexed;
+        // Share of the exact top-k found, averaged over the samples
+        private double recall;
+        private double meanLatencyMs;
+        private double p95LatencyMs;
+        // Size of one indexed vector in this mode, without the index's graph or list overhead
+        private long vectorBytes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.codmer.turepulseai.repository;
+
+import com.codmer.turepulseai.entity.BusinessDocumentChunk;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BusinessDocumentChunkRepositoryCustom {
+
+    /**
+     * Insert chunks with a single JDBC batch instead of one IDENTITY round trip per row.
+     * Generated ids are not read back, so the given entities stay transient. Rows are written staged,
+     * invisible to search until {@link #publishStaged} runs for their document.
+     *
+     * @return number of rows written
+     */
+    int batchInsert(List<BusinessDocumentChunk> chunks);
+
+    /**
+     * Id, position, content hash and whether an embedding is stored, for every stored chunk of a document,
+     * without loading content or embeddings
+     */
+    List<StoredChunkRef> findStoredChunkRefs(String businessId, Long documentId);
+
+    /**
+     * Make a document's staged chunks searchable; run in the same transaction that removes the chunks they replace
+     *
+     * @return number of rows published
+     */
+    int publishStaged(String businessId, Long documentId);
+
+    /**
+     * Delete chunks of one business by id; the business_id predicate lets a partitioned table touch one partition
+     *
+     * @return number of rows deleted
+     */
+    int deleteByIds(String businessId, Collection<Long> chunkIds);
+
+    /**
+     * Move kept chunks to their new position and neighbour context in one JDBC batch.
+     * Rows whose index and neighbours are already correct are left untouched.
+     *
+     * @return number of rows changed
+     */
+    int batchUpdatePositions(List<BusinessDocumentChunk> chunks);
+
+    /**
+     * The given chunks together with their immediate published neighbours (chunk_index ± 1 in the same document),
+     * fetched in a single query. Used for context expansion in the compact storage layout.
+     */
+    List<ChunkText> findWithNeighbors(String businessId, Collection<Long> chunkIds);
+
+    /**
+     * Ids of documents with chunks still in the legacy layout (inline neighbour text, no overlap offset)
+     */
+    List<Long> findDocumentIdsToCompact();
+
+    /**
+     * Rewrite one document's chunks into the compact layout: drop the copied prev/next text and, where no
+     * overlap was recorded at ingest, set overlap_chars to 0 so the chunk text is always joined in full.
+     *
+     * @return number of rows rewritten
+     */
+    int compactDocument(Long documentId);
+
+    // embedded is false for chunks whose embedding batch failed; they are stored without a vector
+    record StoredChunkRef(long id, int chunkIndex, String contentHash, boolean embedded) {
+    }
+
+    record ChunkText(long id, long documentId, int chunkIndex, String content, int overlapChars) {
+    }
+}
@@ -0,0 +1,208 @@
+package com.codmer.turepulseai.repository;
+
+import com.codmer.turepulseai.config.PGVectorType;
+import com.codmer.turepulseai.entity.BusinessDocumentChunk;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BusinessDocumentChunkRepositoryImpl implements BusinessDocumentChunkRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO business_document_chunks
+                (document_id, business_id, entity_id, display_name, chunk_index, content, content_hash, overlap_chars,
+                 prev_content, next_content, embedding_dimension, embedding, created_by, created_at, updated_at, staged)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, true)
+            """;
+
+    private static final String SELECT_REFS_SQL = """
+            SELECT id, chunk_index, content_hash, embedding IS NOT NULL AS embedded
+            FROM business_document_chunks WHERE business_id = ? AND document_id = ?
+            """;
+
+    private static final String PUBLISH_STAGED_SQL = """
+            UPDATE business_document_chunks SET staged = false
+            WHERE business_id = ? AND document_id = ? AND staged
+            """;
+
+    private static final String DELETE_BY_IDS_SQL = """
+            DELETE FROM business_document_chunks WHERE business_id = ? AND id = ANY(?)
+            """;
+
+    private static final String UPDATE_POSITION_SQL = """
+            UPDATE business_document_chunks
+            SET chunk_index = ?, overlap_chars = ?, prev_content = ?, next_content = ?, updated_at = ?
+            WHERE business_id = ? AND id = ?
+              AND (chunk_index <> ? OR overlap_chars IS DISTINCT FROM ?
+                   OR prev_content IS DISTINCT FROM ? OR next_content IS DISTINCT FROM ?)
+            """;
+
+    private static final String SELECT_WITH_NEIGHBORS_SQL = """
+            SELECT DISTINCT n.id, n.document_id, n.chunk_index, n.content, COALESCE(n.overlap_chars, 0) AS overlap_chars
+            FROM business_document_chunks h
+            JOIN business_document_chunks n
+              ON n.business_id = h.business_id
+             AND n.document_id = h.document_id
+             AND n.chunk_index BETWEEN h.chunk_index - 1 AND h.chunk_index + 1
+             AND NOT n.staged
+            WHERE h.business_id = ? AND h.id = ANY(?)
+            ORDER BY n.document_id, n.chunk_index
+            """;
+
+    private static final String SELECT_DOCUMENTS_TO_COMPACT_SQL = """
+            SELECT DISTINCT document_id FROM business_document_chunks
+            WHERE overlap_chars IS NULL OR prev_content IS NOT NULL OR next_content IS NOT NULL
+            """;
+
+    // The overlap a legacy chunk shares with its predecessor was never recorded, so none is stripped on join
+    private static final String COMPACT_DOCUMENT_SQL = """
+            UPDATE business_document_chunks
+            SET overlap_chars = COALESCE(overlap_chars, 0),
+                prev_content = NULL,
+                next_content = NULL,
+                updated_at = ?
+            WHERE document_id = ?
+              AND (overlap_chars IS NULL OR prev_content IS NOT NULL OR next_content IS NOT NULL)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchInsert(List<BusinessDocumentChunk> chunks) {
+        if (chunks == null || chunks.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BusinessDocumentChunk chunk = chunks.get(i);
+                if (i == 0) {
+                    PGVectorType.enableBinaryTransfer(ps.getConnection());
+                }
+                ps.setLong(1, chunk.getDocumentId());
+                ps.setString(2, chunk.getBusinessId());
+                ps.setLong(3, chunk.getEntityId());
+                ps.setString(4, chunk.getDisplayName());
+                ps.setInt(5, chunk.getChunkIndex());
+                ps.setString(6, chunk.getContent());
+                ps.setString(7, chunk.getContentHash());
+                ps.setObject(8, chunk.getOverlapChars(), Types.INTEGER);
+                ps.setString(9, chunk.getPrevContent());
+                ps.setString(10, chunk.getNextContent());
+                ps.setInt(11, chunk.getEmbeddingDimension());
+                if (chunk.getEmbedding() != null) {
+                    ps.setObject(12, chunk.getEmbedding());
+                } else {
+                    ps.setNull(12, Types.OTHER);
+                }
+                ps.setString(13, chunk.getCreatedBy());
+                ps.setTimestamp(14, now);
+                ps.setTimestamp(15, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunks.size();
+            }
+        });
+        int written = 0;
+        for (int count : counts) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            written += count > 0 || count == PreparedStatement.SUCCESS_NO_INFO ? 1 : 0;
+        }
+        return written;
+    }
+
+    @Override
+    public List<StoredChunkRef> findStoredChunkRefs(String businessId, Long documentId) {
+        return jdbcTemplate.query(SELECT_REFS_SQL,
+                (rs, rowNum) -> new StoredChunkRef(rs.getLong("id"), rs.getInt("chunk_index"),
+                        rs.getString("content_hash"), rs.getBoolean("embedded")),
+                businessId, documentId);
+    }
+
+    @Override
+    public int publishStaged(String businessId, Long documentId) {
+        return jdbcTemplate.update(PUBLISH_STAGED_SQL, businessId, documentId);
+    }
+
+    @Override
+    public int deleteByIds(String businessId, Collection<Long> chunkIds) {
+        if (chunkIds == null || chunkIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(DELETE_BY_IDS_SQL, ps -> {
+            ps.setString(1, businessId);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", chunkIds.toArray()));
+        });
+    }
+
+    @Override
+    public int batchUpdatePositions(List<BusinessDocumentChunk> chunks) {
+        if (chunks == null || chunks.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_POSITION_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BusinessDocumentChunk chunk = chunks.get(i);
+                ps.setInt(1, chunk.getChunkIndex());
+                ps.setObject(2, chunk.getOverlapChars(), Types.INTEGER);
+                ps.setString(3, chunk.getPrevContent());
+                ps.setString(4, chunk.getNextContent());
+                ps.setTimestamp(5, now);
+                ps.setString(6, chunk.getBusinessId());
+                ps.setLong(7, chunk.getId());
+                ps.setInt(8, chunk.getChunkIndex());
+                ps.setObject(9, chunk.getOverlapChars(), Types.INTEGER);
+                ps.setString(10, chunk.getPrevContent());
+                ps.setString(11, chunk.getNextContent());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunks.size();
+            }
+        });
+        int updated = 0;
+        for (int count : counts) {
+            updated += Math.max(count, 0);
+        }
+        return updated;
+    }
+
+    @Override
+    public List<ChunkText> findWithNeighbors(String businessId, Collection<Long> chunkIds) {
+        if (chunkIds == null || chunkIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SELECT_WITH_NEIGHBORS_SQL,
+                ps -> {
+                    ps.setString(1, businessId);
+                    ps.setArray(2, ps.getConnection().createArrayOf("bigint", chunkIds.toArray()));
+                },
+                (rs, rowNum) -> new ChunkText(rs.getLong("id"), rs.getLong("document_id"), rs.getInt("chunk_index"),
+                        rs.getString("content"), rs.getInt("overlap_chars")));
+    }
+
+    @Override
+    public List<Long> findDocumentIdsToCompact() {
+        return jdbcTemplate.queryForList(SELECT_DOCUMENTS_TO_COMPACT_SQL, Long.class);
+    }
+
+    @Override
+    public int compactDocument(Long documentId) {
+        return jdbcTemplate.update(COMPACT_DOCUMENT_SQL, Timestamp.valueOf(LocalDateTime.now()), documentId);
+    }
+}
@@ -2,11 +2,18 @@ package com.codmer.turepulseai.repository;
 
 import com.codmer.turepulseai.entity.BusinessDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface BusinessDocumentRepository extends JpaRepository<BusinessDocument, Long> {
     List<BusinessDocument> findByBusinessId(String businessId);
     List<BusinessDocument> findByUserId(Long userId);
+    List<BusinessDocument> findByStatus(String status);
+    List<BusinessDocument> findByBusinessIdAndEntityIdAndStatus(String businessId, Long entityId, String status);
+
+    @Query("SELECT DISTINCT d.businessId FROM BusinessDocument d WHERE d.entityId = :entityId AND d.displayName = :displayName")
+    List<String> findBusinessIdsByEntity(@Param("entityId") Long entityId, @Param("displayName") String displayName);
 }
 
@@ -0,0 +1,13 @@
+package com.codmer.turepulseai.repository;
+
+import com.codmer.turepulseai.entity.BusinessImageJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BusinessImageJobRepository extends JpaRepository<BusinessImageJob, Long> {
+    List<BusinessImageJob> findByStatusIn(Collection<String> statuses);
+    Optional<BusinessImageJob> findByIdAndUsername(Long id, String username);
+}
@@ -0,0 +1,69 @@
+package com.codmer.turepulseai.repository;
+
+import com.codmer.turepulseai.config.VectorSearchProperties.Quantization;
+
+import java.util.List;
+
+/**
+ * Similarity search over business_document_chunks.
+ * The query vector is bound as a binary PGvector parameter and only the columns callers use come back,
+ * never the stored embedding or neighbour text.
+ */
+public interface ChunkVectorSearchRepository {
+
+    /**
+     * Nearest chunks by the configured metric (app.vector-search.metric), closest first
+     */
+    List<ChunkHit> findNearestChunks(ChunkSearch search);
+
+    /**
+     * Nearest chunks through the ANN index of the given quantization mode instead of the configured one,
+     * for comparing modes. Quantized modes re-rank their candidates at full precision.
+     */
+    List<ChunkHit> findNearestChunks(ChunkSearch search, Quantization quantization);
+
+    /**
+     * Exact nearest chunks by a full scan, without any ANN index; the ground truth for recall measurements
+     */
+    List<ChunkHit> findExactChunks(ChunkSearch search);
+
+    /**
+     * Hybrid retrieval: the vector ranking and a full-text ranking of the query text over the same chunks,
+     * fused with reciprocal rank fusion in a single statement. Exact terms (dish names, SKUs) that the
+     * embedding misses still surface, so a small limit keeps recall. Best fused score first.
+     */
+    List<ChunkHit> findHybridChunks(ChunkSearch search, String queryText);
+
+    /**
+     * Nearest chunks for several query vectors in one statement: a LATERAL top-k per vector of a VALUES
+     * list, so each query still gets its own ANN index scan but the batch costs a single round trip.
+     *
+     * @param search filter, limit and threshold shared by every query; its embedding is ignored
+     * @return one hit list per embedding, in the order given, each closest first
+     */
+    List<List<ChunkHit>> findNearestChunksBatch(ChunkSearch search, List<float[]> embeddings);
+
+    /**
+     * Every embedded chunk of one business's entity, including the vector, for building an in-process index.
+     * Reads at most {@code limit} rows.
+     */
+    List<ChunkVector> findEntityVectors(String businessId, Long entityId, String displayName, int limit);
+
+    /**
+     * @param businessId  optional; restricts the search to one business as well as the entity
+     * @param maxDistance optional; hits further away than this are dropped
+     */
+    record ChunkSearch(String businessId, Long entityId, String displayName, float[] embedding, int limit,
+                       Double maxDistance) {
+    }
+
+    /**
+     * @param distance null for hybrid hits that only the full-text ranker found
+     */
+    record ChunkHit(long id, long documentId, int chunkIndex, String content, int overlapChars, Double distance) {
+    }
+
+    record ChunkVector(long id, long documentId, int chunkIndex, String businessId, String content, int overlapChars,
+                       float[] embedding) {
+    }
+}
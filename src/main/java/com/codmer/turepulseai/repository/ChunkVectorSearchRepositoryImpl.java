@@ -0,0 +1,337 @@
+package com.codmer.turepulseai.repository;
+
+import com.codmer.turepulseai.config.PGVectorType;
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import com.codmer.turepulseai.config.VectorSearchProperties.Quantization;
+import com.pgvector.PGvector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class ChunkVectorSearchRepositoryImpl implements ChunkVectorSearchRepository {
+
+    private static final RowMapper<ChunkHit> HIT_MAPPER = (rs, rowNum) -> new ChunkHit(
+            rs.getLong("id"),
+            rs.getLong("document_id"),
+            rs.getInt("chunk_index"),
+            rs.getString("content"),
+            rs.getInt("overlap_chars"),
+            rs.getObject("distance", Double.class));
+
+    private static final String HIT_COLUMNS =
+            "id, document_id, chunk_index, content, COALESCE(overlap_chars, 0) AS overlap_chars";
+    private static final String HIT_NAMES = "id, document_id, chunk_index, content, overlap_chars";
+
+    private static final String NEAREST_SQL = """
+            SELECT id, document_id, chunk_index, content, overlap_chars, distance FROM (
+                %s) nearest
+            %s
+            ORDER BY distance
+            """;
+
+    private static final String NEAREST_BATCH_SQL = """
+            SELECT q.ord, h.id, h.document_id, h.chunk_index, h.content, h.overlap_chars, h.distance
+            FROM (VALUES %s) AS q(ord, query_vector)
+            CROSS JOIN LATERAL (
+                %s) h
+            %s
+            ORDER BY q.ord, h.distance
+            """;
+
+    private static final String HYBRID_SQL = """
+            WITH text_query AS (
+                SELECT websearch_to_tsquery('english', ?) AS query
+            ), semantic AS (
+                SELECT id, business_id, distance, row_number() OVER (ORDER BY distance) AS rank FROM (
+                    %s) nearest
+                %s
+            ), lexical AS (
+                SELECT id, business_id, row_number() OVER (ORDER BY text_rank DESC) AS rank FROM (
+                    SELECT c.id, c.business_id, ts_rank_cd(c.content_tsv, t.query, 33) AS text_rank
+                    FROM business_document_chunks c, text_query t
+                    WHERE %s AND c.content_tsv @@ t.query
+                    ORDER BY text_rank DESC
+                    LIMIT ?) matched
+            ), fused AS (
+                SELECT COALESCE(s.id, l.id) AS id, COALESCE(s.business_id, l.business_id) AS business_id, s.distance,
+                       COALESCE(1.0 / (? + s.rank), 0) + COALESCE(1.0 / (? + l.rank), 0) AS score
+                FROM semantic s FULL OUTER JOIN lexical l ON s.id = l.id
+            )
+            SELECT c.id, c.document_id, c.chunk_index, c.content, COALESCE(c.overlap_chars, 0) AS overlap_chars, f.distance
+            FROM fused f JOIN business_document_chunks c ON c.id = f.id AND c.business_id = f.business_id
+            %s
+            ORDER BY f.score DESC, f.distance NULLS LAST
+            LIMIT ?
+            """;
+
+    private static final String ENTITY_VECTORS_SQL = """
+            SELECT id, document_id, chunk_index, business_id, content, COALESCE(overlap_chars, 0) AS overlap_chars, embedding
+            FROM business_document_chunks
+            WHERE business_id = ? AND entity_id = ? AND display_name = ? AND embedding IS NOT NULL AND NOT staged
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VectorSearchProperties vectorSearchProperties;
+
+    /**
+     * Both rankers read only their top candidates (the ANN index and the GIN index respectively); the
+     * fusion and the final LIMIT run over at most 2 * hybrid-candidates rows. The full-text query ORs the
+     * stemmed, stop-word-free terms so a chunk matching any of them is a candidate, ranked by ts_rank_cd
+     * with document-length normalization and saturation (flags 1|32), the closest Postgres gets to BM25.
+     */
+    @Override
+    public List<ChunkHit> findHybridChunks(ChunkSearch search, String queryText) {
+        Quantization quantization = vectorSearchProperties.getQuantization();
+        boolean thresholded = search.maxDistance() != null;
+        // The final lookup joins on the full key (id, business_id); with a known business the constant lets a
+        // partitioned table prune to that business's partition instead of probing every partition by id
+        String sql = HYBRID_SQL.formatted(
+                nearestSql("id, business_id", "id, business_id", filterSql("", search), "?", quantization),
+                thresholded ? "WHERE distance <= ?" : "", filterSql("c.", search),
+                search.businessId() != null ? "WHERE c.business_id = ?" : "");
+        PGvector vector = new PGvector(search.embedding());
+        int candidates = Math.max(vectorSearchProperties.getHybridCandidates(), search.limit());
+        int rrfK = vectorSearchProperties.getRrfK();
+
+        return transactionTemplate.execute(status -> {
+            applyScanTuning(scanSize(candidates, quantization));
+            return jdbcTemplate.query(connection -> {
+                PGVectorType.enableBinaryTransfer(connection);
+                PreparedStatement ps = connection.prepareStatement(sql);
+                int i = 1;
+                ps.setString(i++, anyWordQuery(queryText));
+                i = bindNearest(ps, i, search, vector, candidates, quantization);
+                if (thresholded) {
+                    ps.setDouble(i++, search.maxDistance());
+                }
+                i = bindFilter(ps, i, search);
+                ps.setInt(i++, candidates);
+                ps.setInt(i++, rrfK);
+                ps.setInt(i++, rrfK);
+                if (search.businessId() != null) {
+                    ps.setString(i++, search.businessId());
+                }
+                ps.setInt(i, search.limit());
+                return ps;
+            }, HIT_MAPPER);
+        });
+    }
+
+    @Override
+    public List<ChunkHit> findNearestChunks(ChunkSearch search) {
+        return findNearestChunks(search, vectorSearchProperties.getQuantization());
+    }
+
+    /**
+     * ORDER BY uses the same expression and operator as the ANN index so the planner can pick it; the
+     * optional distance threshold is applied outside the LIMIT so it does not defeat the index scan.
+     * The scan parameters are set with set_config(..., true), i.e. SET LOCAL, so they only apply to
+     * this query's transaction and never leak into other users of the pooled connection.
+     */
+    @Override
+    public List<ChunkHit> findNearestChunks(ChunkSearch search, Quantization quantization) {
+        boolean thresholded = search.maxDistance() != null;
+        String sql = NEAREST_SQL.formatted(
+                nearestSql(HIT_COLUMNS, HIT_NAMES, filterSql("", search), "?", quantization),
+                thresholded ? "WHERE distance <= ?" : "");
+        PGvector vector = new PGvector(search.embedding());
+
+        return transactionTemplate.execute(status -> {
+            applyScanTuning(scanSize(search.limit(), quantization));
+            return jdbcTemplate.query(connection -> {
+                PGVectorType.enableBinaryTransfer(connection);
+                PreparedStatement ps = connection.prepareStatement(sql);
+                int i = bindNearest(ps, 1, search, vector, search.limit(), quantization);
+                if (thresholded) {
+                    ps.setDouble(i, search.maxDistance());
+                }
+                return ps;
+            }, HIT_MAPPER);
+        });
+    }
+
+    /**
+     * Index scans are switched off for this transaction only, so Postgres computes every distance
+     */
+    @Override
+    public List<ChunkHit> findExactChunks(ChunkSearch search) {
+        String operator = vectorSearchProperties.getMetric().getOperator();
+        String sql = "SELECT " + HIT_COLUMNS + ", embedding " + operator + " ? AS distance"
+                + " FROM business_document_chunks WHERE " + filterSql("", search)
+                + " ORDER BY distance LIMIT ?";
+        PGvector vector = new PGvector(search.embedding());
+
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT set_config('enable_indexscan', 'off', true)", String.class);
+            return jdbcTemplate.query(connection -> {
+                PGVectorType.enableBinaryTransfer(connection);
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setObject(1, vector);
+                int i = bindFilter(ps, 2, search);
+                ps.setInt(i, search.limit());
+                return ps;
+            }, HIT_MAPPER);
+        });
+    }
+
+    /**
+     * The filter, LIMIT and threshold placeholders appear once, inside the LATERAL subquery, so they are
+     * bound once however many vectors the VALUES list carries.
+     */
+    @Override
+    public List<List<ChunkHit>> findNearestChunksBatch(ChunkSearch search, List<float[]> embeddings) {
+        if (embeddings.isEmpty()) {
+            return List.of();
+        }
+        Quantization quantization = vectorSearchProperties.getQuantization();
+        boolean thresholded = search.maxDistance() != null;
+        String values = String.join(", ", Collections.nCopies(embeddings.size(), "(?, CAST(? AS vector))"));
+        String sql = NEAREST_BATCH_SQL.formatted(
+                values, nearestSql(HIT_COLUMNS, HIT_NAMES, filterSql("", search), "q.query_vector", quantization),
+                thresholded ? "WHERE h.distance <= ?" : "");
+
+        List<List<ChunkHit>> results = new ArrayList<>(embeddings.size());
+        for (int i = 0; i < embeddings.size(); i++) {
+            results.add(new ArrayList<>(search.limit()));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            applyScanTuning(scanSize(search.limit(), quantization));
+            jdbcTemplate.query(connection -> {
+                PGVectorType.enableBinaryTransfer(connection);
+                PreparedStatement ps = connection.prepareStatement(sql);
+                int i = 1;
+                for (int ord = 0; ord < embeddings.size(); ord++) {
+                    ps.setInt(i++, ord);
+                    ps.setObject(i++, new PGvector(embeddings.get(ord)));
+                }
+                i = bindFilter(ps, i, search);
+                if (quantization != Quantization.NONE) {
+                    ps.setInt(i++, scanSize(search.limit(), quantization));
+                }
+                ps.setInt(i++, search.limit());
+                if (thresholded) {
+                    ps.setDouble(i, search.maxDistance());
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> results.get(rs.getInt("ord")).add(HIT_MAPPER.mapRow(rs, 0)));
+        });
+        return results;
+    }
+
+    @Override
+    public List<ChunkVector> findEntityVectors(String businessId, Long entityId, String displayName, int limit) {
+        return jdbcTemplate.query(ENTITY_VECTORS_SQL, (rs, rowNum) -> new ChunkVector(
+                rs.getLong("id"),
+                rs.getLong("document_id"),
+                rs.getInt("chunk_index"),
+                rs.getString("business_id"),
+                rs.getString("content"),
+                rs.getInt("overlap_chars"),
+                new PGvector(rs.getString("embedding")).toArray()), businessId, entityId, displayName, limit);
+    }
+
+    /**
+     * Top rows by full-precision distance, selecting {@code columns} (named {@code names}) plus distance.
+     * Without quantization the ANN index orders by that distance directly. With it, the quantized index
+     * (halfvec or binary_quantize expression) picks rerank-candidates rows and only those are re-ranked with
+     * the stored vectors. Placeholders in order: vector, filter, vector, [candidates], limit; the vector ones
+     * are absent when {@code vectorRef} names a column instead of "?".
+     */
+    private String nearestSql(String columns, String names, String filter, String vectorRef, Quantization quantization) {
+        String operator = vectorSearchProperties.getMetric().getOperator();
+        if (quantization == Quantization.NONE) {
+            return """
+                    SELECT %s, embedding %s %s AS distance
+                    FROM business_document_chunks
+                    WHERE %s
+                    ORDER BY embedding %s %s
+                    LIMIT ?""".formatted(columns, operator, vectorRef, filter, operator, vectorRef);
+        }
+        return """
+                SELECT %s, embedding %s %s AS distance FROM (
+                    SELECT %s, embedding
+                    FROM business_document_chunks
+                    WHERE %s
+                    ORDER BY %s
+                    LIMIT ?) candidates
+                ORDER BY distance
+                LIMIT ?""".formatted(names, operator, vectorRef, columns, filter,
+                vectorSearchProperties.quantizedOrderBy(quantization, vectorRef));
+    }
+
+    private int bindNearest(PreparedStatement ps, int index, ChunkSearch search, PGvector vector, int limit,
+                            Quantization quantization) throws SQLException {
+        ps.setObject(index++, vector);
+        index = bindFilter(ps, index, search);
+        ps.setObject(index++, vector);
+        if (quantization != Quantization.NONE) {
+            ps.setInt(index++, scanSize(limit, quantization));
+        }
+        ps.setInt(index++, limit);
+        return index;
+    }
+
+    /**
+     * Rows the ANN index has to return: the LIMIT itself, or the re-rank candidate pool when quantized
+     */
+    private int scanSize(int limit, Quantization quantization) {
+        return quantization == Quantization.NONE ? limit : Math.max(vectorSearchProperties.getRerankCandidates(), limit);
+    }
+
+    /**
+     * The query's words joined with "or", so websearch_to_tsquery matches chunks containing any of them.
+     * Punctuation is dropped first: quotes and a leading "-" never become phrase or negation operators, and
+     * websearch_to_tsquery itself never raises a syntax error, whatever the user typed.
+     */
+    static String anyWordQuery(String queryText) {
+        if (queryText == null) {
+            return "";
+        }
+        return Arrays.stream(queryText.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty() && !word.equalsIgnoreCase("or"))
+                .collect(Collectors.joining(" or "));
+    }
+
+    /**
+     * Entity filter shared by every search; staged chunks of an ingestion still running are never returned
+     */
+    private static String filterSql(String alias, ChunkSearch search) {
+        return alias + "entity_id = ? AND " + alias + "display_name = ?"
+                + (search.businessId() != null ? " AND " + alias + "business_id = ?" : "")
+                + " AND NOT " + alias + "staged";
+    }
+
+    private static int bindFilter(PreparedStatement ps, int index, ChunkSearch search) throws SQLException {
+        ps.setLong(index++, search.entityId());
+        ps.setString(index++, search.displayName());
+        if (search.businessId() != null) {
+            ps.setString(index++, search.businessId());
+        }
+        return index;
+    }
+
+    private void applyScanTuning(int limit) {
+        if (vectorSearchProperties.getIndexType() == VectorSearchProperties.IndexType.HNSW) {
+            // HNSW returns at most ef_search rows, so it must be at least the requested LIMIT
+            int efSearch = Math.max(vectorSearchProperties.getEfSearch(), limit);
+            jdbcTemplate.queryForObject("SELECT set_config('hnsw.ef_search', ?, true)", String.class,
+                    String.valueOf(efSearch));
+        } else {
+            jdbcTemplate.queryForObject("SELECT set_config('ivfflat.probes', ?, true)", String.class,
+                    String.valueOf(vectorSearchProperties.getProbes()));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.codmer.turepulseai.repository;
+
+import com.codmer.turepulseai.entity.EmbeddingCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmbeddingCacheEntryRepository extends JpaRepository<EmbeddingCacheEntry, Long>,
+        EmbeddingCacheEntryRepositoryCustom {
+
+    Optional<EmbeddingCacheEntry> findByContentHashAndModelAndDimensions(String contentHash, String model, Integer dimensions);
+
+    List<EmbeddingCacheEntry> findByContentHashInAndModelAndDimensions(Collection<String> contentHashes, String model, Integer dimensions);
+}
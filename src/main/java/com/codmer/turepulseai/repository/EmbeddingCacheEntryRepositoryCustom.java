@@ -0,0 +1,23 @@
+package com.codmer.turepulseai.repository;
+
+import com.pgvector.PGvector;
+
+import java.util.Map;
+
+public interface EmbeddingCacheEntryRepositoryCustom {
+
+    /**
+     * Insert an embedding unless an entry for the same (hash, model, dimensions) already exists.
+     * Concurrent writers for the same text are expected, so conflicts are ignored instead of raised.
+     *
+     * @return true when a new row was written
+     */
+    boolean insertIfAbsent(String contentHash, String model, int dimensions, PGvector embedding);
+
+    /**
+     * {@link #insertIfAbsent} for many embeddings in one JDBC batch, keyed by content hash
+     *
+     * @return number of new rows written, as far as the driver reports it
+     */
+    int insertAllIfAbsent(Map<String, float[]> embeddings, String model);
+}
@@ -0,0 +1,48 @@
+package com.codmer.turepulseai.repository;
+
+import com.pgvector.PGvector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class EmbeddingCacheEntryRepositoryImpl implements EmbeddingCacheEntryRepositoryCustom {
+
+    private static final String INSERT_IF_ABSENT_SQL = """
+            INSERT INTO embedding_cache (content_hash, model, dimensions, embedding, created_at)
+            VALUES (?, ?, ?, ?, now())
+            ON CONFLICT (content_hash, model, dimensions) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(String contentHash, String model, int dimensions, PGvector embedding) {
+        int updated = jdbcTemplate.update(INSERT_IF_ABSENT_SQL, contentHash, model, dimensions, embedding);
+        return updated > 0;
+    }
+
+    @Override
+    public int insertAllIfAbsent(Map<String, float[]> embeddings, String model) {
+        if (embeddings.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = new ArrayList<>(embeddings.size());
+        for (Map.Entry<String, float[]> entry : embeddings.entrySet()) {
+            float[] vector = entry.getValue();
+            rows.add(new Object[]{entry.getKey(), model, vector.length, new PGvector(vector)});
+        }
+        int written = 0;
+        for (int updated : jdbcTemplate.batchUpdate(INSERT_IF_ABSENT_SQL, rows)) {
+            // SUCCESS_NO_INFO (-2) when the driver rewrites the batch; counted as written
+            if (updated > 0 || updated == Statement.SUCCESS_NO_INFO) {
+                written++;
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,18 @@
+package com.codmer.turepulseai.repository;
+
+import com.codmer.turepulseai.entity.MenuCatalogItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MenuCatalogItemRepository extends JpaRepository<MenuCatalogItem, Long> {
+    List<MenuCatalogItem> findByDocumentIdIn(Collection<Long> documentIds);
+
+    @Modifying
+    @Query("DELETE FROM MenuCatalogItem m WHERE m.documentId = :documentId")
+    int deleteByDocumentId(@Param("documentId") Long documentId);
+}
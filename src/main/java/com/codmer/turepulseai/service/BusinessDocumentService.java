@@ -1,11 +1,21 @@
 package com.codmer.turepulseai.service;
 
+import com.codmer.turepulseai.model.DocumentBatchSearchRequest;
 import com.codmer.turepulseai.model.DocumentSearchRequest;
 import com.codmer.turepulseai.model.DocumentSearchResponse;
+import com.codmer.turepulseai.model.DocumentStatusResponse;
 import com.codmer.turepulseai.model.DocumentUploadResponse;
+import com.codmer.turepulseai.model.VectorQuantizationReport;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface BusinessDocumentService {
     DocumentUploadResponse uploadDocument(MultipartFile file, Long entityId, String displayName);
+    DocumentUploadResponse replaceDocument(Long documentId, MultipartFile file);
     DocumentSearchResponse searchDocuments(DocumentSearchRequest request);
+    SseEmitter streamSearchDocuments(DocumentSearchRequest request);
+    ResponseBodyEmitter streamBatchSearch(DocumentBatchSearchRequest request);
+    DocumentStatusResponse getDocumentStatus(Long documentId);
+    VectorQuantizationReport quantizationReport(Long entityId, String displayName, int samples, int topK);
 }
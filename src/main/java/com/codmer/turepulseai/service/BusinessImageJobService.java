@@ -0,0 +1,17 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.model.BusinessImageContent;
+import com.codmer.turepulseai.model.BusinessImageGenerateRequest;
+import com.codmer.turepulseai.model.BusinessImageJobResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface BusinessImageJobService {
+    BusinessImageJobResponse submit(BusinessImageGenerateRequest request);
+
+    // One plan, several concurrent image model calls; each image is pushed over SSE as soon as it is stored
+    SseEmitter streamVariants(BusinessImageGenerateRequest request);
+
+    BusinessImageJobResponse getJob(Long jobId);
+
+    BusinessImageContent getImage(Long jobId);
+}
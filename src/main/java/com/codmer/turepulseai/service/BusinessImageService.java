@@ -2,11 +2,24 @@ package com.codmer.turepulseai.service;
 
 import com.codmer.turepulseai.model.BusinessImageGenerateRequest;
 import com.codmer.turepulseai.model.BusinessImageGenerateResponse;
+import com.codmer.turepulseai.model.ImagePlan;
+import com.codmer.turepulseai.model.RenderedImage;
+
+import java.io.OutputStream;
 
 public interface BusinessImageService {
-    BusinessImageGenerateResponse generate(BusinessImageGenerateRequest request);
+    // Reject an incomplete request up front, before it is queued as an image job
+    void validate(BusinessImageGenerateRequest request, boolean refine);
+
+    // Intent, overlays, RAG context and the final text-free prompt; no image model call
+    ImagePlan plan(BusinessImageGenerateRequest request, boolean refine);
+
+    // Build the text-free prompt, call the image model and stream the image into out; blocks for the whole provider call
+    RenderedImage render(BusinessImageGenerateRequest request, boolean refine, OutputStream out);
+
+    // Call the image model for an already built plan and stream the image into out
+    RenderedImage render(ImagePlan plan, OutputStream out);
 
     // Generate a new image using an existing base image plus updated prompt/context.
     BusinessImageGenerateResponse regenerate(BusinessImageGenerateRequest request);
 }
-
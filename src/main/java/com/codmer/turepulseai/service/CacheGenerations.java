@@ -0,0 +1,85 @@
+package com.codmer.turepulseai.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation counters folded into cache keys so a data change invalidates only its own scope.
+ * Bumping a generation is O(1): entries keyed with the old generation are simply never read again and
+ * age out under the cache's normal size/TTL eviction, instead of a clear() wiping every tenant's entries.
+ * <p>
+ * Used from @Cacheable keys as {@code @cacheGenerations.question(#questionId)}.
+ */
+@Service("cacheGenerations")
+public class CacheGenerations {
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Documents of one business entity (RAG answers)
+     */
+    public long entity(String businessId, Long entityId) {
+        return current("entity:" + businessId + ":" + entityId);
+    }
+
+    public void bumpEntity(String businessId, Long entityId) {
+        bump("entity:" + businessId + ":" + entityId);
+    }
+
+    /**
+     * A question, its description and its answers (question analyses)
+     */
+    public long question(Long questionId) {
+        return current("question:" + questionId);
+    }
+
+    public void bumpQuestion(Long questionId) {
+        if (questionId != null) {
+            bump("question:" + questionId);
+        }
+    }
+
+    /**
+     * Everything a user's own questions and their answers feed into (per-user analyses)
+     */
+    public long user(String username) {
+        return current("user:" + username);
+    }
+
+    public void bumpUser(String username) {
+        if (username != null) {
+            bump("user:" + username);
+        }
+    }
+
+    /**
+     * Run the bumps once the surrounding transaction has committed, so a concurrent reader cannot cache
+     * pre-commit data under the new generation. Runs immediately outside a transaction.
+     */
+    public void afterCommit(Runnable bumps) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumps.run();
+                }
+            });
+        } else {
+            bumps.run();
+        }
+    }
+
+    private long current(String scope) {
+        AtomicLong generation = generations.get(scope);
+        return generation == null ? 0 : generation.get();
+    }
+
+    private void bump(String scope) {
+        generations.computeIfAbsent(scope, s -> new AtomicLong()).incrementAndGet();
+    }
+}
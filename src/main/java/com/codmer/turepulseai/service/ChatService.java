@@ -20,7 +20,6 @@ import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -50,6 +49,7 @@ public class ChatService {
     private final AnswerRepository answerRepository;
     private final UserRepository userRepository;
     private final TavilySearchService tavilySearchService;
+    private final CacheGenerations cacheGenerations;
     private final ExecutorService analysisExecutor = Executors.newFixedThreadPool(
             Math.max(30, Runtime.getRuntime().availableProcessors())
     );
@@ -176,7 +176,7 @@ public class ChatService {
      * @return QuestionChatResponse with concise 2-3 line analysis
      */
     @Cacheable(value = "questionAnalysis",
-               key = "#questionId + '_' + #allAnswers.size() + '_' + (#userMessage != null ? #userMessage.hashCode() : '')")
+               key = "#questionId + '_g' + @cacheGenerations.question(#questionId) + '_' + #allAnswers.size() + '_' + (#userMessage != null ? #userMessage.hashCode() : '')")
     public QuestionChatResponse analyzeQuestionAnswers(Long questionId, String questionTitle,
                                                        String questionDescription,
                                                        List<String> allAnswers,
@@ -255,7 +255,7 @@ public class ChatService {
      * @return SpecificFeedbackResponse with 3-line analysis
      */
     @Cacheable(value = "specificFeedback",
-               key = "#questionId + '_' + #specificFeedback.hashCode() + '_' + #allAnswers.size()")
+               key = "#questionId + '_g' + @cacheGenerations.question(#questionId) + '_' + #specificFeedback.hashCode() + '_' + #allAnswers.size()")
     public SpecificFeedbackResponse analyzeSpecificFeedback(Long questionId, String questionTitle,
                                                             String questionDescription,
                                                             String specificFeedback,
@@ -336,7 +336,7 @@ public class ChatService {
      * @return UserQuestionsAnalysisResponse with comprehensive analysis
      */
     @Cacheable(value = "userQuestionsAnalysis",
-               key = "#questionId + '_' + #allAnswers.size()")
+               key = "#questionId + '_g' + @cacheGenerations.question(#questionId) + '_' + #allAnswers.size()")
     public UserQuestionsAnalysisResponse analyzeUserQuestion(Long questionId, String questionTitle,
                                                              String questionDescription,
                                                              List<String> allAnswers) {
@@ -644,7 +644,7 @@ public class ChatService {
      * @return QuestionChatResponse with comprehensive analysis
      */
     @Cacheable(value = "questionData",
-               key = "#questionChatRequest.questionId + '_analysis_' + (#questionChatRequest.message != null ? #questionChatRequest.message.hashCode() : '')",
+               key = "#questionChatRequest.questionId + '_g' + @cacheGenerations.question(#questionChatRequest.questionId) + '_analysis_' + (#questionChatRequest.message != null ? #questionChatRequest.message.hashCode() : '')",
                unless = "#result.analysis.contains('No answers received yet')")
     public QuestionChatResponse analyzeQuestionAnswersFromRequest(QuestionChatRequest questionChatRequest) {
         log.info("Analyzing question from request - Question ID: {}", questionChatRequest.getQuestionId());
@@ -696,7 +696,7 @@ public class ChatService {
      * @return SpecificFeedbackResponse with contextual analysis
      */
     @Cacheable(value = "specificFeedback",
-               key = "#specificFeedbackRequest.questionId + '_' + #specificFeedbackRequest.specificFeedback.hashCode()",
+               key = "#specificFeedbackRequest.questionId + '_g' + @cacheGenerations.question(#specificFeedbackRequest.questionId) + '_' + #specificFeedbackRequest.specificFeedback.hashCode()",
                unless = "#result.analysis.contains('no other answers')")
     public SpecificFeedbackResponse analyzeSpecificFeedbackFromRequest(SpecificFeedbackRequest specificFeedbackRequest) {
         log.info("Analyzing specific feedback from request - Question ID: {}", specificFeedbackRequest.getQuestionId());
@@ -753,7 +753,7 @@ public class ChatService {
      * @return List of UserQuestionsAnalysisResponse with comprehensive analysis per question
      */
     @Cacheable(value = "userQuestionsAnalysis",
-               key = "T(org.springframework.security.core.context.SecurityContextHolder).getContext().getAuthentication().getName()")
+               key = "T(org.springframework.security.core.context.SecurityContextHolder).getContext().getAuthentication().getName() + '_g' + @cacheGenerations.user(T(org.springframework.security.core.context.SecurityContextHolder).getContext().getAuthentication().getName())")
     public List<UserQuestionsAnalysisResponse> analyzeMyQuestionsForLoggedInUser() {
         log.info("Analyzing all questions for logged-in user");
 
@@ -876,8 +876,15 @@ public class ChatService {
         return errorResponse;
     }
 
-    @CacheEvict(value = {"questionAnalysis", "specificFeedback", "userQuestionsAnalysis", "questionData"}, allEntries = true)
-    public void evictAnalysisCaches() {
-        log.info("Evicted analysis caches due to data change");
+    /**
+     * Invalidate cached analyses of one question and of its creator's question overview; other users'
+     * entries stay warm
+     */
+    public void evictAnalysisCaches(Long questionId, String creatorUsername) {
+        cacheGenerations.afterCommit(() -> {
+            cacheGenerations.bumpQuestion(questionId);
+            cacheGenerations.bumpUser(creatorUsername);
+        });
+        log.info("Invalidated analysis caches of question {} due to data change", questionId);
     }
 }
@@ -0,0 +1,168 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.model.ContextAssemblerStats;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkHit;
+import com.codmer.turepulseai.util.DocumentChunker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns ranked chunks into prompt context.
+ * Chunks of the same document with consecutive indexes are merged into one block and the overlap each chunk
+ * repeats from its predecessor is dropped, using the stored overlap offsets. Blocks are kept in rank order
+ * and added until the token budget is spent, counted with the same tokenizer estimate used for embedding
+ * batches. The tokens saved against naively joining every chunk are reported per call and in total.
+ */
+@Service
+@Slf4j
+public class ContextAssembler {
+
+    private static final String SEPARATOR = "\n\n";
+
+    /**
+     * @param rank lower is better; neighbours pulled in for context share the rank of their hit
+     */
+    public record ContextPiece(long documentId, int chunkIndex, String content, int overlapChars, int rank) {
+    }
+
+    public record AssembledContext(List<String> blocks, int tokens, int rawTokens, int droppedBlocks) {
+
+        public int savedTokens() {
+            return Math.max(0, rawTokens - tokens);
+        }
+
+        public String text() {
+            return String.join(SEPARATOR, blocks);
+        }
+    }
+
+    private record Block(String text, int rank) {
+    }
+
+    private final TokenCountEstimator tokenCountEstimator;
+
+    private final LongAdder assemblies = new LongAdder();
+    private final LongAdder rawTokens = new LongAdder();
+    private final LongAdder assembledTokens = new LongAdder();
+    private final LongAdder droppedBlocks = new LongAdder();
+
+    public ContextAssembler(TokenCountEstimator tokenCountEstimator) {
+        this.tokenCountEstimator = tokenCountEstimator;
+    }
+
+    /**
+     * Assemble search hits, which are already in rank order
+     */
+    public AssembledContext assembleHits(List<ChunkHit> hits, int maxTokens) {
+        List<ContextPiece> pieces = new ArrayList<>(hits.size());
+        for (int rank = 0; rank < hits.size(); rank++) {
+            ChunkHit hit = hits.get(rank);
+            pieces.add(new ContextPiece(hit.documentId(), hit.chunkIndex(), hit.content(), hit.overlapChars(), rank));
+        }
+        return assemble(pieces, maxTokens);
+    }
+
+    public AssembledContext assemble(List<ContextPiece> pieces, int maxTokens) {
+        if (pieces.isEmpty()) {
+            return new AssembledContext(List.of(), 0, 0, 0);
+        }
+
+        // The same chunk can arrive twice (e.g. as a hit and as another hit's neighbour); keep its best rank
+        Map<String, ContextPiece> unique = new HashMap<>();
+        for (ContextPiece piece : pieces) {
+            unique.merge(piece.documentId() + ":" + piece.chunkIndex(), piece,
+                    (a, b) -> a.rank() <= b.rank() ? a : b);
+        }
+        List<ContextPiece> byPosition = new ArrayList<>(unique.values());
+        byPosition.sort(Comparator.comparingLong(ContextPiece::documentId).thenComparingInt(ContextPiece::chunkIndex));
+
+        int raw = estimate(String.join(SEPARATOR, unique.values().stream()
+                .sorted(Comparator.comparingInt(ContextPiece::rank))
+                .map(ContextPiece::content)
+                .toList()));
+
+        List<Block> blocks = new ArrayList<>();
+        ContextPiece previous = null;
+        String text = null;
+        int rank = Integer.MAX_VALUE;
+        for (ContextPiece piece : byPosition) {
+            boolean adjacent = previous != null && previous.documentId() == piece.documentId()
+                    && previous.chunkIndex() + 1 == piece.chunkIndex();
+            if (adjacent) {
+                text = DocumentChunker.join(text, piece.content(), piece.overlapChars());
+                rank = Math.min(rank, piece.rank());
+            } else {
+                if (text != null) {
+                    blocks.add(new Block(text, rank));
+                }
+                text = piece.content();
+                rank = piece.rank();
+            }
+            previous = piece;
+        }
+        blocks.add(new Block(text, rank));
+        blocks.sort(Comparator.comparingInt(Block::rank));
+
+        List<String> kept = new ArrayList<>(blocks.size());
+        int used = 0;
+        int dropped = 0;
+        for (Block block : blocks) {
+            int separatorTokens = kept.isEmpty() ? 0 : 1;
+            int tokens = estimate(block.text());
+            if (used + separatorTokens + tokens <= maxTokens) {
+                kept.add(block.text());
+                used += separatorTokens + tokens;
+            } else if (kept.isEmpty()) {
+                // The best block alone is over budget; keep as much of it as fits rather than nothing
+                String truncated = truncate(block.text(), tokens, maxTokens);
+                kept.add(truncated);
+                used += estimate(truncated);
+            } else {
+                dropped++;
+            }
+        }
+
+        assemblies.increment();
+        rawTokens.add(raw);
+        assembledTokens.add(used);
+        droppedBlocks.add(dropped);
+        AssembledContext context = new AssembledContext(List.copyOf(kept), used, raw, dropped);
+        log.debug("Assembled {} chunks into {} blocks: {} tokens (raw {}, saved {}, {} blocks over budget)",
+                pieces.size(), kept.size(), used, raw, context.savedTokens(), dropped);
+        return context;
+    }
+
+    public ContextAssemblerStats stats() {
+        long raw = rawTokens.sum();
+        long assembled = assembledTokens.sum();
+        return ContextAssemblerStats.builder()
+                .assemblies(assemblies.sum())
+                .rawTokens(raw)
+                .assembledTokens(assembled)
+                .savedTokens(Math.max(0, raw - assembled))
+                .droppedBlocks(droppedBlocks.sum())
+                .build();
+    }
+
+    private String truncate(String text, int tokens, int maxTokens) {
+        int length = (int) ((long) text.length() * maxTokens / Math.max(1, tokens));
+        String truncated = text.substring(0, Math.min(text.length(), length));
+        // The character ratio is only an estimate; shrink until the tokenizer agrees
+        while (!truncated.isEmpty() && estimate(truncated) > maxTokens) {
+            truncated = truncated.substring(0, truncated.length() * 9 / 10);
+        }
+        return truncated;
+    }
+
+    private int estimate(String text) {
+        return text.isEmpty() ? 0 : tokenCountEstimator.estimate(text);
+    }
+}
@@ -1,49 +1,259 @@
 package com.codmer.turepulseai.service;
 
+import com.codmer.turepulseai.config.EmbeddingStoreProperties;
+import com.codmer.turepulseai.entity.EmbeddingCacheEntry;
+import com.codmer.turepulseai.model.EmbeddingCacheStats;
+import com.codmer.turepulseai.repository.EmbeddingCacheEntryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.pgvector.PGvector;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.embedding.EmbeddingModel;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier embedding store.
+ * L1 is an in-heap Caffeine cache of primitive float[] vectors, L2 is the Postgres embedding_cache table.
+ * Both tiers are keyed by SHA-256 of the normalized text plus model name and dimensions, so identical
+ * text is only ever sent to the embedding API once per model, even across restarts.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EmbeddingCacheService {
 
+    private static final int DEFAULT_DIMENSIONS = 1536;
+
     private final EmbeddingModel embeddingModel;
+    private final EmbeddingCacheEntryRepository embeddingCacheEntryRepository;
+    private final EmbeddingStoreProperties properties;
+    private final Cache<String, float[]> l1Cache;
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder l2Reads = new LongAdder();
+    private final LongAdder l2Writes = new LongAdder();
+
+    private volatile int dimensions = -1;
 
-    @Cacheable(value = "embeddings", key = "#text.hashCode()")
+    public EmbeddingCacheService(EmbeddingModel embeddingModel,
+                                 EmbeddingCacheEntryRepository embeddingCacheEntryRepository,
+                                 EmbeddingStoreProperties properties,
+                                 @Qualifier("embeddingsCaffeineConfig") Caffeine<Object, Object> embeddingsCaffeineConfig) {
+        this.embeddingModel = embeddingModel;
+        this.embeddingCacheEntryRepository = embeddingCacheEntryRepository;
+        this.properties = properties;
+        this.l1Cache = embeddingsCaffeineConfig.build();
+    }
+
+    /**
+     * Embed text, consulting L1 then L2 before calling the embedding API.
+     * The returned array is shared with the cache and must not be modified by callers.
+     */
     public float[] embed(String text) {
-        var embedding = embeddingModel.embed(text);
-        float[] result = new float[embedding.length];
-        for (int i = 0; i < embedding.length; i++) {
-            result[i] = (float) embedding[i];
+        String key = cacheKey(text);
+
+        float[] cached = l1Cache.getIfPresent(key);
+        if (cached != null) {
+            l1Hits.increment();
+            return cached;
+        }
+
+        float[] stored = readFromStore(key);
+        if (stored != null) {
+            l2Hits.increment();
+            l1Cache.put(key, stored);
+            return stored;
         }
+
+        misses.increment();
+        float[] result = embeddingModel.embed(text);
+        l1Cache.put(key, result);
+        writeToStore(key, result);
         return result;
     }
 
     /**
-     * Directly embed text and return as PGvector without intermediate float array conversion
+     * Embed many texts at once. Cached vectors are served from L1/L2 and all remaining
+     * (deduplicated) texts go to the provider in a single EmbeddingModel.embed(List) call.
+     * The result list is aligned with the input list.
      */
-    @Cacheable(value = "embeddings", key = "#text.hashCode()")
-    public PGvector embedAsVector(String text) {
-        var embedding = embeddingModel.embed(text);
-        float[] result = new float[embedding.length];
-        for (int i = 0; i < embedding.length; i++) {
-            result[i] = (float) embedding[i];
+    public List<float[]> embedAll(List<String> texts) {
+        List<String> keys = new ArrayList<>(texts.size());
+        Map<String, float[]> resolved = new HashMap<>();
+        Map<String, String> pending = new LinkedHashMap<>();
+
+        for (String text : texts) {
+            String key = cacheKey(text);
+            keys.add(key);
+            if (resolved.containsKey(key) || pending.containsKey(key)) {
+                continue;
+            }
+            float[] cached = l1Cache.getIfPresent(key);
+            if (cached != null) {
+                l1Hits.increment();
+                resolved.put(key, cached);
+            } else {
+                pending.put(key, text);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            for (Map.Entry<String, float[]> stored : readAllFromStore(pending.keySet()).entrySet()) {
+                l2Hits.increment();
+                l1Cache.put(stored.getKey(), stored.getValue());
+                resolved.put(stored.getKey(), stored.getValue());
+                pending.remove(stored.getKey());
+            }
         }
-        return new PGvector(result);
+
+        if (!pending.isEmpty()) {
+            List<String> missKeys = new ArrayList<>(pending.keySet());
+            List<float[]> embedded = embeddingModel.embed(new ArrayList<>(pending.values()));
+            Map<String, float[]> toStore = new LinkedHashMap<>();
+            for (int i = 0; i < missKeys.size(); i++) {
+                misses.increment();
+                float[] vector = embedded.get(i);
+                l1Cache.put(missKeys.get(i), vector);
+                toStore.put(missKeys.get(i), vector);
+                resolved.put(missKeys.get(i), vector);
+            }
+            writeAllToStore(toStore);
+        }
+
+        List<float[]> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            result.add(resolved.get(key));
+        }
+        return result;
+    }
+
+    /**
+     * Embed text and wrap it as a PGvector for persistence and similarity queries
+     */
+    public PGvector embedAsVector(String text) {
+        return new PGvector(embed(text));
     }
 
     public int dimensions() {
+        int current = dimensions;
+        if (current > 0) {
+            return current;
+        }
         try {
-            return embeddingModel.dimensions();
+            current = embeddingModel.dimensions();
         } catch (Exception e) {
-            log.warn("Could not determine embedding dimensions; defaulting to 1536", e);
-            return 1536;
+            log.warn("Could not determine embedding dimensions; defaulting to {}", DEFAULT_DIMENSIONS, e);
+            current = DEFAULT_DIMENSIONS;
         }
+        dimensions = current;
+        return current;
+    }
+
+    public EmbeddingCacheStats stats() {
+        long hits = l1Hits.sum() + l2Hits.sum();
+        long total = hits + misses.sum();
+        return EmbeddingCacheStats.builder()
+                .model(properties.getModel())
+                .dimensions(dimensions())
+                .l1Hits(l1Hits.sum())
+                .l2Hits(l2Hits.sum())
+                .misses(misses.sum())
+                .l2Reads(l2Reads.sum())
+                .l2Writes(l2Writes.sum())
+                .l1Size(l1Cache.estimatedSize())
+                .hitRate(total == 0 ? 0.0 : (double) hits / total)
+                .build();
+    }
+
+    private float[] readFromStore(String key) {
+        if (!properties.isPersistentEnabled()) {
+            return null;
+        }
+        try {
+            l2Reads.increment();
+            return embeddingCacheEntryRepository
+                    .findByContentHashAndModelAndDimensions(key, properties.getModel(), dimensions())
+                    .map(EmbeddingCacheEntry::getEmbedding)
+                    .map(PGvector::toArray)
+                    .orElse(null);
+        } catch (Exception e) {
+            log.warn("Embedding store lookup failed; falling back to embedding API: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, float[]> readAllFromStore(Collection<String> keys) {
+        Map<String, float[]> found = new HashMap<>();
+        if (!properties.isPersistentEnabled() || keys.isEmpty()) {
+            return found;
+        }
+        try {
+            l2Reads.increment();
+            for (EmbeddingCacheEntry entry : embeddingCacheEntryRepository
+                    .findByContentHashInAndModelAndDimensions(keys, properties.getModel(), dimensions())) {
+                found.put(entry.getContentHash(), entry.getEmbedding().toArray());
+            }
+        } catch (Exception e) {
+            log.warn("Embedding store batch lookup failed; falling back to embedding API: {}", e.getMessage());
+        }
+        return found;
     }
-}
 
+    private void writeToStore(String key, float[] embedding) {
+        if (!properties.isPersistentEnabled()) {
+            return;
+        }
+        try {
+            if (embeddingCacheEntryRepository.insertIfAbsent(key, properties.getModel(), embedding.length, new PGvector(embedding))) {
+                l2Writes.increment();
+            }
+        } catch (Exception e) {
+            log.warn("Could not persist embedding to store: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * All new vectors of one embedAll call go to L2 as a single JDBC batch instead of one round trip per text
+     */
+    private void writeAllToStore(Map<String, float[]> embeddings) {
+        if (!properties.isPersistentEnabled() || embeddings.isEmpty()) {
+            return;
+        }
+        try {
+            l2Writes.add(embeddingCacheEntryRepository.insertAllIfAbsent(embeddings, properties.getModel()));
+        } catch (Exception e) {
+            log.warn("Could not persist {} embeddings to store: {}", embeddings.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Content address for a piece of text: SHA-256 over the NFC-normalized, whitespace-collapsed text.
+     * The model and dimensions are part of the L2 key; the L1 cache lives and dies with the current model.
+     */
+    public static String cacheKey(String text) {
+        String normalized = Normalizer.normalize(text == null ? "" : text, Normalizer.Form.NFC)
+                .trim()
+                .replaceAll("\\s+", " ");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
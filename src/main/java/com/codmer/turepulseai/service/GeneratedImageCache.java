@@ -0,0 +1,303 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.config.ImageCacheProperties;
+import com.codmer.turepulseai.model.GeneratedImageCacheStats;
+import com.codmer.turepulseai.util.ImageStreams;
+import com.codmer.turepulseai.util.ImageStreams.CopyResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Generated images addressed by a digest of the final image prompt, the size and the image model, so
+ * regenerating the same creative is served from disk instead of paying for another image model call.
+ * Images are files under app.image-cache.storage-dir kept in least-recently-used order within a byte budget;
+ * the order is mirrored in the files' modification times so it survives restarts.
+ */
+@Service
+@Slf4j
+public class GeneratedImageCache {
+
+    private static final String SUFFIX = ".img";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private record Entry(Path path, long bytes) {
+    }
+
+    private final ImageCacheProperties properties;
+    private final Path dir;
+    // Access-ordered: the first entry is the least recently used one
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public GeneratedImageCache(ImageCacheProperties properties) {
+        this.properties = properties;
+        this.dir = Paths.get(properties.getStorageDir());
+        if (properties.isEnabled()) {
+            loadExisting();
+        }
+    }
+
+    /**
+     * @param finalPrompt the prompt exactly as sent to the image model
+     * @return the cache key, or null when the cache is disabled
+     */
+    public String key(String finalPrompt, String size) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        MessageDigest digest = sha256();
+        digest.update(properties.getModel().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(size.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(finalPrompt.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Copy the cached image into {@code out}
+     *
+     * @return null on a miss, in which case nothing was written
+     */
+    public CopyResult copyTo(String key, OutputStream out, long maxBytes) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        CopyResult copied;
+        try (InputStream in = Files.newInputStream(entry.path())) {
+            copied = ImageStreams.copy(in, out, maxBytes);
+        } catch (NoSuchFileException e) {
+            // Deleted behind our back; forget it and generate again
+            remove(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        bytesServed.add(copied.bytes());
+        touch(entry.path());
+        return copied;
+    }
+
+    /**
+     * Start writing a freshly generated image into the cache. Write through {@link Pending#tee(OutputStream)}
+     * and {@link Pending#commit()} once the image is complete; closing an uncommitted write discards it.
+     *
+     * @return null when the cache is disabled or the key is null
+     */
+    public Pending begin(String key) throws IOException {
+        if (key == null || !properties.isEnabled()) {
+            return null;
+        }
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, key, TEMP_SUFFIX);
+        return new Pending(key, temp, Files.newOutputStream(temp));
+    }
+
+    public GeneratedImageCacheStats stats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        long entryCount;
+        long bytes;
+        synchronized (this) {
+            entryCount = entries.size();
+            bytes = totalBytes;
+        }
+        return GeneratedImageCacheStats.builder()
+                .enabled(properties.isEnabled())
+                .entries(entryCount)
+                .bytes(bytes)
+                .maxBytes(maxBytes())
+                .hits(hitCount)
+                .misses(misses.sum())
+                .hitRate(total == 0 ? 0.0 : (double) hitCount / total)
+                .bytesServed(bytesServed.sum())
+                .stores(stores.sum())
+                .evictions(evictions.sum())
+                .build();
+    }
+
+    public final class Pending implements AutoCloseable {
+        private final String key;
+        private final Path temp;
+        private final OutputStream file;
+        private long written;
+        private boolean committed;
+
+        private Pending(String key, Path temp, OutputStream file) {
+            this.key = key;
+            this.temp = temp;
+            this.file = file;
+        }
+
+        /**
+         * A stream writing to {@code primary} and to the cache file alike
+         */
+        public OutputStream tee(OutputStream primary) {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    primary.write(b);
+                    file.write(b);
+                    written++;
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    primary.write(bytes, offset, length);
+                    file.write(bytes, offset, length);
+                    written += length;
+                }
+            };
+        }
+
+        public void commit() throws IOException {
+            file.close();
+            Path target = dir.resolve(key + SUFFIX);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            put(key, new Entry(target, written));
+            stores.increment();
+        }
+
+        @Override
+        public void close() {
+            if (committed) {
+                return;
+            }
+            try {
+                file.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("Could not discard cached image write {}: {}", temp, e.getMessage());
+            }
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalBytes -= previous.bytes();
+            }
+            totalBytes += entry.bytes();
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes() && eldest.hasNext()) {
+                Entry victim = eldest.next().getValue();
+                eldest.remove();
+                totalBytes -= victim.bytes();
+                evicted.add(victim);
+            }
+        }
+        // File deletes happen outside the lock; a reader that already opened a victim keeps reading it
+        for (Entry victim : evicted) {
+            evictions.increment();
+            try {
+                Files.deleteIfExists(victim.path());
+            } catch (IOException e) {
+                log.warn("Could not delete evicted image {}: {}", victim.path(), e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.bytes();
+        }
+    }
+
+    private void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Could not update access time of {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the index from the files left by the previous run, oldest first; unfinished writes are deleted
+     */
+    private void loadExisting() {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> images = files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        if (name.endsWith(TEMP_SUFFIX)) {
+                            try {
+                                Files.deleteIfExists(path);
+                            } catch (IOException e) {
+                                log.debug("Could not delete leftover {}: {}", path, e.getMessage());
+                            }
+                            return false;
+                        }
+                        return name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(GeneratedImageCache::lastModified))
+                    .toList();
+            for (Path image : images) {
+                String name = image.getFileName().toString();
+                put(name.substring(0, name.length() - SUFFIX.length()), new Entry(image, Files.size(image)));
+            }
+            log.info("Generated image cache loaded {} images ({} bytes)", entries.size(), totalBytes);
+        } catch (IOException e) {
+            log.warn("Could not load generated image cache from {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private long maxBytes() {
+        return properties.getMaxSizeMb() * 1024 * 1024;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
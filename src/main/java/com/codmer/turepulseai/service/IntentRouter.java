@@ -0,0 +1,206 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.config.IntentRouterProperties;
+import com.codmer.turepulseai.model.IntentRouterStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Decides whether a customer query is an order request without a chat completion whenever it can.
+ * Cheap lexical rules settle the obvious cases; otherwise the query embedding (already needed for
+ * retrieval, so usually cached) is compared with precomputed order / non-order prototype embeddings.
+ * Only queries whose similarity margin falls inside the uncertain band are sent to the LLM.
+ */
+@Service
+@Slf4j
+public class IntentRouter {
+
+    public enum Path {
+        RULE,
+        EMBEDDING,
+        LLM
+    }
+
+    public record Decision(boolean order, Path path, double margin) {
+    }
+
+    private static final String QUANTITY = "(?:\\d+|a|an|one|two|three|some)";
+    // Only fires with an explicit item or quantity after the order phrase; "Can I order online?" is not an order
+    private static final Pattern ORDER_RULE = Pattern.compile(
+            "\\b(?:(?:i(?:'d| would) like to|i want to|can i|could i) order (?:" + QUANTITY + "|the)"
+                    + "|place (?:an |my |the )?order for|order (?:me )?" + QUANTITY
+                    + "|i'?ll (?:take|have) (?:" + QUANTITY + "|the)|can i (?:get|have) " + QUANTITY
+                    + "|add .+ to (?:my|the) order)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern QUESTION_RULE = Pattern.compile(
+            "^\\s*(what|when|where|why|which|who|how (?:much|many|long|spicy|big)|how (?:do|can|should|would) (?:i|we)"
+                    + "|is|are|does|do you (?:have|serve|offer|deliver|take))\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_WORDS = Pattern.compile(
+            "\\b(order|buy|purchase|book|reserve|get me|checkout|pickup|pick up|deliver me)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final IntentRouterProperties properties;
+    private final EmbeddingCacheService embeddingCacheService;
+    private final ChatClient chatClient;
+
+    private final LongAdder ruleDecisions = new LongAdder();
+    private final LongAdder embeddingDecisions = new LongAdder();
+    private final LongAdder llmDecisions = new LongAdder();
+    private final LongAdder orderIntents = new LongAdder();
+
+    private volatile List<float[]> orderPrototypes;
+    private volatile List<float[]> questionPrototypes;
+
+    public IntentRouter(IntentRouterProperties properties,
+                        EmbeddingCacheService embeddingCacheService,
+                        ChatClient chatClient) {
+        this.properties = properties;
+        this.embeddingCacheService = embeddingCacheService;
+        this.chatClient = chatClient;
+    }
+
+    public boolean isOrderRequest(String query) {
+        return route(query).order();
+    }
+
+    public Decision route(String query) {
+        Decision decision = properties.isEnabled() ? routeLocally(query) : null;
+        if (decision == null) {
+            decision = new Decision(classifyWithLlm(query), Path.LLM, 0.0);
+        }
+        switch (decision.path()) {
+            case RULE -> ruleDecisions.increment();
+            case EMBEDDING -> embeddingDecisions.increment();
+            case LLM -> llmDecisions.increment();
+        }
+        if (decision.order()) {
+            orderIntents.increment();
+        }
+        log.debug("Intent for '{}': order={} via {} (margin {})", query, decision.order(), decision.path(), decision.margin());
+        return decision;
+    }
+
+    public IntentRouterStats stats() {
+        long rule = ruleDecisions.sum();
+        long embedding = embeddingDecisions.sum();
+        long llm = llmDecisions.sum();
+        long total = rule + embedding + llm;
+        return IntentRouterStats.builder()
+                .enabled(properties.isEnabled())
+                .ruleDecisions(rule)
+                .embeddingDecisions(embedding)
+                .llmDecisions(llm)
+                .orderIntents(orderIntents.sum())
+                .localRate(total == 0 ? 0.0 : (double) (rule + embedding) / total)
+                .build();
+    }
+
+    /**
+     * @return null when neither the rules nor the embeddings are confident
+     */
+    private Decision routeLocally(String query) {
+        Boolean ruled = ruleDecision(query);
+        if (ruled != null) {
+            return new Decision(ruled, Path.RULE, ruled ? 1.0 : -1.0);
+        }
+
+        try {
+            float[] embedding = embeddingCacheService.embed(query);
+            double margin = bestSimilarity(embedding, orderPrototypes())
+                    - bestSimilarity(embedding, questionPrototypes());
+            if (margin >= properties.getOrderMargin()) {
+                return new Decision(true, Path.EMBEDDING, margin);
+            }
+            if (margin <= -properties.getQuestionMargin()) {
+                return new Decision(false, Path.EMBEDDING, margin);
+            }
+        } catch (Exception e) {
+            log.warn("Embedding-based intent routing failed; falling back to the LLM: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Questions are checked first: "How do I place an order?" mentions ordering but asks about it, so a question
+     * that talks about ordering is left to the embeddings or the LLM instead of being taken as an order.
+     *
+     * @return true or false when a lexical rule settles the intent, null otherwise
+     */
+    static Boolean ruleDecision(String query) {
+        if (QUESTION_RULE.matcher(query).find()) {
+            return ORDER_WORDS.matcher(query).find() ? null : Boolean.FALSE;
+        }
+        return ORDER_RULE.matcher(query).find() ? Boolean.TRUE : null;
+    }
+
+    private List<float[]> orderPrototypes() {
+        List<float[]> current = orderPrototypes;
+        if (current == null) {
+            // Prototype embeddings come from the embedding store, so this is one provider call per model, ever
+            current = embeddingCacheService.embedAll(properties.getOrderPrototypes());
+            orderPrototypes = current;
+        }
+        return current;
+    }
+
+    private List<float[]> questionPrototypes() {
+        List<float[]> current = questionPrototypes;
+        if (current == null) {
+            current = embeddingCacheService.embedAll(properties.getQuestionPrototypes());
+            questionPrototypes = current;
+        }
+        return current;
+    }
+
+    private static double bestSimilarity(float[] query, List<float[]> prototypes) {
+        double best = -1.0;
+        for (float[] prototype : prototypes) {
+            best = Math.max(best, cosine(query, prototype));
+        }
+        return best;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0.0 : dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    private boolean classifyWithLlm(String query) {
+        String systemPrompt = """
+                Classify whether the customer request is about placing a food order.
+                Respond with only 'true' or 'false'.
+                """;
+
+        String userPrompt = """
+                Request: %s
+                """.formatted(query);
+
+        Prompt prompt = new Prompt(List.of(
+                new SystemMessage(systemPrompt),
+                new UserMessage(userPrompt)
+        ));
+
+        String response = chatClient.prompt(prompt).call().content();
+        if (response == null) {
+            return false;
+        }
+        String normalized = response.toLowerCase().trim();
+        return normalized.contains("true") || normalized.contains("yes");
+    }
+}
@@ -0,0 +1,393 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import com.codmer.turepulseai.model.LocalVectorIndexStats;
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkHit;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkVector;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process read replica of business_document_chunks for the hottest entities.
+ * Each entity (businessId + entityId + displayName) is held as one snapshot: all vectors in a single
+ * contiguous float[] plus a small inverted index over the chunk text. Searches against a warm snapshot
+ * are an exact scan with no database connection, so their cost is linear in the entity's chunk count;
+ * app.vector-search.local-index.max-chunks-per-entity keeps larger entities on the ANN index in Postgres.
+ * A cold entity is answered by Postgres while its snapshot is built in the background. Snapshots are
+ * weighed by their heap size and evicted under app.vector-search.local-index.max-memory-mb, and dropped
+ * whenever the entity's documents change.
+ */
+@Service
+@Slf4j
+public class LocalChunkIndex {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "can", "do", "does", "for", "from", "have", "how",
+            "i", "in", "is", "it", "me", "my", "of", "on", "or", "please", "so", "that", "the", "there", "this",
+            "to", "was", "we", "what", "when", "where", "which", "who", "will", "with", "you", "your");
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    private final VectorSearchProperties properties;
+    private final BusinessDocumentChunkRepository chunkRepository;
+    private final ThreadPoolTaskExecutor localVectorIndexExecutor;
+    private final Cache<EntityKey, EntitySnapshot> snapshots;
+
+    private final Map<EntityKey, Long> generations = new ConcurrentHashMap<>();
+    private final Set<EntityKey> building = ConcurrentHashMap.newKeySet();
+    private final Set<EntityKey> oversized = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+
+    public LocalChunkIndex(VectorSearchProperties properties,
+                           BusinessDocumentChunkRepository chunkRepository,
+                           @Qualifier("localVectorIndexExecutor") ThreadPoolTaskExecutor localVectorIndexExecutor) {
+        this.properties = properties;
+        this.chunkRepository = chunkRepository;
+        this.localVectorIndexExecutor = localVectorIndexExecutor;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight((long) properties.getLocalIndex().getMaxMemoryMb() * 1024)
+                .weigher((EntityKey key, EntitySnapshot snapshot) -> snapshot.weightKb())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Vector-only search served from memory.
+     *
+     * @return empty when the entity is not warm; the caller should query the database instead
+     */
+    public Optional<List<ChunkHit>> findNearest(ChunkSearch search) {
+        return snapshot(search).map(snapshot -> snapshot.nearest(search, search.limit(), properties.getMetric()));
+    }
+
+    /**
+     * Hybrid search served from memory, mirroring ChunkVectorSearchRepository.findHybridChunks:
+     * vector and BM25 candidates fused with reciprocal rank fusion.
+     *
+     * @return empty when the entity is not warm; the caller should query the database instead
+     */
+    public Optional<List<ChunkHit>> findHybrid(ChunkSearch search, String queryText) {
+        return snapshot(search).map(snapshot -> snapshot.hybrid(search, queryText, properties));
+    }
+
+    /**
+     * Drop the entity's snapshot after its chunks changed; the next search rebuilds it
+     */
+    public void invalidate(String businessId, Long entityId, String displayName) {
+        EntityKey key = new EntityKey(businessId, entityId, displayName);
+        generations.merge(key, 1L, Long::sum);
+        oversized.remove(key);
+        snapshots.invalidate(key);
+    }
+
+    public LocalVectorIndexStats stats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        long bytes = snapshots.asMap().values().stream().mapToLong(snapshot -> snapshot.weightKb() * 1024L).sum();
+        return LocalVectorIndexStats.builder()
+                .enabled(properties.getLocalIndex().isEnabled())
+                .entities(snapshots.estimatedSize())
+                .estimatedBytes(bytes)
+                .maxBytes((long) properties.getLocalIndex().getMaxMemoryMb() * 1024 * 1024)
+                .hits(hitCount)
+                .misses(misses.sum())
+                .builds(builds.sum())
+                .evictions(snapshots.stats().evictionCount())
+                .hitRate(total == 0 ? 0.0 : (double) hitCount / total)
+                .build();
+    }
+
+    private Optional<EntitySnapshot> snapshot(ChunkSearch search) {
+        // Snapshots hold one business's chunks; a search across businesses goes to the database
+        if (!properties.getLocalIndex().isEnabled() || search.businessId() == null) {
+            return Optional.empty();
+        }
+        EntityKey key = new EntityKey(search.businessId(), search.entityId(), search.displayName());
+        EntitySnapshot snapshot = snapshots.getIfPresent(key);
+        if (snapshot != null && (snapshot.ids().length == 0 || snapshot.dimensions() == search.embedding().length)) {
+            hits.increment();
+            return Optional.of(snapshot);
+        }
+        misses.increment();
+        scheduleBuild(key);
+        return Optional.empty();
+    }
+
+    private void scheduleBuild(EntityKey key) {
+        if (oversized.contains(key) || !building.add(key)) {
+            return;
+        }
+        try {
+            localVectorIndexExecutor.execute(() -> {
+                try {
+                    build(key);
+                } finally {
+                    building.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            building.remove(key);
+        }
+    }
+
+    private void build(EntityKey key) {
+        long generation = generations.getOrDefault(key, 0L);
+        int maxChunks = properties.getLocalIndex().getMaxChunksPerEntity();
+        try {
+            List<ChunkVector> rows = chunkRepository.findEntityVectors(key.businessId(), key.entityId(), key.displayName(),
+                    maxChunks + 1);
+            if (rows.size() > maxChunks) {
+                log.info("Entity {} / {} of {} has more than {} chunks; keeping it in the database only",
+                        key.entityId(), key.displayName(), key.businessId(), maxChunks);
+                oversized.add(key);
+                return;
+            }
+            EntitySnapshot snapshot = EntitySnapshot.of(rows, properties.getMetric());
+            // A document finished ingesting while we were reading: keep whatever is newer
+            snapshots.asMap().compute(key, (k, current) ->
+                    generations.getOrDefault(k, 0L) == generation ? snapshot : current);
+            builds.increment();
+            log.debug("Built local vector index for entity {} / {} of {}: {} chunks, {} KB",
+                    key.entityId(), key.displayName(), key.businessId(), rows.size(), snapshot.weightKb());
+        } catch (Exception e) {
+            log.warn("Could not build local vector index for entity {}: {}", key.entityId(), e.getMessage());
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record EntityKey(String businessId, Long entityId, String displayName) {
+    }
+
+    private record Scored(int row, double score) {
+    }
+
+    /**
+     * Immutable column-oriented copy of one entity's chunks
+     */
+    private record EntitySnapshot(long[] ids, long[] documentIds, int[] chunkIndexes,
+                                  String[] contents, int[] overlapChars, float[] vectors, int dimensions,
+                                  Map<String, int[]> postings, int[] lengths, double averageLength,
+                                  int weightKb) {
+
+        static EntitySnapshot of(List<ChunkVector> rows, VectorSearchProperties.Metric metric) {
+            int dimensions = rows.isEmpty() ? 0 : rows.get(0).embedding().length;
+            List<ChunkVector> usable = rows.stream().filter(row -> row.embedding().length == dimensions).toList();
+            int n = usable.size();
+            long[] ids = new long[n];
+            long[] documentIds = new long[n];
+            int[] chunkIndexes = new int[n];
+            String[] contents = new String[n];
+            int[] overlapChars = new int[n];
+            float[] vectors = new float[n * dimensions];
+            int[] lengths = new int[n];
+            Map<String, List<int[]>> termRows = new HashMap<>();
+            long chars = 0;
+            long totalLength = 0;
+
+            for (int row = 0; row < n; row++) {
+                ChunkVector chunk = usable.get(row);
+                ids[row] = chunk.id();
+                documentIds[row] = chunk.documentId();
+                chunkIndexes[row] = chunk.chunkIndex();
+                contents[row] = chunk.content();
+                overlapChars[row] = chunk.overlapChars();
+                chars += chunk.content().length();
+                float[] embedding = chunk.embedding();
+                if (metric == VectorSearchProperties.Metric.COSINE) {
+                    embedding = normalize(embedding);
+                }
+                System.arraycopy(embedding, 0, vectors, row * dimensions, dimensions);
+
+                Map<String, Integer> frequencies = new HashMap<>();
+                List<String> tokens = tokenize(chunk.content());
+                tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+                lengths[row] = tokens.size();
+                totalLength += tokens.size();
+                for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+                    termRows.computeIfAbsent(term.getKey(), t -> new ArrayList<>()).add(new int[]{row, term.getValue()});
+                }
+            }
+
+            // Postings are flattened as [row, frequency, row, frequency, ...]
+            Map<String, int[]> postings = new HashMap<>(termRows.size() * 2);
+            long postingInts = 0;
+            for (Map.Entry<String, List<int[]>> term : termRows.entrySet()) {
+                int[] flat = new int[term.getValue().size() * 2];
+                for (int i = 0; i < term.getValue().size(); i++) {
+                    flat[2 * i] = term.getValue().get(i)[0];
+                    flat[2 * i + 1] = term.getValue().get(i)[1];
+                }
+                postings.put(term.getKey(), flat);
+                postingInts += flat.length;
+            }
+
+            long bytes = (long) vectors.length * Float.BYTES + chars * 2 + postingInts * Integer.BYTES
+                    + postings.size() * 64L + n * 100L;
+            int weightKb = (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes / 1024));
+            return new EntitySnapshot(ids, documentIds, chunkIndexes, contents, overlapChars, vectors, dimensions,
+                    postings, lengths, n == 0 ? 0 : (double) totalLength / n, weightKb);
+        }
+
+        List<ChunkHit> nearest(ChunkSearch search, int limit, VectorSearchProperties.Metric metric) {
+            List<Scored> ranked = semantic(search, limit, metric);
+            List<ChunkHit> result = new ArrayList<>(ranked.size());
+            for (Scored scored : ranked) {
+                result.add(hit(scored.row(), scored.score()));
+            }
+            return result;
+        }
+
+        List<ChunkHit> hybrid(ChunkSearch search, String queryText, VectorSearchProperties properties) {
+            int candidates = Math.max(properties.getHybridCandidates(), search.limit());
+            int rrfK = properties.getRrfK();
+            List<Scored> semantic = semantic(search, candidates, properties.getMetric());
+            List<Scored> lexical = lexical(queryText, candidates);
+
+            Map<Integer, Double> fused = new HashMap<>();
+            Map<Integer, Double> distances = new HashMap<>();
+            for (int rank = 0; rank < semantic.size(); rank++) {
+                fused.merge(semantic.get(rank).row(), 1.0 / (rrfK + rank + 1), Double::sum);
+                distances.put(semantic.get(rank).row(), semantic.get(rank).score());
+            }
+            for (int rank = 0; rank < lexical.size(); rank++) {
+                fused.merge(lexical.get(rank).row(), 1.0 / (rrfK + rank + 1), Double::sum);
+            }
+            return fused.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                            .thenComparing(entry -> distances.getOrDefault(entry.getKey(), Double.MAX_VALUE)))
+                    .limit(search.limit())
+                    .map(entry -> hit(entry.getKey(), distances.get(entry.getKey())))
+                    .toList();
+        }
+
+        /**
+         * Exact scan over every vector, keeping the k closest in a bounded heap. Distances follow pgvector's
+         * operators so results and thresholds match the database path.
+         */
+        private List<Scored> semantic(ChunkSearch search, int k, VectorSearchProperties.Metric metric) {
+            float[] query = metric == VectorSearchProperties.Metric.COSINE ? normalize(search.embedding()) : search.embedding();
+            PriorityQueue<Scored> closest = new PriorityQueue<>(Comparator.comparingDouble(Scored::score).reversed());
+            for (int row = 0; row < ids.length; row++) {
+                double distance = distance(query, row, metric);
+                if (search.maxDistance() != null && distance > search.maxDistance()) {
+                    continue;
+                }
+                if (closest.size() < k) {
+                    closest.add(new Scored(row, distance));
+                } else if (distance < closest.peek().score()) {
+                    closest.poll();
+                    closest.add(new Scored(row, distance));
+                }
+            }
+            List<Scored> ranked = new ArrayList<>(closest);
+            ranked.sort(Comparator.comparingDouble(Scored::score));
+            return ranked;
+        }
+
+        private List<Scored> lexical(String queryText, int k) {
+            Map<Integer, Double> scores = new HashMap<>();
+            int n = ids.length;
+            for (String term : tokenize(queryText).stream().distinct().toList()) {
+                int[] posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                int documentFrequency = posting.length / 2;
+                double idf = Math.log(1 + (n - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                for (int i = 0; i < posting.length; i += 2) {
+                    int row = posting[i];
+                    double tf = posting[i + 1];
+                    double norm = tf * (BM25_K1 + 1)
+                            / (tf + BM25_K1 * (1 - BM25_B + BM25_B * lengths[row] / Math.max(1.0, averageLength)));
+                    scores.merge(row, idf * norm, Double::sum);
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed())
+                    .limit(k)
+                    .map(entry -> new Scored(entry.getKey(), entry.getValue()))
+                    .toList();
+        }
+
+        private double distance(float[] query, int row, VectorSearchProperties.Metric metric) {
+            int offset = row * dimensions;
+            if (metric == VectorSearchProperties.Metric.L2) {
+                double sum = 0;
+                for (int i = 0; i < dimensions; i++) {
+                    double diff = query[i] - vectors[offset + i];
+                    sum += diff * diff;
+                }
+                return Math.sqrt(sum);
+            }
+            // Four independent accumulators let the JIT pipeline the multiply-adds
+            float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            int i = 0;
+            for (; i + 3 < dimensions; i += 4) {
+                s0 += query[i] * vectors[offset + i];
+                s1 += query[i + 1] * vectors[offset + i + 1];
+                s2 += query[i + 2] * vectors[offset + i + 2];
+                s3 += query[i + 3] * vectors[offset + i + 3];
+            }
+            for (; i < dimensions; i++) {
+                s0 += query[i] * vectors[offset + i];
+            }
+            double dot = (double) s0 + s1 + s2 + s3;
+            return metric == VectorSearchProperties.Metric.COSINE ? 1 - dot : -dot;
+        }
+
+        private ChunkHit hit(int row, Double distance) {
+            return new ChunkHit(ids[row], documentIds[row], chunkIndexes[row], contents[row], overlapChars[row], distance);
+        }
+
+        private static float[] normalize(float[] vector) {
+            double norm = 0;
+            for (float value : vector) {
+                norm += value * value;
+            }
+            if (norm == 0) {
+                return vector;
+            }
+            float scale = (float) (1 / Math.sqrt(norm));
+            float[] normalized = Arrays.copyOf(vector, vector.length);
+            for (int i = 0; i < normalized.length; i++) {
+                normalized[i] *= scale;
+            }
+            return normalized;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.config.MenuCatalogProperties;
+import com.codmer.turepulseai.entity.BusinessDocument;
+import com.codmer.turepulseai.entity.MenuCatalogItem;
+import com.codmer.turepulseai.repository.BusinessDocumentRepository;
+import com.codmer.turepulseai.repository.MenuCatalogItemRepository;
+import com.codmer.turepulseai.util.DocumentChunker;
+import com.codmer.turepulseai.util.LlmJsonParser;
+import com.codmer.turepulseai.util.MenuItemMatcher;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Structured menu per (businessId, entityId), extracted by the LLM once per document ingestion instead of
+ * on every order. Items are persisted in menu_catalog_items next to the document that produced them, and the
+ * document records the hash of the text they came from, so re-ingesting unchanged text costs nothing.
+ * Catalogs are served from an in-memory copy with a fuzzy matcher built once per catalog.
+ */
+@Service
+@Slf4j
+public class MenuCatalogService {
+
+    private static final String STATUS_READY = "READY";
+    // Column width of menu_catalog_items.name; anything longer is prose the LLM mistook for an item
+    private static final int MAX_NAME_LENGTH = 255;
+
+    public record MenuCatalog(List<String> names, List<String> normalizedNames, MenuItemMatcher matcher) {
+
+        public static MenuCatalog of(List<String> names) {
+            // Keep the first spelling of each item; later duplicates only differ in case or spacing
+            Map<String, String> byNormalized = new LinkedHashMap<>();
+            for (String name : names) {
+                String normalized = normalize(name);
+                if (!normalized.isEmpty()) {
+                    byNormalized.putIfAbsent(normalized, name.trim());
+                }
+            }
+            List<String> normalizedNames = List.copyOf(byNormalized.keySet());
+            return new MenuCatalog(List.copyOf(byNormalized.values()), normalizedNames,
+                    MenuItemMatcher.build(normalizedNames));
+        }
+
+        public boolean isEmpty() {
+            return names.isEmpty();
+        }
+    }
+
+    private final MenuCatalogProperties properties;
+    private final MenuCatalogItemRepository menuCatalogItemRepository;
+    private final BusinessDocumentRepository businessDocumentRepository;
+    private final ChatClient chatClient;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, MenuCatalog> catalogs;
+
+    public MenuCatalogService(MenuCatalogProperties properties,
+                              MenuCatalogItemRepository menuCatalogItemRepository,
+                              BusinessDocumentRepository businessDocumentRepository,
+                              ChatClient chatClient,
+                              TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.menuCatalogItemRepository = menuCatalogItemRepository;
+        this.businessDocumentRepository = businessDocumentRepository;
+        this.chatClient = chatClient;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogs = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheEntries())
+                .expireAfterWrite(properties.getCacheTtlMinutes(), TimeUnit.MINUTES)
+                .build();
+    }
+
+    public static String normalize(String item) {
+        return item.toLowerCase().trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * The entity's materialized menu across all of its READY documents.
+     *
+     * @return empty when cataloguing is off or some READY document has not been catalogued yet (e.g. it was
+     * ingested before catalogs existed); the caller should derive the menu from the chunks instead
+     */
+    public Optional<MenuCatalog> find(String businessId, Long entityId) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        String key = cacheKey(businessId, entityId);
+        MenuCatalog cached = catalogs.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        List<BusinessDocument> documents =
+                businessDocumentRepository.findByBusinessIdAndEntityIdAndStatus(businessId, entityId, STATUS_READY);
+        if (documents.isEmpty() || documents.stream().anyMatch(doc -> doc.getMenuCatalogHash() == null)) {
+            return Optional.empty();
+        }
+        List<String> names = menuCatalogItemRepository
+                .findByDocumentIdIn(documents.stream().map(BusinessDocument::getId).toList())
+                .stream()
+                .map(MenuCatalogItem::getName)
+                .toList();
+        MenuCatalog catalog = MenuCatalog.of(names);
+        catalogs.put(key, catalog);
+        return Optional.of(catalog);
+    }
+
+    /**
+     * Replace the catalog rows of a freshly ingested document. Skipped when the document's text is the same
+     * as the one its current catalog was extracted from.
+     *
+     * @param sourceText the document text without chunk overlaps, already capped at max-source-chars
+     */
+    public void rebuild(BusinessDocument document, String sourceText) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String sourceHash = DocumentChunker.contentHash(sourceText);
+        if (sourceHash.equals(document.getMenuCatalogHash())) {
+            log.info("Menu catalog of document {} is up to date", document.getId());
+            return;
+        }
+
+        List<String> extracted = new ArrayList<>();
+        for (int from = 0; from < sourceText.length(); from += properties.getSegmentChars()) {
+            String segment = sourceText.substring(from, Math.min(sourceText.length(), from + properties.getSegmentChars()));
+            if (!segment.isBlank()) {
+                extractMenuItems(segment).stream()
+                        .filter(name -> name.length() <= MAX_NAME_LENGTH)
+                        .forEach(extracted::add);
+            }
+        }
+        MenuCatalog catalog = MenuCatalog.of(extracted);
+
+        List<MenuCatalogItem> rows = new ArrayList<>(catalog.names().size());
+        for (int i = 0; i < catalog.names().size(); i++) {
+            MenuCatalogItem row = new MenuCatalogItem();
+            row.setDocumentId(document.getId());
+            row.setBusinessId(document.getBusinessId());
+            row.setEntityId(document.getEntityId());
+            row.setName(catalog.names().get(i));
+            row.setNormalizedName(catalog.normalizedNames().get(i));
+            rows.add(row);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            menuCatalogItemRepository.deleteByDocumentId(document.getId());
+            menuCatalogItemRepository.saveAll(rows);
+            // Only the hash column changes; re-reading avoids overwriting progress saved by other code paths
+            businessDocumentRepository.findById(document.getId()).ifPresent(current -> {
+                current.setMenuCatalogHash(sourceHash);
+                businessDocumentRepository.save(current);
+            });
+        });
+        document.setMenuCatalogHash(sourceHash);
+        catalogs.invalidate(cacheKey(document.getBusinessId(), document.getEntityId()));
+        log.info("Menu catalog of document {} rebuilt with {} items", document.getId(), rows.size());
+    }
+
+    /**
+     * Extract menu items from menu text using LLM
+     */
+    public List<String> extractMenuItems(String menuText) {
+        String systemPrompt = """
+                Extract all distinct menu items from the menu text.
+                Include all variations and item names mentioned.
+                Return ONLY a JSON array of item names.
+                If the text contains no menu items, return [].
+                Example: ["Pizza", "Burger", "Salad", "Sambar Fish", "Fish Fry"]
+                """;
+
+        String userPrompt = """
+                Menu Text:
+                %s
+
+                Extract ALL menu items. Be comprehensive and include all food items mentioned.
+                """.formatted(menuText);
+
+        Prompt prompt = new Prompt(List.of(
+                new SystemMessage(systemPrompt),
+                new UserMessage(userPrompt)
+        ));
+
+        String response = chatClient.prompt(prompt).call().content();
+        List<String> items = LlmJsonParser.parseStringList(response);
+        log.debug("Extracted menu items: {}", items);
+        return items;
+    }
+
+    private static String cacheKey(String businessId, Long entityId) {
+        return businessId + ":" + entityId;
+    }
+}
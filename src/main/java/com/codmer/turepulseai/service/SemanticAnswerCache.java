@@ -0,0 +1,184 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.config.SemanticCacheProperties;
+import com.codmer.turepulseai.model.SemanticAnswerCacheStats;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers to earlier questions, looked up by meaning rather than by exact text.
+ * Each entity keeps a small ring of (question embedding, answer) pairs that is scanned exactly with a dot
+ * product over unit vectors, so "what are your hours?" can reuse the answer to "What are your opening hours".
+ * The query embedding is the one retrieval needs anyway, so a hit skips the vector query and the LLM call.
+ * Rings are weighed by their heap size under app.semantic-cache.max-memory-mb and dropped whenever the
+ * entity's documents change.
+ */
+@Service
+public class SemanticAnswerCache {
+
+    private final SemanticCacheProperties properties;
+    private final Cache<EntityKey, EntityAnswers> answers;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public SemanticAnswerCache(SemanticCacheProperties properties) {
+        this.properties = properties;
+        this.answers = Caffeine.newBuilder()
+                .maximumWeight((long) properties.getMaxMemoryMb() * 1024)
+                .weigher((EntityKey key, EntityAnswers entry) -> entry.weightKb())
+                .expireAfterAccess(properties.getTtlMinutes(), TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * @param variant anything besides the question that shapes the answer (top-k, context expansion);
+     *                only answers produced with the same variant are reused
+     * @return the answer to the most similar earlier question, if it is similar enough
+     */
+    public Optional<String> find(String businessId, Long entityId, String displayName, String variant, float[] embedding) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        EntityAnswers entry = answers.getIfPresent(new EntityKey(businessId, entityId, displayName));
+        String answer = entry == null ? null : entry.find(unit(embedding), variant, properties.getSimilarityThreshold());
+        if (answer == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(answer);
+    }
+
+    public void put(String businessId, Long entityId, String displayName, String variant, float[] embedding, String answer) {
+        if (!properties.isEnabled() || answer == null) {
+            return;
+        }
+        EntityKey key = new EntityKey(businessId, entityId, displayName);
+        // Re-inserting the ring after every add lets Caffeine re-weigh it as it grows
+        answers.asMap().compute(key, (k, entry) -> {
+            EntityAnswers ring = entry != null ? entry : new EntityAnswers(Math.max(1, properties.getMaxEntriesPerEntity()));
+            ring.add(unit(embedding), variant, answer);
+            return ring;
+        });
+    }
+
+    /**
+     * Forget every answer for the entity after its documents changed
+     */
+    public void invalidate(String businessId, Long entityId, String displayName) {
+        answers.invalidate(new EntityKey(businessId, entityId, displayName));
+        invalidations.increment();
+    }
+
+    public SemanticAnswerCacheStats stats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        long entries = 0;
+        long bytes = 0;
+        for (EntityAnswers entry : answers.asMap().values()) {
+            entries += entry.size();
+            bytes += entry.weightKb() * 1024L;
+        }
+        return SemanticAnswerCacheStats.builder()
+                .enabled(properties.isEnabled())
+                .similarityThreshold(properties.getSimilarityThreshold())
+                .entities(answers.estimatedSize())
+                .entries(entries)
+                .estimatedBytes(bytes)
+                .maxBytes((long) properties.getMaxMemoryMb() * 1024 * 1024)
+                .hits(hitCount)
+                .misses(misses.sum())
+                .invalidations(invalidations.sum())
+                .hitRate(total == 0 ? 0.0 : (double) hitCount / total)
+                .build();
+    }
+
+    private static float[] unit(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm == 0) {
+            return vector.clone();
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = vector[i] * scale;
+        }
+        return unit;
+    }
+
+    private record EntityKey(String businessId, Long entityId, String displayName) {
+    }
+
+    /**
+     * Fixed-capacity ring of unit question vectors with their answers; the oldest entry is overwritten first
+     */
+    private static final class EntityAnswers {
+        private final float[][] vectors;
+        private final String[] variants;
+        private final String[] texts;
+        private int next;
+        private int size;
+        private long bytes;
+
+        private EntityAnswers(int capacity) {
+            this.vectors = new float[capacity][];
+            this.variants = new String[capacity];
+            this.texts = new String[capacity];
+        }
+
+        private synchronized String find(float[] query, String variant, double threshold) {
+            double best = threshold;
+            String answer = null;
+            for (int i = 0; i < size; i++) {
+                float[] vector = vectors[i];
+                if (vector.length != query.length || !variant.equals(variants[i])) {
+                    continue;
+                }
+                double dot = 0;
+                for (int d = 0; d < vector.length; d++) {
+                    dot += vector[d] * query[d];
+                }
+                if (dot >= best) {
+                    best = dot;
+                    answer = texts[i];
+                }
+            }
+            return answer;
+        }
+
+        private synchronized void add(float[] vector, String variant, String answer) {
+            if (size == vectors.length) {
+                bytes -= entryBytes(vectors[next], texts[next]);
+            } else {
+                size++;
+            }
+            vectors[next] = vector;
+            variants[next] = variant;
+            texts[next] = answer;
+            bytes += entryBytes(vector, answer);
+            next = (next + 1) % vectors.length;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private synchronized int weightKb() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes / 1024));
+        }
+
+        private static long entryBytes(float[] vector, String answer) {
+            return 16L + vector.length * 4L + 40L + answer.length() * 2L;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import com.codmer.turepulseai.config.VectorSearchProperties.Quantization;
+import com.codmer.turepulseai.model.VectorQuantizationReport;
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkHit;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkVector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares the ANN index modes (full vectors, halfvec, binary quantization with re-ranking) on a tenant's
+ * real corpus. The entity's own stored embeddings serve as queries; each mode's top-k is checked against an
+ * exact full-scan top-k and timed end to end, including the re-rank. Only modes whose index exists give
+ * representative latencies, so the report says which ones were indexed.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class VectorQuantizationBenchmark {
+
+    private static final int MAX_SAMPLES = 200;
+    private static final int MAX_TOP_K = 100;
+
+    private final BusinessDocumentChunkRepository businessDocumentChunkRepository;
+    private final VectorSearchProperties vectorSearchProperties;
+    private final JdbcTemplate jdbcTemplate;
+
+    public VectorQuantizationReport run(String businessId, Long entityId, String displayName, int samples, int topK) {
+        int sampleCount = Math.min(Math.max(1, samples), MAX_SAMPLES);
+        int k = Math.min(Math.max(1, topK), MAX_TOP_K);
+        List<ChunkVector> queries = businessDocumentChunkRepository.findEntityVectors(businessId, entityId, displayName,
+                sampleCount);
+        if (queries.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No embedded chunks for this entity");
+        }
+
+        List<Set<Long>> truth = new ArrayList<>(queries.size());
+        double[] exactLatencies = new double[queries.size()];
+        for (int q = 0; q < queries.size(); q++) {
+            ChunkSearch search = search(businessId, entityId, displayName, queries.get(q), k);
+            long start = System.nanoTime();
+            List<ChunkHit> exact = businessDocumentChunkRepository.findExactChunks(search);
+            exactLatencies[q] = (System.nanoTime() - start) / 1_000_000.0;
+            truth.add(ids(exact));
+        }
+
+        List<VectorQuantizationReport.ModeResult> modes = new ArrayList<>();
+        for (Quantization mode : Quantization.values()) {
+            // One untimed query first, so the first sample does not pay for loading the index
+            businessDocumentChunkRepository.findNearestChunks(search(businessId, entityId, displayName, queries.get(0), k), mode);
+
+            double[] latencies = new double[queries.size()];
+            double recall = 0;
+            for (int q = 0; q < queries.size(); q++) {
+                ChunkSearch search = search(businessId, entityId, displayName, queries.get(q), k);
+                long start = System.nanoTime();
+                List<ChunkHit> hits = businessDocumentChunkRepository.findNearestChunks(search, mode);
+                latencies[q] = (System.nanoTime() - start) / 1_000_000.0;
+                recall += recall(truth.get(q), ids(hits));
+            }
+            modes.add(VectorQuantizationReport.ModeResult.builder()
+                    .quantization(mode.name())
+                    .configured(mode == vectorSearchProperties.getQuantization())
+                    .indexed(indexExists(mode))
+                    .recall(recall / queries.size())
+                    .meanLatencyMs(mean(latencies))
+                    .p95LatencyMs(percentile(latencies, 0.95))
+                    .vectorBytes(vectorBytes(mode))
+                    .build());
+        }
+        log.info("Quantization report for entity {} over {} samples: {}", entityId, queries.size(), modes);
+
+        return VectorQuantizationReport.builder()
+                .businessId(businessId)
+                .entityId(entityId)
+                .displayName(displayName)
+                .samples(queries.size())
+                .topK(k)
+                .rerankCandidates(Math.max(vectorSearchProperties.getRerankCandidates(), k))
+                .exactMeanLatencyMs(mean(exactLatencies))
+                .modes(modes)
+                .build();
+    }
+
+    private ChunkSearch search(String businessId, Long entityId, String displayName, ChunkVector query, int k) {
+        return new ChunkSearch(businessId, entityId, displayName, query.embedding(), k, null);
+    }
+
+    private boolean indexExists(Quantization mode) {
+        Integer count = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM pg_indexes
+                WHERE tablename = 'business_document_chunks' AND indexdef ILIKE ?
+                """, Integer.class, "%" + vectorSearchProperties.annOperatorClass(mode) + "%");
+        return count != null && count > 0;
+    }
+
+    private long vectorBytes(Quantization mode) {
+        int dimensions = vectorSearchProperties.getDimensions();
+        return switch (mode) {
+            case NONE -> 8L + 4L * dimensions;
+            case HALFVEC -> 8L + 2L * dimensions;
+            case BINARY -> 8L + (dimensions + 7) / 8;
+        };
+    }
+
+    private static Set<Long> ids(List<ChunkHit> hits) {
+        Set<Long> ids = new HashSet<>();
+        for (ChunkHit hit : hits) {
+            ids.add(hit.id());
+        }
+        return ids;
+    }
+
+    private static double recall(Set<Long> truth, Set<Long> found) {
+        if (truth.isEmpty()) {
+            return 1.0;
+        }
+        int matched = 0;
+        for (Long id : found) {
+            if (truth.contains(id)) {
+                matched++;
+            }
+        }
+        return (double) matched / truth.size();
+    }
+
+    private static double mean(double[] values) {
+        return Arrays.stream(values).average().orElse(0);
+    }
+
+    private static double percentile(double[] values, double p) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -8,8 +8,8 @@ import com.codmer.turepulseai.repository.AnswerRepository;
 import com.codmer.turepulseai.repository.QuestionRepository;
 import com.codmer.turepulseai.repository.UserRepository;
 import com.codmer.turepulseai.service.AnswerService;
+import com.codmer.turepulseai.service.CacheGenerations;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,9 +26,9 @@ public class AnswerServiceImpl implements AnswerService {
     private final AnswerRepository answerRepository;
     private final QuestionRepository questionRepository;
     private final UserRepository userRepository;
+    private final CacheGenerations cacheGenerations;
 
     @Override
-    @CacheEvict(value = {"questionAnalysis", "specificFeedback", "userQuestionsAnalysis", "questionData"}, allEntries = true)
     public AnswerDto create(AnswerDto dto) {
         if (dto.getQuestionId() == null || dto.getUserId() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "questionId and userId are required");
@@ -46,6 +46,7 @@ public class AnswerServiceImpl implements AnswerService {
         answer.setUser(user);
 
         Answer saved = answerRepository.save(answer);
+        invalidateAnalyses(question);
         return toDto(saved);
     }
 
@@ -83,7 +84,6 @@ public class AnswerServiceImpl implements AnswerService {
     }
 
     @Override
-    @CacheEvict(value = {"questionAnalysis", "specificFeedback", "userQuestionsAnalysis", "questionData"}, allEntries = true)
     public AnswerDto update(Long id, AnswerDto dto) {
         // Validate that path ID matches dto ID if provided
         if (dto.getId() != null && !id.equals(dto.getId())) {
@@ -92,6 +92,8 @@ public class AnswerServiceImpl implements AnswerService {
 
         Answer answer = answerRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Answer not found"));
+        // The answer may be moved to another question; both lose their cached analyses
+        invalidateAnalyses(answer.getQuestion());
 
         if (dto.getContent() != null) {
             answer.setContent(dto.getContent());
@@ -110,16 +112,32 @@ public class AnswerServiceImpl implements AnswerService {
         }
 
         Answer updated = answerRepository.save(answer);
+        invalidateAnalyses(updated.getQuestion());
         return toDto(updated);
     }
 
     @Override
-    @CacheEvict(value = {"questionAnalysis", "specificFeedback", "userQuestionsAnalysis", "questionData"}, allEntries = true)
     public void delete(Long id) {
-        if (!answerRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Answer not found");
+        Answer answer = answerRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Answer not found"));
+        invalidateAnalyses(answer.getQuestion());
+        answerRepository.delete(answer);
+    }
+
+    /**
+     * Answers feed the analyses of their question and the creator's question overview; only those
+     * cache scopes are invalidated
+     */
+    private void invalidateAnalyses(Question question) {
+        if (question == null) {
+            return;
         }
-        answerRepository.deleteById(id);
+        Long questionId = question.getId();
+        String creator = question.getUser() != null ? question.getUser().getUserName() : null;
+        cacheGenerations.afterCommit(() -> {
+            cacheGenerations.bumpQuestion(questionId);
+            cacheGenerations.bumpUser(creator);
+        });
     }
 
     private AnswerDto toDto(Answer answer) {
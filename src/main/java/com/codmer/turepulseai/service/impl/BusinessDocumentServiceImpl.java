@@ -1,55 +1,100 @@
 package com.codmer.turepulseai.service.impl;
 
+import com.codmer.turepulseai.config.BatchSearchProperties;
+import com.codmer.turepulseai.config.ContextProperties;
+import com.codmer.turepulseai.config.VectorSearchProperties;
 import com.codmer.turepulseai.entity.BusinessDocument;
-import com.codmer.turepulseai.entity.BusinessDocumentChunk;
 import com.codmer.turepulseai.entity.User;
+import com.codmer.turepulseai.model.DocumentBatchSearchRequest;
+import com.codmer.turepulseai.model.DocumentBatchSearchResult;
+import com.codmer.turepulseai.model.DocumentSearchMetadata;
 import com.codmer.turepulseai.model.DocumentSearchRequest;
 import com.codmer.turepulseai.model.DocumentSearchResponse;
+import com.codmer.turepulseai.model.DocumentStatusResponse;
 import com.codmer.turepulseai.model.DocumentUploadResponse;
+import com.codmer.turepulseai.model.VectorQuantizationReport;
 import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepositoryCustom.ChunkText;
 import com.codmer.turepulseai.repository.BusinessDocumentRepository;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkHit;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
 import com.codmer.turepulseai.repository.UserRepository;
 import com.codmer.turepulseai.service.BusinessDocumentService;
+import com.codmer.turepulseai.service.CacheGenerations;
+import com.codmer.turepulseai.service.ContextAssembler;
+import com.codmer.turepulseai.service.ContextAssembler.AssembledContext;
+import com.codmer.turepulseai.service.ContextAssembler.ContextPiece;
 import com.codmer.turepulseai.service.EmbeddingCacheService;
-import com.codmer.turepulseai.util.DocumentChunker;
-import com.codmer.turepulseai.util.DocumentTextExtractor;
+import com.codmer.turepulseai.service.IntentRouter;
+import com.codmer.turepulseai.service.LocalChunkIndex;
+import com.codmer.turepulseai.service.MenuCatalogService;
+import com.codmer.turepulseai.service.MenuCatalogService.MenuCatalog;
+import com.codmer.turepulseai.service.SemanticAnswerCache;
+import com.codmer.turepulseai.service.VectorQuantizationBenchmark;
+import com.codmer.turepulseai.util.LlmJsonParser;
+import com.codmer.turepulseai.util.MenuItemMatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class BusinessDocumentServiceImpl implements BusinessDocumentService {
 
-    private static final int DEFAULT_TOP_K = 5;
+    // Upper bound for one streamed answer, including retrieval
+    private static final long STREAM_TIMEOUT_MS = 120_000;
 
     private final BusinessDocumentRepository businessDocumentRepository;
     private final BusinessDocumentChunkRepository businessDocumentChunkRepository;
     private final UserRepository userRepository;
-    private final DocumentTextExtractor documentTextExtractor;
-    private final DocumentChunker documentChunker;
     private final EmbeddingCacheService embeddingCacheService;
-    private final EmbeddingService embeddingService;
+    private final LocalChunkIndex localChunkIndex;
+    private final IntentRouter intentRouter;
+    private final MenuCatalogService menuCatalogService;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final DocumentIngestionWorker documentIngestionWorker;
     private final ChatClient chatClient;
+    private final CacheManager cacheManager;
+    private final CacheGenerations cacheGenerations;
+    private final VectorSearchProperties vectorSearchProperties;
+    private final ContextAssembler contextAssembler;
+    private final ContextProperties contextProperties;
+    private final VectorQuantizationBenchmark vectorQuantizationBenchmark;
+    private final BatchSearchProperties batchSearchProperties;
+    @Qualifier("ragBatchExecutor")
+    private final ThreadPoolTaskExecutor ragBatchExecutor;
+    private final ObjectMapper objectMapper;
 
     @Override
-    @CacheEvict(value = "ragAnswers", allEntries = true, beforeInvocation = false)
     public DocumentUploadResponse uploadDocument(MultipartFile file, Long entityId, String displayName) {
         if (file == null || file.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "document file is required");
@@ -75,56 +120,64 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
         document.setFileName(file.getOriginalFilename());
         document.setFileType(file.getContentType());
         document.setFileSize(file.getSize());
-        document.setStatus("PROCESSING");
+        document.setStatus(DocumentIngestionWorker.STATUS_PROCESSING);
+        document.setChunksDone(0);
 
         BusinessDocument saved = businessDocumentRepository.save(document);
+        saved = stageAndSubmit(saved, file);
 
-        String text = documentTextExtractor.extractText(file);
-        List<DocumentChunker.Chunk> chunks = documentChunker.chunk(text);
+        return toUploadResponse(saved, "Document accepted for processing");
+    }
 
-        if (chunks.isEmpty()) {
-            saved.setStatus("EMPTY");
-            businessDocumentRepository.save(saved);
-            return DocumentUploadResponse.builder()
-                    .documentId(saved.getId())
-                    .businessId(saved.getBusinessId())
-                    .entityId(saved.getEntityId())
-                    .displayName(saved.getDisplayName())
-                    .title(saved.getTitle())
-                    .status(saved.getStatus())
-                    .message("No text content found in document")
-                    .build();
-        }
-
-        int dimension = embeddingCacheService.dimensions();
-
-        final int finalDimension = dimension;
-        for (DocumentChunker.Chunk chunk : chunks) {
-            BusinessDocumentChunk entity = new BusinessDocumentChunk();
-            entity.setDocumentId(saved.getId());
-            entity.setBusinessId(saved.getBusinessId());
-            entity.setEntityId(saved.getEntityId());
-            entity.setDisplayName(saved.getDisplayName());
-            entity.setChunkIndex(chunk.getIndex());
-            entity.setContent(chunk.getContent());
-            entity.setPrevContent(chunk.getPrevContent());
-            entity.setNextContent(chunk.getNextContent());
-            entity.setEmbeddingDimension(finalDimension);
-
-            // Use EmbeddingService to generate embedding and store chunk
-            try {
-                embeddingService.embedAndStoreChunk(entity);
-            } catch (Exception e) {
-                log.warn("Failed to generate embedding for chunk " + chunk.getIndex() +
-                        ". Check your OpenAI API quota and key. Saving chunk without embedding...", e);
-                // Save chunk without embedding
-                businessDocumentChunkRepository.save(entity);
-            }
+    @Override
+    public DocumentUploadResponse replaceDocument(Long documentId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "document file is required");
         }
 
-        saved.setStatus("READY");
-        businessDocumentRepository.save(saved);
+        User user = fetchUser();
+        BusinessDocument document = businessDocumentRepository.findById(documentId)
+                .filter(doc -> doc.getBusinessId().equals(user.getUserName()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not found"));
+        if (DocumentIngestionWorker.STATUS_PROCESSING.equals(document.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Document is still being processed. Please try again once it is ready.");
+        }
 
+        // Existing chunks stay searchable until the new version is indexed; only changed chunks are re-embedded
+        document.setTitle(file.getOriginalFilename());
+        document.setFileName(file.getOriginalFilename());
+        document.setFileType(file.getContentType());
+        document.setFileSize(file.getSize());
+        document.setStatus(DocumentIngestionWorker.STATUS_PROCESSING);
+        document.setChunksTotal(null);
+        document.setChunksDone(0);
+        document.setErrorMessage(null);
+
+        BusinessDocument saved = businessDocumentRepository.save(document);
+        saved = stageAndSubmit(saved, file);
+
+        return toUploadResponse(saved, "Document replacement accepted for processing");
+    }
+
+    private BusinessDocument stageAndSubmit(BusinessDocument saved, MultipartFile file) {
+        saved.setStoragePath(documentIngestionWorker.stageUpload(file, saved.getId()).toString());
+        saved = businessDocumentRepository.save(saved);
+
+        try {
+            documentIngestionWorker.submit(saved.getId());
+        } catch (TaskRejectedException e) {
+            log.warn("Ingestion queue is full; rejecting document {}", saved.getId());
+            saved.setStatus(DocumentIngestionWorker.STATUS_FAILED);
+            saved.setErrorMessage("Ingestion queue is full");
+            businessDocumentRepository.save(saved);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many documents are being processed. Please try again shortly.");
+        }
+        return saved;
+    }
+
+    private DocumentUploadResponse toUploadResponse(BusinessDocument saved, String message) {
         return DocumentUploadResponse.builder()
                 .documentId(saved.getId())
                 .businessId(saved.getBusinessId())
@@ -132,30 +185,57 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
                 .displayName(saved.getDisplayName())
                 .title(saved.getTitle())
                 .status(saved.getStatus())
-                .message("Document processed and indexed")
+                .message(message)
+                .statusUrl("/api/business-documents/" + saved.getId() + "/status")
                 .build();
     }
 
     @Override
-    @Transactional(readOnly = true)
-    @Cacheable(value = "ragAnswers",
-               key = "#request.entityId + '_' + #request.displayName + '_' + #request.query.hashCode()")
-    public DocumentSearchResponse searchDocuments(DocumentSearchRequest request) {
-        if (request == null || request.getEntityId() == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "entityId is required");
-        }
-        if (request.getDisplayName() == null || request.getDisplayName().trim().isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "displayName is required");
-        }
-        if (request.getQuery() == null || request.getQuery().trim().isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "query is required");
+    public DocumentStatusResponse getDocumentStatus(Long documentId) {
+        User user = fetchUser();
+        BusinessDocument document = businessDocumentRepository.findById(documentId)
+                .filter(doc -> doc.getBusinessId().equals(user.getUserName()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not found"));
+
+        return DocumentStatusResponse.builder()
+                .documentId(document.getId())
+                .title(document.getTitle())
+                .status(document.getStatus())
+                .chunksDone(document.getChunksDone())
+                .chunksTotal(document.getChunksTotal())
+                .message(document.getErrorMessage())
+                .updatedAt(document.getUpdatedAt())
+                .build();
+    }
+
+    @Override
+    public VectorQuantizationReport quantizationReport(Long entityId, String displayName, int samples, int topK) {
+        if (entityId == null || displayName == null || displayName.trim().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "entityId and displayName are required");
         }
+        User user = fetchUser();
+        return vectorQuantizationBenchmark.run(user.getUserName(), entityId, displayName.trim(), samples, topK);
+    }
+
+    @Override
+    public DocumentSearchResponse searchDocuments(DocumentSearchRequest request) {
+        validateSearchRequest(request);
 
         User user = fetchUser();
         String businessId = user.getUserName();
 
+        // Key is taken before answering: if the entity's documents change meanwhile, this answer lands under
+        // the old generation and is never served
+        Cache cache = cacheManager.getCache("ragAnswers");
+        String cacheKey = ragAnswerCacheKey(request, businessId);
+        DocumentSearchResponse cached = cache != null ? cache.get(cacheKey, DocumentSearchResponse.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+
         // Step 1: Check if this is an order placement query
-        boolean isOrderQuery = isPlaceOrderQuery(request.getQuery());
+        // Rules and prototype embeddings settle most queries; only uncertain ones cost a chat completion
+        boolean isOrderQuery = intentRouter.isOrderRequest(request.getQuery());
 
         String answer;
         if (isOrderQuery) {
@@ -164,23 +244,365 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
                                          request.getDisplayName().trim(), request.getQuery());
         } else {
             // Step 3: Handle general question flow (existing logic)
-            int topK = request.getTopK() != null && request.getTopK() > 0 ? request.getTopK() : DEFAULT_TOP_K;
             float[] embedding = embeddingCacheService.embed(request.getQuery());
-            String embeddingLiteral = formatEmbeddingForPostgres(embedding);
+            // A near-duplicate of an earlier question reuses its answer without retrieval or generation
+            Optional<String> similar = semanticAnswerCache.find(businessId, request.getEntityId(),
+                    request.getDisplayName().trim(), answerVariant(request), embedding);
+            if (similar.isPresent()) {
+                answer = similar.get();
+            } else {
+                RetrievedContext context = retrieveContext(request, businessId, embedding);
+                answer = chatClient.prompt(buildRagPrompt(request.getQuery(), context.chunks())).call().content();
+                semanticAnswerCache.put(businessId, request.getEntityId(), request.getDisplayName().trim(),
+                        answerVariant(request), embedding, answer);
+            }
+        }
+
+        DocumentSearchResponse response = toSearchResponse(request, businessId, answer);
+        if (cache != null) {
+            cache.put(cacheKey, response);
+        }
+        return response;
+    }
+
+    @Override
+    public SseEmitter streamSearchDocuments(DocumentSearchRequest request) {
+        validateSearchRequest(request);
+
+        User user = fetchUser();
+        String businessId = user.getUserName();
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+
+        // Answers already produced by either endpoint are replayed as a single event
+        Cache cache = cacheManager.getCache("ragAnswers");
+        String cacheKey = ragAnswerCacheKey(request, businessId);
+        DocumentSearchResponse cached = cache != null ? cache.get(cacheKey, DocumentSearchResponse.class) : null;
+        if (cached != null) {
+            sendAndComplete(emitter, cached);
+            return emitter;
+        }
+
+        if (intentRouter.isOrderRequest(request.getQuery())) {
+            // Order replies are short, fixed templates; there is nothing to stream
+            String answer = handleOrderPlacement(businessId, request.getEntityId(),
+                    request.getDisplayName().trim(), request.getQuery());
+            DocumentSearchResponse response = toSearchResponse(request, businessId, answer);
+            if (cache != null) {
+                cache.put(cacheKey, response);
+            }
+            sendAndComplete(emitter, response);
+            return emitter;
+        }
+
+        float[] embedding = embeddingCacheService.embed(request.getQuery());
+        Optional<String> similar = semanticAnswerCache.find(businessId, request.getEntityId(),
+                request.getDisplayName().trim(), answerVariant(request), embedding);
+        if (similar.isPresent()) {
+            DocumentSearchResponse response = toSearchResponse(request, businessId, similar.get());
+            if (cache != null) {
+                cache.put(cacheKey, response);
+            }
+            sendAndComplete(emitter, response);
+            return emitter;
+        }
+
+        // Retrieval runs on the request thread; the metadata event is flushed as soon as this method returns,
+        // so the first byte reaches the client after retrieval rather than after generation
+        RetrievedContext context = retrieveContext(request, businessId, embedding);
+        List<DocumentSearchMetadata.RetrievedChunk> retrieved = context.hits().stream()
+                .map(hit -> DocumentSearchMetadata.RetrievedChunk.builder()
+                        .chunkId(hit.id())
+                        .documentId(hit.documentId())
+                        .chunkIndex(hit.chunkIndex())
+                        .distance(hit.distance())
+                        .build())
+                .toList();
+        try {
+            emitter.send(SseEmitter.event().name("metadata").data(DocumentSearchMetadata.builder()
+                    .businessId(businessId)
+                    .entityId(request.getEntityId())
+                    .displayName(request.getDisplayName().trim())
+                    .query(request.getQuery())
+                    .chunks(retrieved)
+                    .build()));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        StringBuilder answer = new StringBuilder();
+        Disposable subscription = chatClient.prompt(buildRagPrompt(request.getQuery(), context.chunks()))
+                .stream()
+                .content()
+                .subscribe(token -> {
+                    answer.append(token);
+                    try {
+                        emitter.send(SseEmitter.event().name("token").data(token));
+                    } catch (IOException | IllegalStateException e) {
+                        // Client went away; the completion callback below cancels the generation
+                        emitter.completeWithError(e);
+                    }
+                }, error -> {
+                    log.error("Streaming answer failed for entityId {}: {}", request.getEntityId(), error.getMessage());
+                    try {
+                        emitter.send(SseEmitter.event().name("error").data("Failed to generate an answer"));
+                    } catch (IOException ignored) {
+                        // Client already gone
+                    }
+                    emitter.complete();
+                }, () -> {
+                    DocumentSearchResponse response = toSearchResponse(request, businessId, answer.toString());
+                    semanticAnswerCache.put(businessId, request.getEntityId(), request.getDisplayName().trim(),
+                            answerVariant(request), embedding, response.getAnswer());
+                    if (cache != null) {
+                        cache.put(cacheKey, response);
+                    }
+                    sendAndComplete(emitter, response);
+                });
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(error -> subscription.dispose());
+        return emitter;
+    }
+
+    @Override
+    public ResponseBodyEmitter streamBatchSearch(DocumentBatchSearchRequest batch) {
+        List<DocumentSearchRequest> requests = toSearchRequests(batch);
+
+        User user = fetchUser();
+        String businessId = user.getUserName();
+        String displayName = batch.getDisplayName().trim();
+        BatchResponse response = new BatchResponse(
+                new ResponseBodyEmitter(batchSearchProperties.getTimeoutMs()), objectMapper, requests.size());
+
+        // Step 1: Answers already cached are written straight away; order requests keep their own flow
+        Cache cache = cacheManager.getCache("ragAnswers");
+        List<BatchTask> tasks = new ArrayList<>();
+        List<Integer> questions = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            DocumentSearchRequest request = requests.get(i);
+            String cacheKey = ragAnswerCacheKey(request, businessId);
+            DocumentSearchResponse cached = cache != null ? cache.get(cacheKey, DocumentSearchResponse.class) : null;
+            if (cached != null) {
+                response.answered(i, request.getQuery(), cached.getAnswer(), true);
+            } else if (intentRouter.isOrderRequest(request.getQuery())) {
+                tasks.add(new BatchTask(i, request.getQuery(), () -> {
+                    String answer = handleOrderPlacement(businessId, request.getEntityId(), displayName,
+                            request.getQuery());
+                    if (cache != null) {
+                        cache.put(cacheKey, toSearchResponse(request, businessId, answer));
+                    }
+                    return answer;
+                }));
+            } else {
+                questions.add(i);
+            }
+        }
+
+        // Step 2: One embedding call for every remaining question; near-duplicates of earlier ones are reused
+        List<float[]> embeddings = embeddingCacheService.embedAll(
+                questions.stream().map(i -> requests.get(i).getQuery()).toList());
+        List<DocumentSearchRequest> toAnswer = new ArrayList<>();
+        List<float[]> toAnswerEmbeddings = new ArrayList<>();
+        List<Integer> toAnswerIndexes = new ArrayList<>();
+        for (int q = 0; q < questions.size(); q++) {
+            int index = questions.get(q);
+            DocumentSearchRequest request = requests.get(index);
+            Optional<String> similar = semanticAnswerCache.find(businessId, request.getEntityId(), displayName,
+                    answerVariant(request), embeddings.get(q));
+            if (similar.isPresent()) {
+                if (cache != null) {
+                    cache.put(ragAnswerCacheKey(request, businessId), toSearchResponse(request, businessId, similar.get()));
+                }
+                response.answered(index, request.getQuery(), similar.get(), true);
+            } else {
+                toAnswer.add(request);
+                toAnswerEmbeddings.add(embeddings.get(q));
+                toAnswerIndexes.add(index);
+            }
+        }
+
+        // Step 3: Retrieval for all of them in one round trip, then generation with bounded concurrency
+        List<RetrievedContext> contexts = retrieveContexts(toAnswer, businessId, toAnswerEmbeddings);
+        for (int q = 0; q < toAnswer.size(); q++) {
+            DocumentSearchRequest request = toAnswer.get(q);
+            float[] embedding = toAnswerEmbeddings.get(q);
+            RetrievedContext context = contexts.get(q);
+            String cacheKey = ragAnswerCacheKey(request, businessId);
+            tasks.add(new BatchTask(toAnswerIndexes.get(q), request.getQuery(), () -> {
+                String answer = chatClient.prompt(buildRagPrompt(request.getQuery(), context.chunks())).call().content();
+                semanticAnswerCache.put(businessId, request.getEntityId(), displayName, answerVariant(request),
+                        embedding, answer);
+                if (cache != null) {
+                    cache.put(cacheKey, toSearchResponse(request, businessId, answer));
+                }
+                return answer;
+            }));
+        }
+        log.info("Batch search for entityId {}: {} queries, {} cached, {} to generate",
+                batch.getEntityId(), requests.size(), requests.size() - tasks.size(), tasks.size());
+
+        response.run(tasks, ragBatchExecutor, batchSearchProperties.getMaxConcurrentAnswers());
+        return response.emitter();
+    }
+
+    /**
+     * One single-search request per query, so the batch shares cache keys and answer variants with
+     * /public/search
+     */
+    private List<DocumentSearchRequest> toSearchRequests(DocumentBatchSearchRequest batch) {
+        if (batch == null || batch.getQueries() == null || batch.getQueries().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "queries are required");
+        }
+        if (batch.getQueries().size() > batchSearchProperties.getMaxQueries()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + batchSearchProperties.getMaxQueries() + " queries per batch");
+        }
+        List<DocumentSearchRequest> requests = new ArrayList<>(batch.getQueries().size());
+        for (String query : batch.getQueries()) {
+            DocumentSearchRequest request = new DocumentSearchRequest();
+            request.setEntityId(batch.getEntityId());
+            request.setDisplayName(batch.getDisplayName());
+            request.setQuery(query);
+            request.setTopK(batch.getTopK());
+            request.setExpandContext(batch.getExpandContext());
+            validateSearchRequest(request);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private record BatchTask(int index, String query, Supplier<String> answer) {
+    }
 
-            List<Object[]> rows = businessDocumentChunkRepository.findSimilarChunksByEntityAndBusiness(
-                    businessId, request.getEntityId(), request.getDisplayName().trim(), embeddingLiteral, topK);
+    /**
+     * Newline-delimited JSON written from whichever thread finishes an answer. At most maxConcurrent of the
+     * batch's generations are on the executor at once; each finished one starts the next. The response
+     * completes after the last line, and generations not yet started are skipped once the client is gone.
+     */
+    private static final class BatchResponse {
+        private final ResponseBodyEmitter emitter;
+        private final ObjectMapper objectMapper;
+        private final AtomicInteger pending;
+        private final AtomicInteger next = new AtomicInteger();
+        private volatile boolean closed;
+        private List<BatchTask> tasks = List.of();
+        private Executor executor;
+
+        private BatchResponse(ResponseBodyEmitter emitter, ObjectMapper objectMapper, int total) {
+            this.emitter = emitter;
+            this.objectMapper = objectMapper;
+            this.pending = new AtomicInteger(total);
+            emitter.onCompletion(() -> closed = true);
+            emitter.onTimeout(() -> closed = true);
+            emitter.onError(error -> closed = true);
+        }
 
-            List<String> contextChunks = new ArrayList<>();
-            for (Object[] row : rows) {
-                if (row.length > 4 && row[4] != null) {
-                    contextChunks.add((String) row[4]);
+        private ResponseBodyEmitter emitter() {
+            return emitter;
+        }
+
+        private void answered(int index, String query, String answer, boolean cached) {
+            write(DocumentBatchSearchResult.builder().index(index).query(query).answer(answer).cached(cached).build());
+        }
+
+        private void failed(int index, String query, String error) {
+            write(DocumentBatchSearchResult.builder().index(index).query(query).error(error).build());
+        }
+
+        private void run(List<BatchTask> tasks, Executor executor, int maxConcurrent) {
+            this.tasks = tasks;
+            this.executor = executor;
+            for (int i = 0; i < Math.min(Math.max(1, maxConcurrent), tasks.size()); i++) {
+                startNext();
+            }
+        }
+
+        private void startNext() {
+            int i = next.getAndIncrement();
+            if (i >= tasks.size()) {
+                return;
+            }
+            BatchTask task = tasks.get(i);
+            try {
+                executor.execute(() -> {
+                    generate(task);
+                    startNext();
+                });
+            } catch (TaskRejectedException e) {
+                log.warn("Batch generation queue is full; skipping query {}", task.index());
+                failed(task.index(), task.query(), "Server is busy, try again later");
+                startNext();
+            }
+        }
+
+        private void generate(BatchTask task) {
+            if (closed) {
+                countDown();
+                return;
+            }
+            try {
+                answered(task.index(), task.query(), task.answer().get(), false);
+            } catch (RuntimeException e) {
+                log.error("Batch answer {} failed: {}", task.index(), e.getMessage());
+                failed(task.index(), task.query(), "Failed to generate an answer");
+            }
+        }
+
+        private void write(DocumentBatchSearchResult result) {
+            synchronized (this) {
+                if (!closed) {
+                    try {
+                        emitter.send(objectMapper.writeValueAsString(result) + "\n", MediaType.APPLICATION_NDJSON);
+                    } catch (IOException | IllegalStateException e) {
+                        closed = true;
+                        emitter.completeWithError(e);
+                    }
                 }
             }
+            countDown();
+        }
 
-            answer = generateRagAnswer(request.getQuery(), contextChunks);
+        private void countDown() {
+            if (pending.decrementAndGet() == 0 && !closed) {
+                emitter.complete();
+            }
         }
+    }
+
+    /**
+     * The query is keyed by its SHA-256 (over the same normalized text the embedding cache uses), not by
+     * String.hashCode, whose 32-bit collisions would hand one question another question's cached answer
+     */
+    private String ragAnswerCacheKey(DocumentSearchRequest request, String businessId) {
+        return businessId + "_" + request.getEntityId()
+                + "_g" + cacheGenerations.entity(businessId, request.getEntityId())
+                + "_" + request.getDisplayName() + "_" + EmbeddingCacheService.cacheKey(request.getQuery())
+                + "_" + answerVariant(request);
+    }
 
+    private void sendAndComplete(SseEmitter emitter, DocumentSearchResponse response) {
+        try {
+            emitter.send(SseEmitter.event().name("answer").data(response));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void validateSearchRequest(DocumentSearchRequest request) {
+        if (request == null || request.getEntityId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "entityId is required");
+        }
+        if (request.getDisplayName() == null || request.getDisplayName().trim().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "displayName is required");
+        }
+        if (request.getQuery() == null || request.getQuery().trim().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "query is required");
+        }
+    }
+
+    private DocumentSearchResponse toSearchResponse(DocumentSearchRequest request, String businessId, String answer) {
         return DocumentSearchResponse.builder()
                 .businessId(businessId)
                 .entityId(request.getEntityId())
@@ -190,26 +612,103 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
                 .build();
     }
 
+    private record RetrievedContext(List<ChunkHit> hits, List<String> chunks) {
+    }
+
+    private int resolveTopK(DocumentSearchRequest request) {
+        return request.getTopK() != null && request.getTopK() > 0
+                ? Math.min(request.getTopK(), vectorSearchProperties.getMaxTopK())
+                : vectorSearchProperties.getDefaultTopK();
+    }
+
     /**
-     * Detect if the query is about placing an order
+     * Request options that change the answer to the same question; semantic cache hits must agree on them
      */
-    private boolean isPlaceOrderQuery(String query) {
-        String systemPrompt = """
-                Classify whether the customer request is about placing a food order.
-                Respond with only 'true' or 'false'.
-                """;
+    private String answerVariant(DocumentSearchRequest request) {
+        return resolveTopK(request) + ":" + Boolean.TRUE.equals(request.getExpandContext());
+    }
 
-        String userPrompt = """
-                Request: %s
-                """.formatted(query);
+    private RetrievedContext retrieveContext(DocumentSearchRequest request, String businessId, float[] embedding) {
+        ChunkSearch search = chunkSearch(request, businessId, embedding);
+        // Hybrid retrieval keeps exact-term matches (dish names, SKUs) in a small top-k
+        // Warm entities are answered from the in-process index without touching the connection pool
+        List<ChunkHit> hits = vectorSearchProperties.isHybridEnabled()
+                ? localChunkIndex.findHybrid(search, request.getQuery())
+                        .orElseGet(() -> businessDocumentChunkRepository.findHybridChunks(search, request.getQuery()))
+                : localChunkIndex.findNearest(search)
+                        .orElseGet(() -> businessDocumentChunkRepository.findNearestChunks(search));
+        return assembleContext(request, businessId, hits);
+    }
 
-        Prompt prompt = new Prompt(List.of(
-                new SystemMessage(systemPrompt),
-                new UserMessage(userPrompt)
-        ));
+    /**
+     * Retrieval for a batch of questions about the same entity. A warm entity is served per query from the
+     * in-process index, exactly like a single search; otherwise every query is answered by one LATERAL
+     * statement. That statement is vector-only: the full-text half of hybrid retrieval needs each query's text
+     * as its own CTE and would undo the single round trip.
+     */
+    private List<RetrievedContext> retrieveContexts(List<DocumentSearchRequest> requests, String businessId,
+                                                    List<float[]> embeddings) {
+        List<RetrievedContext> contexts = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return contexts;
+        }
+        ChunkSearch first = chunkSearch(requests.get(0), businessId, embeddings.get(0));
+        boolean warm = vectorSearchProperties.isHybridEnabled()
+                ? localChunkIndex.findHybrid(first, requests.get(0).getQuery()).isPresent()
+                : localChunkIndex.findNearest(first).isPresent();
+        if (warm) {
+            for (int i = 0; i < requests.size(); i++) {
+                contexts.add(retrieveContext(requests.get(i), businessId, embeddings.get(i)));
+            }
+            return contexts;
+        }
 
-        String response = chatClient.prompt(prompt).call().content();
-        return parseBooleanResponse(response);
+        List<List<ChunkHit>> hits = businessDocumentChunkRepository.findNearestChunksBatch(first, embeddings);
+        for (int i = 0; i < requests.size(); i++) {
+            contexts.add(assembleContext(requests.get(i), businessId, hits.get(i)));
+        }
+        return contexts;
+    }
+
+    private ChunkSearch chunkSearch(DocumentSearchRequest request, String businessId, float[] embedding) {
+        return new ChunkSearch(businessId, request.getEntityId(), request.getDisplayName().trim(),
+                embedding, resolveTopK(request), vectorSearchProperties.getMaxDistance());
+    }
+
+    private RetrievedContext assembleContext(DocumentSearchRequest request, String businessId, List<ChunkHit> hits) {
+        // Adjacent hits are merged without their repeated overlap and the result is capped at the token budget
+        AssembledContext assembled = Boolean.TRUE.equals(request.getExpandContext())
+                ? contextAssembler.assemble(expandWithNeighbors(businessId, hits), contextProperties.getMaxTokens())
+                : contextAssembler.assembleHits(hits, contextProperties.getMaxTokens());
+        return new RetrievedContext(hits, assembled.blocks());
+    }
+
+    /**
+     * Widen each hit with the chunk before and after it. Neighbours are fetched for all hits in one query
+     * and take the rank of the hit they surround; the assembler merges the runs and drops repeated overlap.
+     */
+    private List<ContextPiece> expandWithNeighbors(String businessId, List<ChunkHit> hits) {
+        Map<String, Integer> hitRanks = new HashMap<>();
+        List<Long> hitIds = new ArrayList<>(hits.size());
+        for (int rank = 0; rank < hits.size(); rank++) {
+            ChunkHit hit = hits.get(rank);
+            hitRanks.putIfAbsent(hit.documentId() + ":" + hit.chunkIndex(), rank);
+            hitIds.add(hit.id());
+        }
+
+        List<ContextPiece> pieces = new ArrayList<>();
+        for (ChunkText chunk : businessDocumentChunkRepository.findWithNeighbors(businessId, hitIds)) {
+            int rank = Integer.MAX_VALUE;
+            for (int offset = -1; offset <= 1; offset++) {
+                Integer hitRank = hitRanks.get(chunk.documentId() + ":" + (chunk.chunkIndex() + offset));
+                if (hitRank != null) {
+                    rank = Math.min(rank, hitRank);
+                }
+            }
+            pieces.add(new ContextPiece(chunk.documentId(), chunk.chunkIndex(), chunk.content(),
+                    chunk.overlapChars(), rank));
+        }
+        return pieces;
     }
 
     /**
@@ -221,24 +720,30 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
         log.info("🛒 ORDER PLACEMENT REQUEST: {}", query);
         log.info("=" + "=".repeat(79));
 
-        // Step 1: Retrieve menu chunks from vector DB
-        List<String> menuChunks = retrieveMenuChunks(businessId, entityId, displayName);
-
-        if (menuChunks.isEmpty()) {
-            log.warn("❌ No menu chunks found for entity: {}", entityId);
-            return "Sorry, menu information is not available at the moment. Please try again later.";
-        }
+        // Step 1-2: Use the menu catalog built at ingestion; derive it from the chunks only if it does not exist yet
+        MenuCatalog catalog = menuCatalogService.find(businessId, entityId).orElse(null);
+        if (catalog != null) {
+            log.info("📋 Using materialized menu catalog: {} items", catalog.names().size());
+        } else {
+            List<ChunkHit> menuChunks = retrieveMenuChunks(businessId, entityId, displayName);
 
-        String menuText = String.join("\n\n", menuChunks);
-        log.info("📋 Menu text retrieved: {} characters", menuText.length());
+            if (menuChunks.isEmpty()) {
+                log.warn("❌ No menu chunks found for entity: {}", entityId);
+                return "Sorry, menu information is not available at the moment. Please try again later.";
+            }
 
-        // Step 2: Extract menu items from menu text
-        List<String> menuItems = extractMenuItems(menuText);
-        if (menuItems.isEmpty()) {
+            AssembledContext menuContext = contextAssembler.assembleHits(menuChunks, contextProperties.getMenuMaxTokens());
+            String menuText = menuContext.text();
+            log.info("📋 Menu text retrieved: {} characters, {} tokens ({} saved)",
+                    menuText.length(), menuContext.tokens(), menuContext.savedTokens());
+            catalog = MenuCatalog.of(menuCatalogService.extractMenuItems(menuText));
+        }
+        if (catalog.isEmpty()) {
             log.error("❌ Failed to extract any menu items from menu text!");
             return "Sorry, I couldn't understand the menu. Please try again later.";
         }
-        log.info("✓ Extracted {} unique menu items: {}", menuItems.size(), menuItems);
+        List<String> menuItems = catalog.names();
+        log.info("✓ {} unique menu items: {}", menuItems.size(), menuItems);
 
         // Step 3: Extract requested items from query
         List<String> requestedItems = extractRequestedItems(query);
@@ -250,7 +755,7 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
         }
 
         // Step 4: Check availability - STRICT: If ANY items are missing, reject the order
-        List<String> missingItems = checkAvailability(menuItems, requestedItems);
+        List<String> missingItems = checkAvailability(catalog, requestedItems);
         log.info("🔍 Availability check complete: {} missing out of {}", missingItems.size(), requestedItems.size());
 
         // Step 5: If ANY items are missing, inform user and DON'T place order
@@ -296,50 +801,13 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
     /**
      * Retrieve menu chunks from vector DB
      */
-    private List<String> retrieveMenuChunks(String businessId, Long entityId, String displayName) {
+    private List<ChunkHit> retrieveMenuChunks(String businessId, Long entityId, String displayName) {
         // Embed "menu" query to find menu-related chunks
         float[] menuEmbedding = embeddingCacheService.embed("menu items prices food available");
-        String embeddingLiteral = formatEmbeddingForPostgres(menuEmbedding);
 
-        List<Object[]> rows = businessDocumentChunkRepository.findSimilarChunksByEntityAndBusiness(
-                businessId, entityId, displayName, embeddingLiteral, 10);
-
-        List<String> menuChunks = new ArrayList<>();
-        for (Object[] row : rows) {
-            if (row.length > 4 && row[4] != null) {
-                menuChunks.add((String) row[4]);
-            }
-        }
-        return menuChunks;
-    }
-
-    /**
-     * Extract menu items from menu text using LLM
-     */
-    private List<String> extractMenuItems(String menuText) {
-        String systemPrompt = """
-                Extract all distinct menu items from the menu text.
-                Include all variations and item names mentioned.
-                Return ONLY a JSON array of item names.
-                Example: ["Pizza", "Burger", "Salad", "Sambar Fish", "Fish Fry"]
-                """;
-
-        String userPrompt = """
-                Menu Text:
-                %s
-                
-                Extract ALL menu items. Be comprehensive and include all food items mentioned.
-                """.formatted(menuText);
-
-        Prompt prompt = new Prompt(List.of(
-                new SystemMessage(systemPrompt),
-                new UserMessage(userPrompt)
-        ));
-
-        String response = chatClient.prompt(prompt).call().content();
-        List<String> items = parseJsonList(response);
-        log.debug("Extracted menu items: {}", items);
-        return items;
+        ChunkSearch search = new ChunkSearch(businessId, entityId, displayName, menuEmbedding, 10, null);
+        return localChunkIndex.findNearest(search)
+                .orElseGet(() -> businessDocumentChunkRepository.findNearestChunks(search));
     }
 
     /**
@@ -366,61 +834,32 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
         ));
 
         String response = chatClient.prompt(prompt).call().content();
-        List<String> items = parseJsonList(response);
+        List<String> items = LlmJsonParser.parseStringList(response);
         log.debug("Extracted requested items: {}", items);
         return items;
     }
 
     /**
-     * Check which requested items are missing from menu using fuzzy matching
+     * Check which requested items are missing from menu using the catalog's fuzzy matcher
      * STRICT MODE: If ANY items are missing, they are reported
      */
-    private List<String> checkAvailability(List<String> menuItems, List<String> requestedItems) {
-        log.debug("Menu items: {}", menuItems);
+    private List<String> checkAvailability(MenuCatalog catalog, List<String> requestedItems) {
         log.debug("Requested items: {}", requestedItems);
 
-        // Normalize menu items for comparison
-        List<String> normalizedMenuItems = menuItems.stream()
-                .map(this::normalizeItem)
-                .toList();
-        log.info("Normalized menu items: {}", normalizedMenuItems);
-
         List<String> missingItems = new ArrayList<>();
 
         for (String requestedItem : requestedItems) {
-            String normalizedRequested = normalizeItem(requestedItem);
-            boolean found = false;
-            String matchedWith = null;
-
-            // Step 1: Try exact match first (strict)
-            for (String normalizedMenu : normalizedMenuItems) {
-                if (normalizedMenu.equals(normalizedRequested)) {
-                    found = true;
-                    matchedWith = normalizedMenu;
-                    log.info("✓ EXACT match found for: '{}' in menu item: '{}'", requestedItem, normalizedMenu);
-                    break;
-                }
-            }
-
-            // Step 2: If no exact match, try fuzzy matching (typo tolerance only)
-            if (!found) {
-                for (String normalizedMenu : normalizedMenuItems) {
-                    if (isSimilarItem(normalizedRequested, normalizedMenu)) {
-                        found = true;
-                        matchedWith = normalizedMenu;
-                        log.info("✓ FUZZY match found for: '{}' in menu item: '{}'", requestedItem, normalizedMenu);
-                        break;
-                    }
-                }
-            }
+            String normalizedRequested = MenuCatalogService.normalize(requestedItem);
+            // Exact matches first, then typo-tolerant matches ranked by score
+            Optional<MenuItemMatcher.Match> match = catalog.matcher().bestMatch(normalizedRequested);
 
-            // Step 3: Log missing items with context
-            if (!found) {
+            if (match.isEmpty()) {
                 log.warn("✗ Item NOT found in menu: '{}' (normalized: '{}')", requestedItem, normalizedRequested);
-                log.debug("Searched against menu items: {}", normalizedMenuItems);
                 missingItems.add(requestedItem);
             } else {
-                log.info("Item '{}' CONFIRMED available (matched: '{}')", requestedItem, matchedWith);
+                log.info("✓ {} match found for: '{}' in menu item: '{}' (score {})",
+                        match.get().exact() ? "EXACT" : "FUZZY", requestedItem, match.get().item(),
+                        String.format("%.2f", match.get().score()));
             }
         }
 
@@ -431,141 +870,7 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
         return missingItems;
     }
 
-    /**
-     * Fuzzy match two items - STRICT MODE
-     * Only matches if items are substantially similar (same word composition)
-     * Handles typos in individual words but NOT word addition/removal
-     */
-    private boolean isSimilarItem(String requested, String menuItem) {
-        // STRICT: Exact match takes priority
-        if (requested.equals(menuItem)) {
-            return true;
-        }
-
-        String[] requestedWords = requested.split("\\s+");
-        String[] menuWords = menuItem.split("\\s+");
-
-        // STRICT: Must have same number of words or very close
-        // Allow ±1 word difference for typos, but not complete word removal
-        if (Math.abs(requestedWords.length - menuWords.length) > 1) {
-            log.debug("Word count mismatch: '{}' ({} words) vs '{}' ({} words)",
-                    requested, requestedWords.length, menuItem, menuWords.length);
-            return false;
-        }
-
-        // Match words one-by-one (accounting for typos)
-        int exactMatches = 0;
-        int typoMatches = 0;
-        int totalWords = Math.max(requestedWords.length, menuWords.length);
-
-        for (int i = 0; i < Math.min(requestedWords.length, menuWords.length); i++) {
-            String rWord = requestedWords[i];
-            String mWord = menuWords[i];
-
-            if (rWord.equals(mWord)) {
-                exactMatches++;
-            } else if (areWordsSimilar(rWord, mWord)) {
-                typoMatches++;
-                log.debug("Typo match: '{}' vs '{}'", rWord, mWord);
-            } else {
-                log.debug("Word mismatch: '{}' vs '{}'", rWord, mWord);
-                return false; // Word mismatch means items are different
-            }
-        }
-
-        // STRICT: Require at least 80% match rate
-        double matchRate = (double) (exactMatches + typoMatches) / totalWords;
-        boolean isMatch = matchRate >= 0.8 && exactMatches >= Math.ceil(totalWords * 0.5);
-        log.debug("Match rate for '{}' vs '{}': {:.2f} (exact: {}, typo: {}, total: {})",
-                requested, menuItem, matchRate, exactMatches, typoMatches, totalWords);
-        return isMatch;
-    }
-
-    /**
-     * Check if two words are similar (handling typos)
-     * Levenshtein-like approach but simplified
-     */
-    private boolean areWordsSimilar(String word1, String word2) {
-        int len1 = word1.length();
-        int len2 = word2.length();
-
-        // Words must be at least 80% similar in length
-        double lengthRatio = (double) Math.min(len1, len2) / Math.max(len1, len2);
-        if (lengthRatio < 0.8) {
-            log.debug("Length ratio too low for '{}' vs '{}': {}", word1, word2, lengthRatio);
-            return false;
-        }
-
-        // Count character matches (simple Levenshtein approximation)
-        int matches = 0;
-        for (int i = 0; i < Math.min(len1, len2); i++) {
-            if (word1.charAt(i) == word2.charAt(i)) {
-                matches++;
-            }
-        }
-
-        // Require at least 75% character match
-        double charMatchRate = (double) matches / Math.max(len1, len2);
-        log.debug("Character match for '{}' vs '{}': {:.2f}", word1, word2, charMatchRate);
-        return charMatchRate >= 0.75;
-    }
-
-    /**
-     * Normalize item name for comparison
-     */
-    private String normalizeItem(String item) {
-        return item.toLowerCase().trim().replaceAll("\\s+", " ");
-    }
-
-    /**
-     * Parse boolean response from LLM
-     */
-    private boolean parseBooleanResponse(String response) {
-        if (response == null) {
-            return false;
-        }
-        String normalized = response.toLowerCase().trim();
-        return normalized.contains("true") || normalized.contains("yes");
-    }
-
-    /**
-     * Parse JSON list from LLM response
-     */
-    private List<String> parseJsonList(String response) {
-        try {
-            // Clean response to extract JSON array
-            String cleaned = response.trim();
-            int start = cleaned.indexOf('[');
-            int end = cleaned.lastIndexOf(']');
-
-            if (start == -1 || end == -1 || start >= end) {
-                log.warn("No valid JSON array found in response: {}", response);
-                return List.of();
-            }
-
-            String jsonArray = cleaned.substring(start, end + 1);
-            log.debug("Extracted JSON array: {}", jsonArray);
-
-            // Simple parsing - extract items between quotes
-            List<String> items = new ArrayList<>();
-            String[] parts = jsonArray.split("\"");
-            for (int i = 1; i < parts.length; i += 2) {
-                String item = parts[i].trim();
-                if (!item.isEmpty()) {
-                    items.add(item);
-                    log.debug("Parsed item: '{}'", item);
-                }
-            }
-
-            log.info("Successfully parsed {} items from response", items.size());
-            return items;
-        } catch (Exception e) {
-            log.warn("Failed to parse JSON list from LLM response: {}", response, e);
-            return List.of();
-        }
-    }
-
-    private String generateRagAnswer(String query, List<String> contextChunks) {
+    private Prompt buildRagPrompt(String query, List<String> contextChunks) {
         String contextText = contextChunks.isEmpty()
                 ? "No relevant context found."
                 : String.join("\n\n", contextChunks);
@@ -583,29 +888,10 @@ public class BusinessDocumentServiceImpl implements BusinessDocumentService {
                 Provide a clear answer based only on the context above.
                 """.formatted(query, contextText);
 
-        Prompt prompt = new Prompt(List.of(
+        return new Prompt(List.of(
                 new SystemMessage(systemPrompt),
                 new UserMessage(userPrompt)
         ));
-
-        return chatClient.prompt(prompt).call().content();
-    }
-
-    /**
-     * Format embedding array as PostgreSQL vector literal
-     * Format: [1.0, 2.0, 3.0, ...]
-     */
-    private String formatEmbeddingForPostgres(float[] embedding) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("[");
-        for (int i = 0; i < embedding.length; i++) {
-            if (i > 0) {
-                builder.append(",");
-            }
-            builder.append(embedding[i]);
-        }
-        builder.append("]");
-        return builder.toString();
     }
 
     private User fetchUser() {
@@ -0,0 +1,237 @@
+package com.codmer.turepulseai.service.impl;
+
+import com.codmer.turepulseai.config.ImageJobProperties;
+import com.codmer.turepulseai.entity.BusinessImageJob;
+import com.codmer.turepulseai.model.BusinessImageContent;
+import com.codmer.turepulseai.model.BusinessImageGenerateRequest;
+import com.codmer.turepulseai.model.BusinessImageGenerateResponse.OverlaySpec;
+import com.codmer.turepulseai.model.BusinessImageJobResponse;
+import com.codmer.turepulseai.model.ImagePlan;
+import com.codmer.turepulseai.repository.BusinessImageJobRepository;
+import com.codmer.turepulseai.service.BusinessImageJobService;
+import com.codmer.turepulseai.service.BusinessImageService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BusinessImageJobServiceImpl implements BusinessImageJobService {
+
+    private static final int DEFAULT_VARIANTS = 2;
+
+    private static final TypeReference<List<OverlaySpec>> OVERLAY_LIST = new TypeReference<>() {
+    };
+
+    private final BusinessImageJobRepository businessImageJobRepository;
+    private final BusinessImageService businessImageService;
+    private final BusinessImageJobWorker businessImageJobWorker;
+    private final ObjectMapper objectMapper;
+    private final ImageJobProperties imageJobProperties;
+
+    @Override
+    public BusinessImageJobResponse submit(BusinessImageGenerateRequest request) {
+        businessImageService.validate(request, false);
+
+        BusinessImageJob job = new BusinessImageJob();
+        job.setUsername(currentUsername());
+        job.setEntityId(request.getEntityId());
+        job.setDisplayName(request.getDisplayName().trim());
+        job.setPrompt(request.getPrompt().trim());
+        job.setImageSize(request.getSize());
+        job.setForceNew(Boolean.TRUE.equals(request.getForceNew()));
+        job.setStatus(BusinessImageJobWorker.STATUS_PENDING);
+        BusinessImageJob saved = businessImageJobRepository.save(job);
+
+        try {
+            businessImageJobWorker.submit(saved.getId());
+        } catch (TaskRejectedException e) {
+            log.warn("Image job queue is full; rejecting job {}", saved.getId());
+            saved.setStatus(BusinessImageJobWorker.STATUS_FAILED);
+            saved.setErrorMessage("Image job queue is full");
+            businessImageJobRepository.save(saved);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many images are being generated. Please try again shortly.");
+        }
+        return toResponse(saved, "Image generation accepted");
+    }
+
+    @Override
+    public SseEmitter streamVariants(BusinessImageGenerateRequest request) {
+        int variants = request.getVariants() == null ? DEFAULT_VARIANTS : request.getVariants();
+        if (variants < 1 || variants > imageJobProperties.getMaxVariants()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "variants must be between 1 and " + imageJobProperties.getMaxVariants());
+        }
+        String username = currentUsername();
+
+        // Intent, overlays and RAG context once for all variants; only the image model call is repeated.
+        // Variants are meant to differ, so they neither read nor fill the generated image cache.
+        ImagePlan plan = businessImageService.plan(request, false);
+        plan.setCacheable(false);
+        String overlays = writeOverlays(plan.getOverlays());
+
+        List<BusinessImageJob> jobs = new ArrayList<>();
+        for (int i = 0; i < variants; i++) {
+            BusinessImageJob job = new BusinessImageJob();
+            job.setUsername(username);
+            job.setEntityId(plan.getEntityId());
+            job.setDisplayName(plan.getDisplayName());
+            job.setPrompt(request.getPrompt().trim());
+            job.setImageSize(request.getSize());
+            // Resumed after a restart through the ordinary job path, which must not collapse them into one cached image
+            job.setForceNew(true);
+            job.setRevisedPrompt(plan.getRevisedPrompt());
+            job.setOverlays(overlays);
+            job.setStatus(BusinessImageJobWorker.STATUS_PENDING);
+            jobs.add(job);
+        }
+        jobs = businessImageJobRepository.saveAll(jobs);
+
+        VariantStream stream = new VariantStream(new SseEmitter(imageJobProperties.getVariantsTimeoutMs()), variants);
+        stream.send("variants", jobs.stream().map(job -> toResponse(job, "Image generation accepted")).toList());
+        // Each image is pushed as soon as it is stored. A client that disconnects early can still fetch the rest
+        // through the status and image URLs from the first event.
+        for (BusinessImageJob job : jobs) {
+            businessImageJobWorker.submitVariant(username, job.getId(), plan,
+                    done -> stream.finished(toResponse(done != null ? done : job,
+                            done != null ? done.getErrorMessage() : "Image job not found")));
+        }
+        return stream.emitter;
+    }
+
+    @Override
+    public BusinessImageJobResponse getJob(Long jobId) {
+        BusinessImageJob job = findOwnJob(jobId);
+        return toResponse(job, job.getErrorMessage());
+    }
+
+    @Override
+    public BusinessImageContent getImage(Long jobId) {
+        BusinessImageJob job = findOwnJob(jobId);
+        if (!BusinessImageJobWorker.STATUS_READY.equals(job.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Image is not available (status " + job.getStatus() + ")");
+        }
+        Path stored = Paths.get(job.getStoragePath());
+        if (!Files.isReadable(stored)) {
+            log.warn("Image of job {} is missing at {}", jobId, stored);
+            throw new ResponseStatusException(HttpStatus.GONE, "Image is no longer stored; please generate it again");
+        }
+        return BusinessImageContent.builder()
+                .resource(new FileSystemResource(stored))
+                .mimeType(job.getMimeType())
+                .sizeBytes(job.getSizeBytes())
+                .etag(job.getSha256())
+                .build();
+    }
+
+    private BusinessImageJob findOwnJob(Long jobId) {
+        return businessImageJobRepository.findByIdAndUsername(jobId, currentUsername())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image job not found"));
+    }
+
+    private BusinessImageJobResponse toResponse(BusinessImageJob job, String message) {
+        boolean ready = BusinessImageJobWorker.STATUS_READY.equals(job.getStatus());
+        return BusinessImageJobResponse.builder()
+                .jobId(job.getId())
+                .entityId(job.getEntityId())
+                .displayName(job.getDisplayName())
+                .status(job.getStatus())
+                .message(message)
+                .statusUrl("/api/business-images/" + job.getId() + "/status")
+                .imageUrl(ready ? "/api/business-images/" + job.getId() : null)
+                .mimeType(job.getMimeType())
+                .sizeBytes(job.getSizeBytes())
+                .cached(job.getCached())
+                .overlays(readOverlays(job))
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+
+    private String writeOverlays(List<OverlaySpec> overlays) {
+        try {
+            return objectMapper.writeValueAsString(overlays);
+        } catch (Exception e) {
+            log.warn("Could not serialize overlays: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private List<OverlaySpec> readOverlays(BusinessImageJob job) {
+        if (job.getOverlays() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(job.getOverlays(), OVERLAY_LIST);
+        } catch (Exception e) {
+            log.warn("Unreadable overlays stored for image job {}: {}", job.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * SSE events of one variants request: "variants" with every job up front, one "variant" per finished image
+     * in completion order, then "done". Sends come from several generation threads and are serialized here.
+     */
+    private static final class VariantStream {
+        private final SseEmitter emitter;
+        private final AtomicInteger pending;
+        private volatile boolean closed;
+
+        private VariantStream(SseEmitter emitter, int total) {
+            this.emitter = emitter;
+            this.pending = new AtomicInteger(total);
+            emitter.onCompletion(() -> closed = true);
+            emitter.onTimeout(() -> closed = true);
+            emitter.onError(error -> closed = true);
+        }
+
+        private void finished(BusinessImageJobResponse variant) {
+            send("variant", variant);
+            if (pending.decrementAndGet() == 0) {
+                send("done", "done");
+                synchronized (this) {
+                    if (!closed) {
+                        closed = true;
+                        emitter.complete();
+                    }
+                }
+            }
+        }
+
+        private synchronized void send(String name, Object data) {
+            if (closed) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the generations keep running and stay available as jobs
+                closed = true;
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private String currentUsername() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+}
@@ -0,0 +1,268 @@
+package com.codmer.turepulseai.service.impl;
+
+import com.codmer.turepulseai.config.ImageJobProperties;
+import com.codmer.turepulseai.entity.BusinessImageJob;
+import com.codmer.turepulseai.model.BusinessImageGenerateRequest;
+import com.codmer.turepulseai.model.ImagePlan;
+import com.codmer.turepulseai.model.RenderedImage;
+import com.codmer.turepulseai.repository.BusinessImageJobRepository;
+import com.codmer.turepulseai.service.BusinessImageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs image generation off the request thread, so a 10–30 s image model call no longer holds a servlet
+ * thread. The BusinessImageJob row is the job; the finished image is written to app.image-jobs.storage-dir
+ * and served as raw bytes instead of Base64 inside JSON. Jobs still PENDING or RUNNING at startup are queued again.
+ */
+@Slf4j
+@Service
+public class BusinessImageJobWorker {
+
+    static final String STATUS_PENDING = "PENDING";
+    static final String STATUS_RUNNING = "RUNNING";
+    static final String STATUS_READY = "READY";
+    static final String STATUS_FAILED = "FAILED";
+
+    private record QueuedVariant(Long jobId, ImagePlan plan, Consumer<BusinessImageJob> onDone) {
+    }
+
+    private static final class UserQueue {
+        private int running;
+        private final Deque<QueuedVariant> waiting = new ArrayDeque<>();
+    }
+
+    private final BusinessImageJobRepository businessImageJobRepository;
+    private final BusinessImageService businessImageService;
+    private final ImageJobProperties imageJobProperties;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor imageGenerationExecutor;
+    // Variant generations per user; guarded by itself
+    private final Map<String, UserQueue> userQueues = new HashMap<>();
+
+    public BusinessImageJobWorker(BusinessImageJobRepository businessImageJobRepository,
+                                  BusinessImageService businessImageService,
+                                  ImageJobProperties imageJobProperties,
+                                  ObjectMapper objectMapper,
+                                  @Qualifier("imageGenerationExecutor") ThreadPoolTaskExecutor imageGenerationExecutor) {
+        this.businessImageJobRepository = businessImageJobRepository;
+        this.businessImageService = businessImageService;
+        this.imageJobProperties = imageJobProperties;
+        this.objectMapper = objectMapper;
+        this.imageGenerationExecutor = imageGenerationExecutor;
+    }
+
+    /**
+     * Queue a generation for the given job
+     *
+     * @throws TaskRejectedException when the job queue is full
+     */
+    public void submit(Long jobId) {
+        imageGenerationExecutor.execute(() -> process(jobId));
+    }
+
+    /**
+     * Jobs not finished at startup were interrupted by a crash or redeploy; queue them again
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        List<BusinessImageJob> pending = businessImageJobRepository.findByStatusIn(List.of(STATUS_PENDING, STATUS_RUNNING));
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.info("Resuming {} interrupted image generation jobs", pending.size());
+        for (BusinessImageJob job : pending) {
+            try {
+                submit(job.getId());
+            } catch (TaskRejectedException e) {
+                log.warn("Image job queue full; job {} will be resumed on next restart", job.getId());
+            }
+        }
+    }
+
+    /**
+     * Queue one variant of a planned generation behind the user's other variants. At most
+     * app.image-jobs.max-concurrent-per-user of them run at once; the image generation pool bounds all users
+     * together. {@code onDone} receives the job once it is READY or FAILED, on the generating thread.
+     */
+    public void submitVariant(String username, Long jobId, ImagePlan plan, Consumer<BusinessImageJob> onDone) {
+        synchronized (userQueues) {
+            userQueues.computeIfAbsent(username, key -> new UserQueue())
+                    .waiting.add(new QueuedVariant(jobId, plan, onDone));
+        }
+        startVariants(username);
+    }
+
+    private void startVariants(String username) {
+        List<QueuedVariant> starting = new ArrayList<>();
+        synchronized (userQueues) {
+            UserQueue queue = userQueues.get(username);
+            if (queue == null) {
+                return;
+            }
+            int limit = Math.max(1, imageJobProperties.getMaxConcurrentPerUser());
+            while (queue.running < limit && !queue.waiting.isEmpty()) {
+                starting.add(queue.waiting.poll());
+                queue.running++;
+            }
+            if (queue.running == 0) {
+                userQueues.remove(username);
+            }
+        }
+        for (QueuedVariant variant : starting) {
+            try {
+                imageGenerationExecutor.execute(() -> {
+                    try {
+                        variant.onDone().accept(processPlanned(variant.jobId(), variant.plan()));
+                    } finally {
+                        variantFinished(username);
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                log.warn("Image job queue is full; failing variant job {}", variant.jobId());
+                variant.onDone().accept(fail(variant.jobId(), "Image job queue is full"));
+                variantFinished(username);
+            }
+        }
+    }
+
+    private void variantFinished(String username) {
+        synchronized (userQueues) {
+            UserQueue queue = userQueues.get(username);
+            if (queue != null) {
+                queue.running--;
+            }
+        }
+        startVariants(username);
+    }
+
+    void process(Long jobId) {
+        BusinessImageJob job = start(jobId);
+        if (job == null) {
+            return;
+        }
+        BusinessImageGenerateRequest request = new BusinessImageGenerateRequest();
+        request.setEntityId(job.getEntityId());
+        request.setDisplayName(job.getDisplayName());
+        request.setPrompt(job.getPrompt());
+        request.setSize(job.getImageSize());
+        request.setForceNew(job.isForceNew());
+        generate(job, out -> businessImageService.render(request, false, out));
+    }
+
+    BusinessImageJob processPlanned(Long jobId, ImagePlan plan) {
+        BusinessImageJob job = start(jobId);
+        if (job == null) {
+            return businessImageJobRepository.findById(jobId).orElse(null);
+        }
+        return generate(job, out -> businessImageService.render(plan, out));
+    }
+
+    private BusinessImageJob start(Long jobId) {
+        BusinessImageJob job = businessImageJobRepository.findById(jobId).orElse(null);
+        if (job == null || STATUS_READY.equals(job.getStatus()) || STATUS_FAILED.equals(job.getStatus())) {
+            return null;
+        }
+        job.setStatus(STATUS_RUNNING);
+        return businessImageJobRepository.save(job);
+    }
+
+    private BusinessImageJob generate(BusinessImageJob job, Function<OutputStream, RenderedImage> renderer) {
+        Long jobId = job.getId();
+        try {
+            // The image is streamed from the provider straight into its file while the digest is computed
+            Path dir = Paths.get(imageJobProperties.getStorageDir());
+            Files.createDirectories(dir);
+            Path partial = partialPath(jobId);
+            MessageDigest digest = sha256();
+            RenderedImage rendered;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(partial), digest)) {
+                rendered = renderer.apply(out);
+            }
+
+            job.setRevisedPrompt(rendered.getRevisedPrompt());
+            job.setOverlays(objectMapper.writeValueAsString(rendered.getOverlays()));
+            if (!rendered.isSuccess()) {
+                Files.deleteIfExists(partial);
+                job.setStatus(STATUS_FAILED);
+                job.setErrorMessage(rendered.getError());
+                return businessImageJobRepository.save(job);
+            }
+
+            // Moved into place only when complete, so a reader never sees a partial file
+            Path stored = Files.move(partial, dir.resolve(jobId + ".img"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.setStoragePath(stored.toString());
+            job.setSha256(HexFormat.of().formatHex(digest.digest()));
+            job.setMimeType(rendered.getMimeType());
+            job.setSizeBytes(rendered.getSizeBytes());
+            job.setCached(rendered.isCached());
+            job.setStatus(STATUS_READY);
+            job.setErrorMessage(null);
+            BusinessImageJob saved = businessImageJobRepository.save(job);
+            log.info("Image job {} finished ({} bytes)", jobId, rendered.getSizeBytes());
+            return saved;
+        } catch (Exception e) {
+            log.error("Image job {} failed", jobId, e);
+            deletePartial(jobId);
+            job.setStatus(STATUS_FAILED);
+            job.setErrorMessage("Failed to generate image: " + e.getMessage());
+            return businessImageJobRepository.save(job);
+        }
+    }
+
+    private BusinessImageJob fail(Long jobId, String message) {
+        BusinessImageJob job = businessImageJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return null;
+        }
+        job.setStatus(STATUS_FAILED);
+        job.setErrorMessage(message);
+        return businessImageJobRepository.save(job);
+    }
+
+    private Path partialPath(Long jobId) {
+        return Paths.get(imageJobProperties.getStorageDir()).resolve(jobId + ".img.part");
+    }
+
+    private void deletePartial(Long jobId) {
+        try {
+            Files.deleteIfExists(partialPath(jobId));
+        } catch (IOException e) {
+            log.warn("Could not delete partial image of job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
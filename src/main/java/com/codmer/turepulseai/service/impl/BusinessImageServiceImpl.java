@@ -1,11 +1,26 @@
 package com.codmer.turepulseai.service.impl;
 
+import com.codmer.turepulseai.config.ContextProperties;
+import com.codmer.turepulseai.config.ImageJobProperties;
+import com.codmer.turepulseai.config.VectorSearchProperties;
 import com.codmer.turepulseai.model.BusinessImageGenerateRequest;
 import com.codmer.turepulseai.model.BusinessImageGenerateResponse;
 import com.codmer.turepulseai.model.BusinessImageGenerateResponse.OverlaySpec;
+import com.codmer.turepulseai.model.ImagePlan;
+import com.codmer.turepulseai.model.RenderedImage;
 import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
+import com.codmer.turepulseai.repository.BusinessDocumentRepository;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkHit;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
 import com.codmer.turepulseai.service.BusinessImageService;
+import com.codmer.turepulseai.service.ContextAssembler;
 import com.codmer.turepulseai.service.EmbeddingCacheService;
+import com.codmer.turepulseai.service.GeneratedImageCache;
+import com.codmer.turepulseai.service.LocalChunkIndex;
+import com.codmer.turepulseai.util.ImageStreams;
+import com.codmer.turepulseai.util.ImageStreams.CopyResult;
+import com.codmer.turepulseai.util.ImageStreams.ImageTooLargeException;
+import com.codmer.turepulseai.util.PromptIntentExtractor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
@@ -22,14 +37,21 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Locale;
+import java.util.OptionalLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -40,8 +62,6 @@ public class BusinessImageServiceImpl implements BusinessImageService {
 
     private static final int DEFAULT_TOP_K = 6;
     private static final String TEXT_OVERLAY_HEADER = "TEXT_OVERLAYS";
-    // We continue to generate overlay metadata, but the image itself must never contain readable text.
-    private static final Pattern QUOTED_TEXT_PATTERN = Pattern.compile("\"([^\"]+)\"|'([^']+)'");
     // Increase max overlay phrases so we can show brand, offer, occasion, CTA or key message
     private static final int MAX_OVERLAY_PHRASES = 4;
     private static final int MAX_OVERLAY_LENGTH = 64;
@@ -54,20 +74,27 @@ public class BusinessImageServiceImpl implements BusinessImageService {
             "holi", "diwali", "eid", "christmas", "thanksgiving", "new year", "valentine's day", "navratri");
     private static final List<String> HERO_KEYWORDS = List.of(
             "biryani", "pizza", "coffee", "spa", "salon", "burger", "taco", "dessert", "festival", "offer");
-    private static final Pattern ANY_TWO_OFFER_PATTERN = Pattern.compile("(?i)(any\\s+two\\s+[a-z\\s]+?\\s+\\$?\\d+)");
-    private static final Pattern BUY_GET_PATTERN = Pattern.compile("(?i)buy\\s+\\d+\\s+get\\s+\\d+");
-    private static final Pattern PERCENT_OFF_PATTERN = Pattern.compile("(?i)\\d+%\\s*(?:off|discount)");
-    private static final Pattern PRICE_VALUE_PATTERN = Pattern.compile("(?i)(\\$\\s?\\d+|\\d+\\s?\\$)");
-    private static final Pattern CTA_PATTERN = Pattern.compile("(?i)(order now|book now|shop now|visit today|call now)");
+    private static final List<String> CTA_PHRASES = List.of(
+            "order now", "book now", "shop now", "visit today", "call now");
+    // Occasions, hero keywords, calls to action, offers and quoted copy are found in a single scan of the prompt
+    private static final PromptIntentExtractor INTENT_EXTRACTOR =
+            PromptIntentExtractor.compile(KNOWN_OCCASIONS, HERO_KEYWORDS, CTA_PHRASES);
 
+    private final BusinessDocumentRepository businessDocumentRepository;
     private final BusinessDocumentChunkRepository businessDocumentChunkRepository;
     private final EmbeddingCacheService embeddingCacheService;
+    private final VectorSearchProperties vectorSearchProperties;
+    private final LocalChunkIndex localChunkIndex;
+    private final ContextAssembler contextAssembler;
+    private final ContextProperties contextProperties;
+    private final ImageJobProperties imageJobProperties;
+    private final GeneratedImageCache generatedImageCache;
     private final ChatClient chatClient;
     private final ImageModel imageModel;
     private final HttpClient httpClient = HttpClient.newHttpClient();
 
     @Override
-    public BusinessImageGenerateResponse generate(BusinessImageGenerateRequest request) {
+    public void validate(BusinessImageGenerateRequest request, boolean refine) {
         if (request == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "request is required");
         }
@@ -80,11 +107,19 @@ public class BusinessImageServiceImpl implements BusinessImageService {
         if (request.getPrompt() == null || request.getPrompt().trim().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "prompt is required");
         }
+        if (refine && (request.getBaseImage() == null || request.getBaseImage().trim().isEmpty())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "baseImage is required for regenerate");
+        }
 
         if (imageModel == null) {
             throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
                     "Image provider is not configured. Please set up the OpenAI image model.");
         }
+    }
+
+    @Override
+    public ImagePlan plan(BusinessImageGenerateRequest request, boolean refine) {
+        validate(request, refine);
 
         Long entityId = request.getEntityId();
         String displayName = request.getDisplayName().trim();
@@ -102,15 +137,65 @@ public class BusinessImageServiceImpl implements BusinessImageService {
                 ? "No relevant business document context found."
                 : String.join("\n\n", contextChunks);
 
+        // A refinement uses the same pipeline, but the prompt is annotated so the image model understands this
+        // is a refinement of an existing visual instead of a brand new composition.
+        String visualPrompt = refine
+                ? prompt + "\n\nPlease treat the provided base image as the visual starting point and only refine composition, color grading, lighting, background richness and minor layout tweaks based on the new suggestions, while keeping the overall identity and subject consistent. " + buildBaseImageHint(request.getBaseImage())
+                : prompt;
+
         // Always build a text-free image prompt that only describes visuals and explicitly forbids readable text.
-        String rawPrompt = buildTextFreeImagePrompt(prompt, displayName, contextText, intentSummary);
-        String revisedPrompt = ensurePromptWithinLimit(rawPrompt);
+        String rawPrompt = buildTextFreeImagePrompt(visualPrompt, displayName, contextText, intentSummary);
+
+        return ImagePlan.builder()
+                .entityId(entityId)
+                .displayName(displayName)
+                .revisedPrompt(ensurePromptWithinLimit(rawPrompt))
+                .overlays(overlaySpecs)
+                .size(request.getSize())
+                .refine(refine)
+                // Refinements always go to the provider; the base image they refine is not part of the prompt.
+                .cacheable(!refine)
+                .forceNew(Boolean.TRUE.equals(request.getForceNew()))
+                .build();
+    }
+
+    @Override
+    public RenderedImage render(BusinessImageGenerateRequest request, boolean refine, OutputStream out) {
+        return render(plan(request, refine), out);
+    }
+
+    @Override
+    public RenderedImage render(ImagePlan plan, OutputStream out) {
+        Long entityId = plan.getEntityId();
+        String displayName = plan.getDisplayName();
+        String revisedPrompt = plan.getRevisedPrompt();
+
+        RenderedImage.RenderedImageBuilder result = RenderedImage.builder()
+                .entityId(entityId)
+                .displayName(displayName)
+                .revisedPrompt(revisedPrompt)
+                .overlays(plan.getOverlays());
+        String operation = plan.isRefine() ? "regenerate" : "generate";
 
         try {
-            String normalizedSize = normalizeSize(request.getSize());
+            String normalizedSize = normalizeSize(plan.getSize());
             int width = parseDimension(normalizedSize, 0);
             int height = parseDimension(normalizedSize, 1);
 
+            // Same final prompt, size and model as an earlier generation: serve that image instead of a new call.
+            String cacheKey = plan.isCacheable() ? generatedImageCache.key(revisedPrompt, normalizedSize) : null;
+            if (cacheKey != null && !plan.isForceNew()) {
+                CopyResult cached = generatedImageCache.copyTo(cacheKey, out, imageJobProperties.getMaxImageBytes());
+                if (cached != null) {
+                    log.info("Image {} for entityId={} served from cache ({} bytes)", operation, entityId, cached.bytes());
+                    return result
+                            .sizeBytes(cached.bytes())
+                            .mimeType(cached.mimeType())
+                            .cached(true)
+                            .build();
+                }
+            }
+
             ImagePrompt imagePrompt = new ImagePrompt(
                     revisedPrompt,
                     ImageOptionsBuilder.builder()
@@ -122,182 +207,56 @@ public class BusinessImageServiceImpl implements BusinessImageService {
             ImageResponse imageResponse = imageModel.call(imagePrompt);
             List<ImageGeneration> generations = imageResponse.getResults();
             if (generations == null || generations.isEmpty()) {
-                log.warn("Image provider returned empty result list for entityId={} displayName={}", request.getEntityId(), displayName);
-                return BusinessImageGenerateResponse.builder()
-                        .success(false)
-                        .error("Image provider returned empty response")
-                        .revisedPrompt(revisedPrompt)
-                        .entityId(request.getEntityId())
-                        .displayName(displayName)
-                        .overlays(overlaySpecs)
-                        .build();
+                log.warn("Image provider returned empty result list for {} entityId={} displayName={}", operation, entityId, displayName);
+                return result.error("Image provider returned empty response").build();
             }
 
             ImageGeneration generation = generations.get(0);
             Object rawOutput = generation.getOutput();
             log.debug("Image generation raw output type: {}", rawOutput.getClass());
-            String imageBase64 = extractImageBase64(rawOutput);
-            if (imageBase64 == null || imageBase64.isBlank()) {
-                log.warn("Unsupported image payload format for entityId={}, displayName={}, outputType={}",
-                        request.getEntityId(), displayName, rawOutput.getClass());
-                return BusinessImageGenerateResponse.builder()
-                        .success(false)
-                        .error("Image provider returned unsupported payload format")
-                        .revisedPrompt(revisedPrompt)
-                        .entityId(request.getEntityId())
-                        .displayName(displayName)
-                        .overlays(overlaySpecs)
+            try (GeneratedImageCache.Pending pending = generatedImageCache.begin(cacheKey)) {
+                CopyResult copied = writeImage(rawOutput, pending == null ? out : pending.tee(out));
+                if (copied == null || copied.bytes() == 0) {
+                    log.warn("Unsupported image payload format for {} entityId={}, displayName={}, outputType={}",
+                            operation, entityId, displayName, rawOutput.getClass());
+                    return result.error("Image provider returned unsupported payload format").build();
+                }
+                if (pending != null) {
+                    pending.commit();
+                }
+
+                return result
+                        .sizeBytes(copied.bytes())
+                        .mimeType(copied.mimeType())
                         .build();
             }
-
-            return BusinessImageGenerateResponse.builder()
-                    .success(true)
-                    .mimeType("image/png")
-                    .imageBase64(imageBase64)
-//                    .revisedPrompt(revisedPrompt)
-                    .entityId(request.getEntityId())
-                    .displayName(displayName)
-                    .overlays(overlaySpecs)
-                    .build();
+        } catch (ImageTooLargeException ex) {
+            log.warn("Image {} for entityId={} rejected: {}", operation, entityId, ex.getMessage());
+            return result.error(ex.getMessage()).build();
         } catch (IllegalArgumentException ex) {
-            log.warn("Invalid image size requested for entityId={}: {}", request.getEntityId(), ex.getMessage());
-            return BusinessImageGenerateResponse.builder()
-                    .success(false)
-                    .error("Invalid image size. Please use WIDTHxHEIGHT, e.g. 1024x1024.")
-                    .revisedPrompt(revisedPrompt)
-                    .entityId(request.getEntityId())
-                    .displayName(displayName)
-                    .overlays(overlaySpecs)
-                    .build();
+            log.warn("Invalid image size requested for {} entityId={}: {}", operation, entityId, ex.getMessage());
+            return result.error("Invalid image size. Please use WIDTHxHEIGHT, e.g. 1024x1024.").build();
         } catch (Exception ex) {
-            log.error("Image generation failed for entityId={}: {}", request.getEntityId(), ex.getMessage(), ex);
-            return BusinessImageGenerateResponse.builder()
-                    .success(false)
-                    .error("Failed to generate image: " + ex.getMessage())
-                    .revisedPrompt(revisedPrompt)
-                    .entityId(request.getEntityId())
-                    .displayName(displayName)
-                    .overlays(overlaySpecs)
-                    .build();
+            log.error("Image {} failed for entityId={}: {}", operation, entityId, ex.getMessage(), ex);
+            return result.error("Failed to " + operation + " image: " + ex.getMessage()).build();
         }
     }
 
     @Override
     public BusinessImageGenerateResponse regenerate(BusinessImageGenerateRequest request) {
-        if (request == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "request is required");
-        }
-        if (request.getEntityId() == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "entityId is required");
-        }
-        if (request.getDisplayName() == null || request.getDisplayName().trim().isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "displayName is required");
-        }
-        if (request.getPrompt() == null || request.getPrompt().trim().isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "prompt is required");
-        }
-        if (request.getBaseImage() == null || request.getBaseImage().trim().isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "baseImage is required for regenerate");
-        }
-
-        // For now we use the same core pipeline as generate(), but we explicitly annotate
-        // the prompt so the image model understands this is a refinement of an existing
-        // visual instead of a brand new composition.
-        Long entityId = request.getEntityId();
-        String displayName = request.getDisplayName().trim();
-        String prompt = request.getPrompt().trim();
-
-        IntentSummary intentSummary = analyzeIntent(prompt);
-        List<String> overlayPhrases = buildOverlayPhrases(prompt, displayName, intentSummary);
-        List<OverlaySpec> overlaySpecs = buildOverlaySpecs(displayName, intentSummary, overlayPhrases);
-
-        List<String> contextChunks = getContextChunks(entityId, displayName, prompt);
-        String contextText = contextChunks.isEmpty()
-                ? "No relevant business document context found."
-                : String.join("\n\n", contextChunks);
-
-        String baseImageHint = buildBaseImageHint(request.getBaseImage());
-        String rawPrompt = buildTextFreeImagePrompt(
-                prompt + "\n\nPlease treat the provided base image as the visual starting point and only refine composition, color grading, lighting, background richness and minor layout tweaks based on the new suggestions, while keeping the overall identity and subject consistent. " + baseImageHint,
-                displayName,
-                contextText,
-                intentSummary
-        );
-        String revisedPrompt = ensurePromptWithinLimit(rawPrompt);
-
-        try {
-            String normalizedSize = normalizeSize(request.getSize());
-            int width = parseDimension(normalizedSize, 0);
-            int height = parseDimension(normalizedSize, 1);
-
-            ImagePrompt imagePrompt = new ImagePrompt(
-                    revisedPrompt,
-                    ImageOptionsBuilder.builder()
-                            .width(width)
-                            .height(height)
-                            .build()
-            );
-
-            ImageResponse imageResponse = imageModel.call(imagePrompt);
-            List<ImageGeneration> generations = imageResponse.getResults();
-            if (generations == null || generations.isEmpty()) {
-                log.warn("Image provider returned empty result list for regenerate entityId={} displayName={}", request.getEntityId(), displayName);
-                return BusinessImageGenerateResponse.builder()
-                        .success(false)
-                        .error("Image provider returned empty response")
-                        .revisedPrompt(revisedPrompt)
-                        .entityId(request.getEntityId())
-                        .displayName(displayName)
-                        .overlays(overlaySpecs)
-                        .build();
-            }
-
-            ImageGeneration generation = generations.get(0);
-            Object rawOutput = generation.getOutput();
-            String imageBase64 = extractImageBase64(rawOutput);
-            if (imageBase64 == null || imageBase64.isBlank()) {
-                log.warn("Unsupported image payload format for regenerate entityId={}, displayName={}, outputType={}",
-                        request.getEntityId(), displayName, rawOutput.getClass());
-                return BusinessImageGenerateResponse.builder()
-                        .success(false)
-                        .error("Image provider returned unsupported payload format")
-                        .revisedPrompt(revisedPrompt)
-                        .entityId(request.getEntityId())
-                        .displayName(displayName)
-                        .overlays(overlaySpecs)
-                        .build();
-            }
-
-            return BusinessImageGenerateResponse.builder()
-                    .success(true)
-                    .mimeType("image/png")
-                    .imageBase64(imageBase64)
-                    .revisedPrompt(revisedPrompt)
-                    .entityId(request.getEntityId())
-                    .displayName(displayName)
-                    .overlays(overlaySpecs)
-                    .build();
-        } catch (IllegalArgumentException ex) {
-            log.warn("Invalid image size requested for regenerate entityId={}: {}", request.getEntityId(), ex.getMessage());
-            return BusinessImageGenerateResponse.builder()
-                    .success(false)
-                    .error("Invalid image size. Please use WIDTHxHEIGHT, e.g. 1024x1024.")
-                    .revisedPrompt(revisedPrompt)
-                    .entityId(request.getEntityId())
-                    .displayName(displayName)
-                    .overlays(overlaySpecs)
-                    .build();
-        } catch (Exception ex) {
-            log.error("Image re-generation failed for entityId={}: {}", request.getEntityId(), ex.getMessage(), ex);
-            return BusinessImageGenerateResponse.builder()
-                    .success(false)
-                    .error("Failed to regenerate image: " + ex.getMessage())
-                    .revisedPrompt(revisedPrompt)
-                    .entityId(request.getEntityId())
-                    .displayName(displayName)
-                    .overlays(overlaySpecs)
-                    .build();
-        }
+        // This endpoint's contract is Base64 inside JSON, so the image has to be buffered here
+        ByteArrayOutputStream image = new ByteArrayOutputStream();
+        RenderedImage rendered = render(request, true, image);
+        return BusinessImageGenerateResponse.builder()
+                .success(rendered.isSuccess())
+                .error(rendered.getError())
+                .mimeType(rendered.getMimeType())
+                .imageBase64(rendered.isSuccess() ? Base64.getEncoder().encodeToString(image.toByteArray()) : null)
+                .revisedPrompt(rendered.getRevisedPrompt())
+                .entityId(rendered.getEntityId())
+                .displayName(rendered.getDisplayName())
+                .overlays(rendered.getOverlays())
+                .build();
     }
 
     private String buildBaseImageHint(String baseImage) {
@@ -397,7 +356,7 @@ public class BusinessImageServiceImpl implements BusinessImageService {
                 if (summary != null && summary.occasion != null && text.toLowerCase(Locale.ROOT).contains(summary.occasion.toLowerCase(Locale.ROOT))) {
                     category = "event";
                     priority = 2;
-                } else if (CTA_PATTERN.matcher(text).find()) {
+                } else if (INTENT_EXTRACTOR.extract(text).cta() != null) {
                     category = "cta";
                     priority = 3;
                 } else {
@@ -426,23 +385,26 @@ public class BusinessImageServiceImpl implements BusinessImageService {
 
     private List<String> getContextChunks(Long entityId, String displayName, String query) {
         try {
+            // An entity's documents normally belong to one business; naming it keeps the chunk search
+            // inside that business's partition
+            List<String> owners = businessDocumentRepository.findBusinessIdsByEntity(entityId, displayName);
+            if (owners.isEmpty()) {
+                return List.of();
+            }
+            String businessId = owners.size() == 1 ? owners.get(0) : null;
+
             float[] embedding = embeddingCacheService.embed(query);
             if (embedding == null || embedding.length == 0) {
                 log.warn("Embedding service returned empty vector for query '{}'.", query);
                 return List.of();
             }
-            String embeddingLiteral = formatEmbeddingForPostgres(embedding);
 
-            List<Object[]> rows = businessDocumentChunkRepository.findSimilarChunksByEntity(
-                    entityId, displayName, embeddingLiteral, DEFAULT_TOP_K);
-
-            List<String> chunks = new ArrayList<>();
-            for (Object[] row : rows) {
-                if (row.length > 4 && row[4] != null) {
-                    chunks.add((String) row[4]);
-                }
-            }
-            return chunks;
+            ChunkSearch search = new ChunkSearch(
+                    businessId, entityId, displayName, embedding, DEFAULT_TOP_K, vectorSearchProperties.getMaxDistance());
+            List<ChunkHit> hits = localChunkIndex.findNearest(search)
+                    .orElseGet(() -> businessDocumentChunkRepository.findNearestChunks(search));
+            // The image prompt has a hard length limit, so context gets a small token budget of its own
+            return contextAssembler.assembleHits(hits, contextProperties.getImageMaxTokens()).blocks();
         } catch (Exception ex) {
             log.warn("Could not fetch business document context for image generation: {}", ex.getMessage());
             return List.of();
@@ -752,7 +714,7 @@ public class BusinessImageServiceImpl implements BusinessImageService {
         }
 
         if (overlays.isEmpty()) {
-            overlays.addAll(extractCopyPhrases(userPrompt));
+            overlays.addAll(extractCopyPhrases(userPrompt, summary));
         }
 
         List<String> result = new ArrayList<>();
@@ -777,7 +739,7 @@ public class BusinessImageServiceImpl implements BusinessImageService {
         if (phrase == null || phrase.isBlank()) {
             return phrase;
         }
-        Matcher m = PRICE_VALUE_PATTERN.matcher(phrase);
+        Matcher m = PromptIntentExtractor.PRICE_VALUE_PATTERN.matcher(phrase);
         StringBuffer sb = new StringBuffer();
         while (m.find()) {
             // Use group(0), the entire match, to avoid IndexOutOfBounds when
@@ -792,32 +754,14 @@ public class BusinessImageServiceImpl implements BusinessImageService {
         return sb.toString();
     }
 
-    private String formatEmbeddingForPostgres(float[] embedding) {
-        // Format embedding as Postgres vector literal: '[v1,v2,...]'
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < embedding.length; i++) {
-            if (i > 0) {
-                sb.append(',');
-            }
-            sb.append(embedding[i]);
-        }
-        sb.append(']');
-        return sb.toString();
-    }
-
-    private List<String> extractCopyPhrases(String userPrompt) {
+    // Quoted copy from the prompt (collected by the intent scan), or the whole prompt when nothing is quoted
+    private List<String> extractCopyPhrases(String userPrompt, IntentSummary summary) {
         List<String> phrases = new ArrayList<>();
         if (userPrompt == null || userPrompt.isBlank()) {
             return phrases;
         }
-        Matcher m = QUOTED_TEXT_PATTERN.matcher(userPrompt);
-        while (m.find()) {
-            String g1 = m.group(1);
-            String g2 = m.group(2);
-            String val = g1 != null ? g1 : g2;
-            if (val != null && !val.isBlank()) {
-                phrases.add(val.trim());
-            }
+        if (summary != null) {
+            phrases.addAll(summary.quotedPhrases);
         }
         if (phrases.isEmpty()) {
             phrases.add(userPrompt.trim());
@@ -973,32 +917,38 @@ public class BusinessImageServiceImpl implements BusinessImageService {
         return text.substring(0, index) + replacement + text.substring(index + original.length());
     }
 
-    private String extractImageBase64(Object output) {
+    /**
+     * Write the generated image to {@code out} through a fixed-size buffer
+     *
+     * @return null when the payload format is not supported
+     */
+    private CopyResult writeImage(Object output, OutputStream out) throws IOException {
         if (output == null) {
             return null;
         }
+        long maxBytes = imageJobProperties.getMaxImageBytes();
         if (output instanceof byte[] data) {
-            log.debug("Extracting base64 from byte[] payload ({} bytes)", data.length);
-            return Base64.getEncoder().encodeToString(data);
+            log.debug("Writing byte[] image payload ({} bytes)", data.length);
+            return ImageStreams.copy(new ByteArrayInputStream(data), out, maxBytes);
         }
         if (output instanceof Image image) {
             String base64 = image.getB64Json();
             if (base64 != null && !base64.isBlank()) {
-                log.debug("Extracted base64 from Image#getB64Json()");
-                return base64;
+                log.debug("Decoding image from Image#getB64Json()");
+                return ImageStreams.copyBase64(base64, out, maxBytes);
             }
             String url = image.getUrl();
             if (url != null && !url.isBlank()) {
-                log.debug("Attempting to download image from URL: {}", url);
-                return downloadImageAsBase64(url);
+                log.debug("Streaming image from URL: {}", url);
+                return downloadImage(url, out, maxBytes);
             }
         }
         if (output instanceof List<?> list && !list.isEmpty()) {
             log.debug("Image output is list with {} entries, attempting recursive extraction", list.size());
             for (Object item : list) {
-                String base64 = extractImageBase64(item);
-                if (base64 != null) {
-                    return base64;
+                CopyResult copied = writeImage(item, out);
+                if (copied != null) {
+                    return copied;
                 }
             }
         }
@@ -1006,42 +956,50 @@ public class BusinessImageServiceImpl implements BusinessImageService {
         return null;
     }
 
-    private String downloadImageAsBase64(String url) {
+    /**
+     * Stream the provider's image URL straight into {@code out}; the body is never held in memory as a whole
+     */
+    private CopyResult downloadImage(String url, OutputStream out, long maxBytes) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofSeconds(imageJobProperties.getDownloadTimeoutSeconds()))
+                .GET()
+                .build();
+        HttpResponse<InputStream> response;
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
-            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                byte[] body = response.body();
-                if (body != null && body.length > 0) {
-                    log.debug("Downloaded {} bytes from image URL", body.length);
-                    return Base64.getEncoder().encodeToString(body);
-                }
-            } else {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading image", ex);
+        }
+        try (InputStream body = response.body()) {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
                 log.warn("Failed to download image. Status: {} URL: {}", response.statusCode(), url);
+                return null;
             }
-        } catch (Exception ex) {
-            log.error("Error downloading image from URL {}: {}", url, ex.getMessage());
+            // Refuse an oversized image before reading any of it when the provider declares its length
+            OptionalLong declared = response.headers().firstValueAsLong("Content-Length");
+            if (declared.isPresent() && declared.getAsLong() > maxBytes) {
+                throw new ImageTooLargeException(maxBytes);
+            }
+            CopyResult copied = ImageStreams.copy(body, out, maxBytes);
+            log.debug("Streamed {} bytes from image URL", copied.bytes());
+            return copied;
         }
-        return null;
     }
 
     private IntentSummary analyzeIntent(String userPrompt) {
         if (userPrompt == null || userPrompt.isBlank()) {
-            return new IntentSummary(null, null, null, null);
-        }
-        String lower = userPrompt.toLowerCase(Locale.ROOT);
-        String occasion = KNOWN_OCCASIONS.stream()
-                .filter(lower::contains)
-                .findFirst()
-                .map(this::capitalizeWords)
-                .orElse(null);
-        String offer = detectOffer(userPrompt);
-        String hero = detectHeroProduct(lower);
-        String cta = detectCta(userPrompt, offer != null);
-        return new IntentSummary(occasion, offer, hero, cta);
+            return new IntentSummary(null, null, null, null, List.of());
+        }
+        PromptIntentExtractor.Intent intent = INTENT_EXTRACTOR.extract(userPrompt);
+        return new IntentSummary(
+                intent.occasion() == null ? null : capitalizeWords(intent.occasion()),
+                formatOffer(intent.offer()),
+                intent.heroProduct() == null ? null : capitalizeWords(intent.heroProduct()),
+                // Do not auto-inject a CTA; only return one when explicitly present in the prompt.
+                intent.cta() == null ? null : capitalizeWords(intent.cta()),
+                intent.quotedPhrases());
     }
 
     // Limit overlay phrase length so overlays stay short and readable.
@@ -1107,79 +1065,22 @@ public class BusinessImageServiceImpl implements BusinessImageService {
         return sb.toString().trim();
     }
 
-    // Heuristic hero-product detector using the known keyword list.
-    private String detectHeroProduct(String lowerPrompt) {
-        if (lowerPrompt == null || lowerPrompt.isBlank()) {
-            return null;
-        }
-        for (String keyword : HERO_KEYWORDS) {
-            if (lowerPrompt.contains(keyword)) {
-                return capitalizeWords(keyword);
-            }
-        }
-        return null;
-    }
-
     // Helper to provide a fallback string when a value is missing.
     private String defaultText(String value, String fallback) {
         return (value == null || value.isBlank()) ? fallback : value;
     }
 
-    private String detectOffer(String userPrompt) {
-        if (userPrompt == null) {
+    // Combined "buy any two ..." offers keep their full wording; the other kinds are tidied to a short label.
+    private String formatOffer(PromptIntentExtractor.Offer offer) {
+        if (offer == null) {
             return null;
         }
-        // First, try to capture combined multi-part offers like
-        // "buy any two biryani for 20$ get a free drink" as a single phrase.
-        String lower = userPrompt.toLowerCase(Locale.ROOT);
-        int buyIdx = lower.indexOf("buy any two");
-        if (buyIdx >= 0) {
-            // Heuristic: take from "buy any two" up to the next sentence boundary
-            // or end of string, then tidy currency and capitalization.
-            int endIdx = lower.indexOf('.', buyIdx);
-            if (endIdx < 0) {
-                endIdx = lower.indexOf('!', buyIdx);
-            }
-            if (endIdx < 0) {
-                endIdx = lower.indexOf('?', buyIdx);
-            }
-            if (endIdx < 0) {
-                endIdx = userPrompt.length();
-            }
-            String span = userPrompt.substring(buyIdx, endIdx).trim();
-            if (!span.isEmpty()) {
-                return tidyOffer(span);
-            }
-        }
-
-        Matcher anyTwo = ANY_TWO_OFFER_PATTERN.matcher(userPrompt);
-        if (anyTwo.find()) {
-            return tidyOffer(anyTwo.group(1));
-        }
-        Matcher buyGet = BUY_GET_PATTERN.matcher(userPrompt);
-        if (buyGet.find()) {
-            return capitalizeWords(buyGet.group());
-        }
-        Matcher percent = PERCENT_OFF_PATTERN.matcher(userPrompt);
-        if (percent.find()) {
-            return percent.group().toUpperCase(Locale.ROOT);
-        }
-        Matcher price = PRICE_VALUE_PATTERN.matcher(userPrompt);
-        if (price.find()) {
-            return "Only " + tidyCurrency(price.group());
-        }
-        return null;
-    }
-
-    private String detectCta(String userPrompt, boolean hasOffer) {
-        if (userPrompt != null) {
-            Matcher matcher = CTA_PATTERN.matcher(userPrompt);
-            if (matcher.find()) {
-                return capitalizeWords(matcher.group(1));
-            }
-        }
-        // Do not auto-inject a CTA; only return one when explicitly present in the prompt.
-        return null;
+        return switch (offer.kind()) {
+            case COMBINED, ANY_TWO -> tidyOffer(offer.text());
+            case BUY_GET -> capitalizeWords(offer.text());
+            case PERCENT_OFF -> offer.text().toUpperCase(Locale.ROOT);
+            case PRICE -> "Only " + tidyCurrency(offer.text());
+        };
     }
 
     private String describeIntentSummary(IntentSummary summary, String displayName) {
@@ -1214,12 +1115,14 @@ public class BusinessImageServiceImpl implements BusinessImageService {
         private final String offer;
         private final String heroProduct;
         private final String cta;
+        private final List<String> quotedPhrases;
 
-        private IntentSummary(String occasion, String offer, String heroProduct, String cta) {
+        private IntentSummary(String occasion, String offer, String heroProduct, String cta, List<String> quotedPhrases) {
             this.occasion = occasion;
             this.offer = offer;
             this.heroProduct = heroProduct;
             this.cta = cta;
+            this.quotedPhrases = quotedPhrases;
         }
     }
 }
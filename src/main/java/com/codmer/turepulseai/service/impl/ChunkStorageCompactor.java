@@ -0,0 +1,74 @@
+package com.codmer.turepulseai.service.impl;
+
+import com.codmer.turepulseai.config.IngestionProperties;
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * One-off migration of business_document_chunks into the compact layout.
+ * Chunks written before neighbour-by-reference storage carry full copies of their neighbours in
+ * prev_content/next_content; this rewrites them document by document (one short UPDATE each) so the
+ * table can shrink without re-ingesting anything. Their overlap with the previous chunk was never recorded
+ * and is not guessed: adjacent legacy chunks are joined with the shared text repeated until the document
+ * is uploaded again. Enabled with app.ingestion.compact-existing-chunks.
+ */
+@Slf4j
+@Service
+public class ChunkStorageCompactor {
+
+    private final BusinessDocumentChunkRepository businessDocumentChunkRepository;
+    private final IngestionProperties ingestionProperties;
+    private final ThreadPoolTaskExecutor documentIngestionExecutor;
+
+    public ChunkStorageCompactor(BusinessDocumentChunkRepository businessDocumentChunkRepository,
+                                 IngestionProperties ingestionProperties,
+                                 @Qualifier("documentIngestionExecutor") ThreadPoolTaskExecutor documentIngestionExecutor) {
+        this.businessDocumentChunkRepository = businessDocumentChunkRepository;
+        this.ingestionProperties = ingestionProperties;
+        this.documentIngestionExecutor = documentIngestionExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void compactOnStartup() {
+        if (!ingestionProperties.isCompactExistingChunks() || ingestionProperties.isInlineNeighborText()) {
+            return;
+        }
+        try {
+            documentIngestionExecutor.execute(this::compactAll);
+        } catch (TaskRejectedException e) {
+            log.warn("Ingestion queue full; chunk compaction will run on next restart");
+        }
+    }
+
+    /**
+     * Rewrite every document still in the legacy layout
+     *
+     * @return number of chunk rows rewritten
+     */
+    public int compactAll() {
+        List<Long> documentIds = businessDocumentChunkRepository.findDocumentIdsToCompact();
+        if (documentIds.isEmpty()) {
+            return 0;
+        }
+        log.info("Compacting chunk storage for {} documents", documentIds.size());
+        int rewritten = 0;
+        for (Long documentId : documentIds) {
+            try {
+                rewritten += businessDocumentChunkRepository.compactDocument(documentId);
+            } catch (Exception e) {
+                log.warn("Could not compact chunks of document {}: {}", documentId, e.getMessage());
+            }
+        }
+        // Space is returned to Postgres by (auto)vacuum; run VACUUM FULL manually to shrink the files
+        log.info("Chunk storage compaction finished: {} rows rewritten", rewritten);
+        return rewritten;
+    }
+}
@@ -0,0 +1,283 @@
+package com.codmer.turepulseai.service.impl;
+
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * One-off conversion of business_document_chunks into a table hash-partitioned by business_id.
+ * Every chunk query filters by business_id, so the planner prunes to one partition and scans that
+ * partition's own ANN index instead of post-filtering a single index over every tenant's vectors.
+ * <p>
+ * The conversion stays online: the partitioned table is built next to the old one, a trigger mirrors
+ * writes into it while existing rows are copied in short batches, and the tables are swapped by rename
+ * under a brief exclusive lock. The old table is kept as business_document_chunks_unpartitioned until it
+ * is dropped by hand. Enabled with app.vector-search.partitioning.enabled. Instances sharing the database
+ * serialize on a session advisory lock: only the holder converts, the others skip until their next start.
+ * This is the only conversion path:
+ * the partition count and the ANN index definition come from app.vector-search, which a static migration
+ * script cannot follow, and the copy commits per batch, which Flyway's per-migration transaction does not allow.
+ */
+@Slf4j
+@Service
+public class ChunkTablePartitioner {
+
+    private static final String TABLE = "business_document_chunks";
+    private static final String TARGET = TABLE + "_partitioned";
+    private static final String RETIRED = TABLE + "_unpartitioned";
+    private static final String SEQUENCE = TABLE + "_part_id_seq";
+    private static final String MIRROR = TABLE + "_mirror";
+    // Index names are schema-wide; the new ones carry this suffix until the old table gives up its names
+    private static final String NEW_SUFFIX = "_part";
+    private static final String LOCK_NAME = TABLE + "_partitioning";
+
+    private record IndexSpec(String name, String definition) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VectorSearchProperties vectorSearchProperties;
+    private final ThreadPoolTaskExecutor chunkPartitionExecutor;
+
+    public ChunkTablePartitioner(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 VectorSearchProperties vectorSearchProperties,
+                                 @Qualifier("chunkPartitionExecutor") ThreadPoolTaskExecutor chunkPartitionExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.vectorSearchProperties = vectorSearchProperties;
+        this.chunkPartitionExecutor = chunkPartitionExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void partitionOnStartup() {
+        if (!vectorSearchProperties.getPartitioning().isEnabled()) {
+            return;
+        }
+        try {
+            chunkPartitionExecutor.execute(() -> {
+                try {
+                    partition();
+                } catch (Exception e) {
+                    log.error("Chunk table partitioning failed; it resumes on next restart", e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("Chunk table partitioning already queued; not starting it twice");
+        }
+    }
+
+    /**
+     * Convert the chunk table; safe to call again after an interruption, it resumes the copy.
+     * Does nothing while another instance holds the partitioning lock.
+     *
+     * @return number of rows copied by this call
+     */
+    public long partition() {
+        // The lock belongs to this connection's session, which stays open until the conversion is over
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                log.info("Another instance is partitioning business_document_chunks; skipping");
+                return 0L;
+            }
+            try {
+                return convert();
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+        });
+        return copied == null ? 0 : copied;
+    }
+
+    private long convert() {
+        if ("p".equals(relkind(TABLE))) {
+            return 0;
+        }
+        if (relkind(TARGET) == null) {
+            createTarget();
+        }
+        List<String> columns = copyColumns();
+        installMirror(columns);
+        long copied = copyExisting(columns);
+        swap();
+        log.info("business_document_chunks is now partitioned into {} hash partitions ({} rows copied); "
+                + "drop {} once it is no longer needed", partitionCount(), copied, RETIRED);
+        return copied;
+    }
+
+    private void createTarget() {
+        int partitions = partitionCount();
+        log.info("Creating {} with {} hash partitions on business_id", TARGET, partitions);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE);
+            // Generated columns (content_tsv) come along; the primary key must include the partition key
+            jdbcTemplate.execute("CREATE TABLE " + TARGET + " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING GENERATED)"
+                    + " PARTITION BY HASH (business_id)");
+            jdbcTemplate.execute("ALTER TABLE " + TARGET + " ALTER COLUMN id SET DEFAULT nextval('" + SEQUENCE + "')");
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " OWNED BY " + TARGET + ".id");
+            jdbcTemplate.execute("ALTER TABLE " + TARGET + " ADD CONSTRAINT " + TARGET + "_pkey PRIMARY KEY (id, business_id)");
+            for (int remainder = 0; remainder < partitions; remainder++) {
+                jdbcTemplate.execute("CREATE TABLE " + TABLE + "_p" + remainder + " PARTITION OF " + TARGET
+                        + " FOR VALUES WITH (MODULUS " + partitions + ", REMAINDER " + remainder + ")");
+            }
+            // Declared on the parent, so every partition gets its own copy, including its own ANN graph
+            for (IndexSpec index : indexes()) {
+                jdbcTemplate.execute("CREATE INDEX " + index.name() + NEW_SUFFIX + " ON " + TARGET + " " + index.definition());
+            }
+        });
+    }
+
+    /**
+     * Writes to the old table are replayed on the new one until the swap. An UPDATE is replayed as delete and
+     * insert so a row can never end up in the wrong partition.
+     */
+    private void installMirror(List<String> columns) {
+        String columnList = String.join(", ", columns);
+        String newValues = columns.stream().map(column -> "NEW." + column).collect(Collectors.joining(", "));
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("""
+                    CREATE OR REPLACE FUNCTION %s() RETURNS trigger AS $$
+                    BEGIN
+                        IF TG_OP IN ('UPDATE', 'DELETE') THEN
+                            DELETE FROM %s WHERE id = OLD.id AND business_id = OLD.business_id;
+                        END IF;
+                        IF TG_OP IN ('INSERT', 'UPDATE') THEN
+                            INSERT INTO %s (%s) VALUES (%s) ON CONFLICT DO NOTHING;
+                        END IF;
+                        RETURN NULL;
+                    END
+                    $$ LANGUAGE plpgsql
+                    """.formatted(MIRROR, TARGET, TARGET, columnList, newValues));
+            jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + MIRROR + " ON " + TABLE);
+            jdbcTemplate.execute("CREATE TRIGGER " + MIRROR + " AFTER INSERT OR UPDATE OR DELETE ON " + TABLE
+                    + " FOR EACH ROW EXECUTE FUNCTION " + MIRROR + "()");
+        });
+    }
+
+    /**
+     * Copy in id order, one short transaction per batch. FOR SHARE makes a concurrent update or delete of a
+     * row being copied wait for the batch to commit, so its mirrored change always lands after the copy.
+     */
+    private long copyExisting(List<String> columns) {
+        String columnList = String.join(", ", columns);
+        String sql = """
+                WITH batch AS (
+                    SELECT %s FROM %s WHERE id > ? ORDER BY id LIMIT ? FOR SHARE
+                ), copied AS (
+                    INSERT INTO %s (%s) SELECT %s FROM batch ON CONFLICT DO NOTHING
+                )
+                SELECT max(id) AS last_id, count(*) AS copied_rows FROM batch
+                """.formatted(columnList, TABLE, TARGET, columnList, columnList);
+        int batchSize = Math.max(1, vectorSearchProperties.getPartitioning().getCopyBatchSize());
+
+        long lastId = 0;
+        long copied = 0;
+        for (int batches = 1; ; batches++) {
+            long after = lastId;
+            Long[] batch = jdbcTemplate.queryForObject(sql,
+                    (rs, rowNum) -> new Long[]{rs.getObject("last_id", Long.class), rs.getLong("copied_rows")},
+                    after, batchSize);
+            if (batch == null || batch[0] == null) {
+                return copied;
+            }
+            lastId = batch[0];
+            copied += batch[1];
+            if (batches % 20 == 0) {
+                log.info("Partitioning business_document_chunks: {} rows copied", copied);
+            }
+        }
+    }
+
+    private void swap() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+            // Ids keep counting from where the old table stopped
+            jdbcTemplate.queryForObject("SELECT setval('" + SEQUENCE + "', COALESCE(max(id), 0) + 1, false) FROM " + TABLE,
+                    Long.class);
+            jdbcTemplate.execute("DROP TRIGGER " + MIRROR + " ON " + TABLE);
+            jdbcTemplate.execute("DROP FUNCTION " + MIRROR + "()");
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + RETIRED);
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS " + TABLE + "_pkey RENAME TO " + RETIRED + "_pkey");
+            jdbcTemplate.execute("ALTER TABLE " + TARGET + " RENAME TO " + TABLE);
+            jdbcTemplate.execute("ALTER INDEX " + TARGET + "_pkey RENAME TO " + TABLE + "_pkey");
+            for (IndexSpec index : indexes()) {
+                jdbcTemplate.execute("ALTER INDEX IF EXISTS " + index.name() + " RENAME TO " + index.name() + "_old");
+                jdbcTemplate.execute("ALTER INDEX IF EXISTS " + index.name() + NEW_SUFFIX + " RENAME TO " + index.name());
+            }
+        });
+    }
+
+    /**
+     * The entity's indexes, the ones earlier migrations added, and the ANN and full-text indexes DataInitializer
+     * maintains, under their usual names
+     */
+    private List<IndexSpec> indexes() {
+        List<IndexSpec> indexes = new ArrayList<>(List.of(
+                new IndexSpec("idx_doc_chunks_document_id", "(document_id)"),
+                new IndexSpec("idx_doc_chunks_business_id", "(business_id)"),
+                new IndexSpec("idx_doc_chunks_entity_id", "(entity_id)"),
+                new IndexSpec("idx_doc_chunks_document_hash", "(document_id, content_hash)"),
+                new IndexSpec("idx_doc_chunks_document_index", "(document_id, chunk_index)"),
+                new IndexSpec("idx_doc_chunks_display_name", "(display_name)"),
+                new IndexSpec("idx_doc_chunks_created_at", "(created_at)"),
+                new IndexSpec(vectorSearchProperties.annIndexName(), vectorSearchProperties.annIndexDefinition())));
+        if (hasColumn(TABLE, "content_tsv") || hasColumn(TARGET, "content_tsv")) {
+            indexes.add(new IndexSpec("idx_doc_chunks_content_tsv", "USING gin (content_tsv)"));
+        }
+        return indexes;
+    }
+
+    /**
+     * Stored columns of the new table in declaration order; generated ones are computed by Postgres
+     */
+    private List<String> copyColumns() {
+        return jdbcTemplate.queryForList("""
+                SELECT column_name FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = ? AND is_generated = 'NEVER'
+                ORDER BY ordinal_position
+                """, String.class, TARGET);
+    }
+
+    private boolean hasColumn(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?
+                """, Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT " + function + "(hashtext(?))")) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private String relkind(String table) {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, table);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    private int partitionCount() {
+        return Math.max(1, vectorSearchProperties.getPartitioning().getPartitions());
+    }
+}
@@ -0,0 +1,389 @@
+package com.codmer.turepulseai.service.impl;
+
+import com.codmer.turepulseai.config.IngestionProperties;
+import com.codmer.turepulseai.config.MenuCatalogProperties;
+import com.codmer.turepulseai.entity.BusinessDocument;
+import com.codmer.turepulseai.entity.BusinessDocumentChunk;
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepositoryCustom;
+import com.codmer.turepulseai.repository.BusinessDocumentRepository;
+import com.codmer.turepulseai.service.CacheGenerations;
+import com.codmer.turepulseai.service.EmbeddingCacheService;
+import com.codmer.turepulseai.service.LocalChunkIndex;
+import com.codmer.turepulseai.service.MenuCatalogService;
+import com.codmer.turepulseai.service.SemanticAnswerCache;
+import com.codmer.turepulseai.util.DocumentChunker;
+import com.codmer.turepulseai.util.DocumentTextExtractor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs document ingestion (text extraction, chunking, embedding, storage) off the request thread.
+ * The BusinessDocument row is the job: its status, chunksDone and chunksTotal are the progress,
+ * and the uploaded file is staged on disk (storagePath) so PROCESSING jobs can be resumed after a restart.
+ * The same job handles a re-upload: new chunks are diffed against the stored ones by content hash, and the
+ * document switches from its old chunks to the new ones in a single transaction once the run completes.
+ */
+@Slf4j
+@Service
+public class DocumentIngestionWorker {
+
+    static final String STATUS_PROCESSING = "PROCESSING";
+    static final String STATUS_READY = "READY";
+    static final String STATUS_EMPTY = "EMPTY";
+    static final String STATUS_FAILED = "FAILED";
+
+    // Rows per statement when publishing a document's kept and removed chunks
+    private static final int BATCH_SIZE = 1000;
+
+    private final BusinessDocumentRepository businessDocumentRepository;
+    private final BusinessDocumentChunkRepository businessDocumentChunkRepository;
+    private final DocumentTextExtractor documentTextExtractor;
+    private final EmbeddingCacheService embeddingCacheService;
+    private final EmbeddingService embeddingService;
+    private final CacheGenerations cacheGenerations;
+    private final LocalChunkIndex localChunkIndex;
+    private final MenuCatalogService menuCatalogService;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final IngestionProperties ingestionProperties;
+    private final MenuCatalogProperties menuCatalogProperties;
+    private final ThreadPoolTaskExecutor documentIngestionExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    public DocumentIngestionWorker(BusinessDocumentRepository businessDocumentRepository,
+                                   BusinessDocumentChunkRepository businessDocumentChunkRepository,
+                                   DocumentTextExtractor documentTextExtractor,
+                                   EmbeddingCacheService embeddingCacheService,
+                                   EmbeddingService embeddingService,
+                                   CacheGenerations cacheGenerations,
+                                   LocalChunkIndex localChunkIndex,
+                                   MenuCatalogService menuCatalogService,
+                                   SemanticAnswerCache semanticAnswerCache,
+                                   IngestionProperties ingestionProperties,
+                                   MenuCatalogProperties menuCatalogProperties,
+                                   @Qualifier("documentIngestionExecutor") ThreadPoolTaskExecutor documentIngestionExecutor,
+                                   TransactionTemplate transactionTemplate) {
+        this.businessDocumentRepository = businessDocumentRepository;
+        this.businessDocumentChunkRepository = businessDocumentChunkRepository;
+        this.documentTextExtractor = documentTextExtractor;
+        this.embeddingCacheService = embeddingCacheService;
+        this.embeddingService = embeddingService;
+        this.cacheGenerations = cacheGenerations;
+        this.localChunkIndex = localChunkIndex;
+        this.menuCatalogService = menuCatalogService;
+        this.semanticAnswerCache = semanticAnswerCache;
+        this.ingestionProperties = ingestionProperties;
+        this.menuCatalogProperties = menuCatalogProperties;
+        this.documentIngestionExecutor = documentIngestionExecutor;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Copy the uploaded file to the staging directory so the job does not depend on the request's temp file
+     */
+    public Path stageUpload(MultipartFile file, Long documentId) {
+        try {
+            Path dir = Paths.get(ingestionProperties.getStorageDir());
+            Files.createDirectories(dir);
+            Path target = dir.resolve(documentId + ".upload");
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return target;
+        } catch (IOException e) {
+            log.error("Failed to stage upload for document {}", documentId, e);
+            throw new IllegalStateException("Failed to store uploaded document", e);
+        }
+    }
+
+    /**
+     * Queue an ingestion job for the given document
+     *
+     * @throws TaskRejectedException when the job queue is full
+     */
+    public void submit(Long documentId) {
+        documentIngestionExecutor.execute(() -> process(documentId));
+    }
+
+    /**
+     * Jobs still PROCESSING at startup were interrupted by a crash or redeploy; queue them again.
+     * Chunks stored before the interruption are kept and only the missing ones are embedded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        List<BusinessDocument> pending = businessDocumentRepository.findByStatus(STATUS_PROCESSING);
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.info("Resuming {} interrupted document ingestion jobs", pending.size());
+        for (BusinessDocument document : pending) {
+            try {
+                submit(document.getId());
+            } catch (TaskRejectedException e) {
+                log.warn("Ingestion queue full; document {} will be resumed on next restart", document.getId());
+            }
+        }
+    }
+
+    void process(Long documentId) {
+        BusinessDocument document = businessDocumentRepository.findById(documentId).orElse(null);
+        if (document == null || !STATUS_PROCESSING.equals(document.getStatus())) {
+            return;
+        }
+        Path staged = document.getStoragePath() != null ? Paths.get(document.getStoragePath()) : null;
+
+        try {
+            if (staged == null || !Files.exists(staged)) {
+                fail(document, "Uploaded file is no longer available; please upload the document again");
+                return;
+            }
+
+            // Stored chunks are matched by content hash: on a resume or a re-upload, chunks whose text is
+            // unchanged keep their row and embedding, and only new or edited chunks are embedded
+            ChunkDiff diff = new ChunkDiff(businessDocumentChunkRepository.findStoredChunkRefs(document.getBusinessId(), documentId));
+            if (diff.storedCount > 0) {
+                log.info("Document {} has {} chunks stored; only changed chunks will be embedded",
+                        documentId, diff.storedCount);
+            }
+            int dimension = embeddingCacheService.dimensions();
+            int windowSize = ingestionProperties.getMaxBatchSize() * Math.max(1, ingestionProperties.getMaxInFlightBatches());
+            StreamingProgress progress = new StreamingProgress(document);
+            List<BusinessDocumentChunk> window = new ArrayList<>(windowSize);
+            List<BusinessDocumentChunk> kept = new ArrayList<>();
+
+            // Chunks arrive while Tika is still parsing; embed and store them in bounded windows. New rows are
+            // staged and kept rows only move when the run publishes, so until then search sees the old document
+            int totalChunks;
+            try (InputStream in = Files.newInputStream(staged)) {
+                totalChunks = documentTextExtractor.extractChunks(in, document.getFileName(), chunk -> {
+                    progress.seen++;
+                    progress.appendMenuSource(chunk, menuCatalogProperties.getMaxSourceChars());
+                    BusinessDocumentChunk entity = toEntity(progress.document, chunk, dimension);
+                    Long keptId = diff.claim(entity.getContentHash());
+                    if (keptId != null) {
+                        kept.add(keptPosition(entity, keptId));
+                        progress.kept++;
+                        progress.done++;
+                        return;
+                    }
+                    window.add(entity);
+                    if (window.size() >= windowSize) {
+                        flush(window, progress);
+                    }
+                });
+            }
+            flush(window, progress);
+            int removed = publish(document.getBusinessId(), documentId, kept, diff.unclaimedIds());
+
+            if (totalChunks == 0) {
+                document = progress.document;
+                document.setStatus(STATUS_EMPTY);
+                document.setChunksTotal(0);
+                document.setChunksDone(0);
+                document.setErrorMessage("No text content found in document");
+                businessDocumentRepository.save(document);
+                deleteStagedFile(staged);
+                rebuildMenuCatalog(document, progress);
+                return;
+            }
+
+            document = progress.document;
+            document.setChunksTotal(totalChunks);
+            document.setChunksDone(progress.done);
+            document.setStatus(STATUS_READY);
+            document.setErrorMessage(null);
+            document = businessDocumentRepository.save(document);
+            deleteStagedFile(staged);
+            rebuildMenuCatalog(document, progress);
+            // Only this entity's cached answers are orphaned; other tenants stay warm
+            cacheGenerations.bumpEntity(document.getBusinessId(), document.getEntityId());
+            log.info("Document {} processed and indexed ({} chunks: {} kept, {} embedded, {} removed)",
+                    documentId, totalChunks, progress.kept, totalChunks - progress.kept, removed);
+        } catch (Exception e) {
+            log.error("Ingestion failed for document {}", documentId, e);
+            fail(document, "Failed to process document: " + e.getMessage());
+        } finally {
+            // Chunks may have been added or removed even if the job failed part way
+            localChunkIndex.invalidate(document.getBusinessId(), document.getEntityId(), document.getDisplayName());
+            semanticAnswerCache.invalidate(document.getBusinessId(), document.getEntityId(), document.getDisplayName());
+        }
+    }
+
+    private void rebuildMenuCatalog(BusinessDocument document, StreamingProgress progress) {
+        try {
+            menuCatalogService.rebuild(document, progress.menuSource.toString());
+        } catch (Exception e) {
+            // The document stays searchable; orders fall back to deriving the menu from its chunks
+            log.warn("Menu catalog extraction failed for document {}: {}", document.getId(), e.getMessage());
+        }
+    }
+
+    private void flush(List<BusinessDocumentChunk> window, StreamingProgress progress) {
+        if (window.isEmpty()) {
+            return;
+        }
+        int doneBefore = progress.done;
+        // Total is a lower bound until extraction finishes
+        progress.document.setChunksTotal(progress.seen);
+        embeddingService.embedAndStoreChunks(window, stored -> {
+            progress.done = doneBefore + stored;
+            progress.document.setChunksDone(progress.done);
+            progress.document = businessDocumentRepository.save(progress.document);
+        });
+        window.clear();
+    }
+
+    /**
+     * Switch the document to its new chunks in one transaction: kept chunks move to their new position and
+     * neighbours, chunks no longer in the document are deleted and the staged ones become searchable. A run
+     * that fails before this point leaves the previous version untouched; its staged rows stay hidden and are
+     * reused by content hash (or deleted) by the next run.
+     *
+     * @return number of chunks removed
+     */
+    private int publish(String businessId, Long documentId, List<BusinessDocumentChunk> kept, List<Long> removedIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Kept chunks may have moved or gained new neighbours; their embeddings stay as they are
+            for (int from = 0; from < kept.size(); from += BATCH_SIZE) {
+                businessDocumentChunkRepository.batchUpdatePositions(
+                        kept.subList(from, Math.min(kept.size(), from + BATCH_SIZE)));
+            }
+            for (int from = 0; from < removedIds.size(); from += BATCH_SIZE) {
+                businessDocumentChunkRepository.deleteByIds(businessId,
+                        removedIds.subList(from, Math.min(removedIds.size(), from + BATCH_SIZE)));
+            }
+            businessDocumentChunkRepository.publishStaged(businessId, documentId);
+        });
+        return removedIds.size();
+    }
+
+    /**
+     * Just what batchUpdatePositions needs, so kept chunks are held until publishing without their text
+     */
+    private BusinessDocumentChunk keptPosition(BusinessDocumentChunk chunk, Long keptId) {
+        BusinessDocumentChunk position = new BusinessDocumentChunk();
+        position.setId(keptId);
+        position.setBusinessId(chunk.getBusinessId());
+        position.setChunkIndex(chunk.getChunkIndex());
+        position.setOverlapChars(chunk.getOverlapChars());
+        position.setPrevContent(chunk.getPrevContent());
+        position.setNextContent(chunk.getNextContent());
+        return position;
+    }
+
+    private BusinessDocumentChunk toEntity(BusinessDocument document, DocumentChunker.Chunk chunk, int dimension) {
+        BusinessDocumentChunk entity = new BusinessDocumentChunk();
+        entity.setDocumentId(document.getId());
+        entity.setBusinessId(document.getBusinessId());
+        entity.setEntityId(document.getEntityId());
+        entity.setDisplayName(document.getDisplayName());
+        entity.setChunkIndex(chunk.getIndex());
+        entity.setContent(chunk.getContent());
+        entity.setContentHash(DocumentChunker.contentHash(chunk.getContent()));
+        entity.setOverlapChars(chunk.getOverlapChars());
+        if (ingestionProperties.isInlineNeighborText()) {
+            entity.setPrevContent(chunk.getPrevContent());
+            entity.setNextContent(chunk.getNextContent());
+        }
+        entity.setEmbeddingDimension(dimension);
+        return entity;
+    }
+
+    private void fail(BusinessDocument document, String message) {
+        BusinessDocument current = businessDocumentRepository.findById(document.getId()).orElse(document);
+        current.setStatus(STATUS_FAILED);
+        current.setErrorMessage(message);
+        businessDocumentRepository.save(current);
+    }
+
+    private void deleteStagedFile(Path staged) {
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            log.warn("Could not delete staged upload {}: {}", staged, e.getMessage());
+        }
+    }
+
+    private static class StreamingProgress {
+        private BusinessDocument document;
+        private int seen;
+        private int done;
+        private int kept;
+        // Document text without the repeated chunk overlaps, for menu catalog extraction
+        private final StringBuilder menuSource = new StringBuilder();
+
+        private StreamingProgress(BusinessDocument document) {
+            this.document = document;
+        }
+
+        private void appendMenuSource(DocumentChunker.Chunk chunk, int maxChars) {
+            String content = chunk.getContent();
+            String text = chunk.getOverlapChars() > 0 && chunk.getOverlapChars() <= content.length()
+                    ? content.substring(chunk.getOverlapChars())
+                    : content;
+            int room = maxChars - menuSource.length();
+            if (room <= 2) {
+                return;
+            }
+            if (!menuSource.isEmpty()) {
+                menuSource.append("\n\n");
+                room -= 2;
+            }
+            menuSource.append(text, 0, Math.min(text.length(), room));
+        }
+    }
+
+    /**
+     * Stored chunks of a document grouped by content hash. Each stored row can be claimed by at most one
+     * incoming chunk; whatever is left unclaimed once extraction ends is no longer part of the document.
+     * Rows without a hash or without an embedding (their embedding batch failed) are never claimed, so the
+     * matching chunk is embedded again and the unusable row is removed.
+     */
+    static class ChunkDiff {
+        private final Map<String, Deque<Long>> byHash = new HashMap<>();
+        private final List<Long> unclaimable = new ArrayList<>();
+        private final int storedCount;
+
+        ChunkDiff(List<BusinessDocumentChunkRepositoryCustom.StoredChunkRef> stored) {
+            for (BusinessDocumentChunkRepositoryCustom.StoredChunkRef ref : stored) {
+                if (ref.contentHash() == null || !ref.embedded()) {
+                    unclaimable.add(ref.id());
+                } else {
+                    byHash.computeIfAbsent(ref.contentHash(), h -> new ArrayDeque<>()).add(ref.id());
+                }
+            }
+            this.storedCount = stored.size();
+        }
+
+        Long claim(String contentHash) {
+            Deque<Long> ids = byHash.get(contentHash);
+            return ids == null ? null : ids.poll();
+        }
+
+        List<Long> unclaimedIds() {
+            List<Long> ids = new ArrayList<>(unclaimable);
+            byHash.values().forEach(ids::addAll);
+            return ids;
+        }
+    }
+}
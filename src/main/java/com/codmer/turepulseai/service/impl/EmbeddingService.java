@@ -1,21 +1,45 @@
 package com.codmer.turepulseai.service.impl;
 
+import com.codmer.turepulseai.config.IngestionProperties;
 import com.codmer.turepulseai.entity.BusinessDocumentChunk;
 import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
 import com.codmer.turepulseai.service.EmbeddingCacheService;
 import com.pgvector.PGvector;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EmbeddingService {
 
     private final BusinessDocumentChunkRepository chunkRepository;
     private final EmbeddingCacheService embeddingCacheService;
+    private final TokenCountEstimator tokenCountEstimator;
+    private final IngestionProperties ingestionProperties;
+    private final Executor embeddingBatchExecutor;
+
+    public EmbeddingService(BusinessDocumentChunkRepository chunkRepository,
+                            EmbeddingCacheService embeddingCacheService,
+                            TokenCountEstimator tokenCountEstimator,
+                            IngestionProperties ingestionProperties,
+                            @Qualifier("embeddingBatchExecutor") Executor embeddingBatchExecutor) {
+        this.chunkRepository = chunkRepository;
+        this.embeddingCacheService = embeddingCacheService;
+        this.tokenCountEstimator = tokenCountEstimator;
+        this.ingestionProperties = ingestionProperties;
+        this.embeddingBatchExecutor = embeddingBatchExecutor;
+    }
 
     /**
      * Generate embedding and store chunk in database
@@ -39,6 +63,79 @@ public class EmbeddingService {
         }
     }
 
+    /**
+     * Embed and store a whole document's chunks.
+     * Chunks are grouped into token-budgeted batches (one embedding API call each), at most
+     * app.ingestion.max-in-flight-batches batches are embedded concurrently, and each finished batch
+     * is written in order with one JDBC batch insert on the calling thread.
+     * This method is deliberately not transactional: every batch commits on its own, so an
+     * interrupted ingestion job can resume from the chunks already stored.
+     * A batch whose embedding call fails is still stored, without embeddings, as before.
+     *
+     * @param onBatchStored receives the running total of stored chunks after each batch
+     * @return number of chunks written
+     */
+    public int embedAndStoreChunks(List<BusinessDocumentChunk> chunks, IntConsumer onBatchStored) {
+        List<List<BusinessDocumentChunk>> batches = planBatches(chunks);
+        int maxInFlight = Math.max(1, ingestionProperties.getMaxInFlightBatches());
+        Deque<CompletableFuture<List<BusinessDocumentChunk>>> inFlight = new ArrayDeque<>();
+        int stored = 0;
+
+        for (List<BusinessDocumentChunk> batch : batches) {
+            if (inFlight.size() >= maxInFlight) {
+                stored += chunkRepository.batchInsert(inFlight.poll().join());
+                onBatchStored.accept(stored);
+            }
+            inFlight.add(CompletableFuture.supplyAsync(() -> embedBatch(batch), embeddingBatchExecutor));
+        }
+        while (!inFlight.isEmpty()) {
+            stored += chunkRepository.batchInsert(inFlight.poll().join());
+            onBatchStored.accept(stored);
+        }
+
+        log.info("Stored {} chunks using {} embedding batches", stored, batches.size());
+        return stored;
+    }
+
+    private List<List<BusinessDocumentChunk>> planBatches(List<BusinessDocumentChunk> chunks) {
+        int maxTokens = ingestionProperties.getMaxBatchTokens();
+        int maxSize = ingestionProperties.getMaxBatchSize();
+        List<List<BusinessDocumentChunk>> batches = new ArrayList<>();
+        List<BusinessDocumentChunk> current = new ArrayList<>();
+        int currentTokens = 0;
+
+        for (BusinessDocumentChunk chunk : chunks) {
+            int tokens = tokenCountEstimator.estimate(chunk.getContent());
+            if (!current.isEmpty() && (currentTokens + tokens > maxTokens || current.size() >= maxSize)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(chunk);
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    private List<BusinessDocumentChunk> embedBatch(List<BusinessDocumentChunk> batch) {
+        try {
+            List<String> texts = batch.stream().map(BusinessDocumentChunk::getContent).toList();
+            List<float[]> vectors = embeddingCacheService.embedAll(texts);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setEmbedding(new PGvector(vectors.get(i)));
+                batch.get(i).setEmbeddingDimension(vectors.get(i).length);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to generate embeddings for batch starting at chunk {}. " +
+                    "Check your OpenAI API quota and key. Saving chunks without embedding...",
+                    batch.get(0).getChunkIndex(), e);
+        }
+        return batch;
+    }
+
     /**
      * Generate embedding for given text directly as PGvector
      */
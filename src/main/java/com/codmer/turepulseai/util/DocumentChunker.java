@@ -5,8 +5,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Component
 public class DocumentChunker {
@@ -22,6 +27,8 @@ public class DocumentChunker {
         private String content;
         private String prevContent;
         private String nextContent;
+        // Leading characters of content copied from the end of the previous chunk (overlap plus separator)
+        private int overlapChars;
     }
 
     public List<Chunk> chunk(String text) {
@@ -29,64 +36,188 @@ public class DocumentChunker {
     }
 
     public List<Chunk> chunk(String text, int maxChars, int overlap) {
-        String normalized = text == null ? "" : text.replace("\r", "").trim();
-        if (normalized.isEmpty()) {
+        if (text == null || text.isEmpty()) {
             return List.of();
         }
-
-        List<String> rawChunks = splitByParagraphs(normalized, maxChars, overlap);
         List<Chunk> result = new ArrayList<>();
+        ChunkStream stream = new ChunkStream(maxChars, overlap, result::add);
+        stream.write(text);
+        stream.finish();
+        return result;
+    }
 
-        for (int i = 0; i < rawChunks.size(); i++) {
-            String prev = i > 0 ? rawChunks.get(i - 1) : null;
-            String next = i < rawChunks.size() - 1 ? rawChunks.get(i + 1) : null;
-            result.add(new Chunk(i, rawChunks.get(i), prev, next));
+    /**
+     * Concatenate two consecutive chunks without repeating the overlap the second one starts with
+     */
+    public static String join(String first, String second, int secondOverlapChars) {
+        if (secondOverlapChars > 0 && secondOverlapChars <= second.length()) {
+            return first + "\n" + second.substring(secondOverlapChars);
         }
+        return first + "\n\n" + second;
+    }
 
-        return result;
+    /**
+     * SHA-256 hex of the exact chunk content, used to diff a re-uploaded document against its stored chunks.
+     * Matches encode(sha256(convert_to(content, 'UTF8')), 'hex') in Postgres so existing rows can be backfilled.
+     */
+    public static String contentHash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    private List<String> splitByParagraphs(String text, int maxChars, int overlap) {
-        String[] paragraphs = text.split("\\n\\s*\\n");
-        List<String> chunks = new ArrayList<>();
+    /**
+     * Start an incremental chunking session. Text can be written in arbitrary pieces (e.g. straight from
+     * a SAX parser) and chunks are handed to the sink as soon as the following chunk is known, so memory
+     * stays bounded by a few chunks rather than by the document size.
+     */
+    public ChunkStream stream(Consumer<Chunk> sink) {
+        return new ChunkStream(DEFAULT_MAX_CHARS, DEFAULT_OVERLAP, sink);
+    }
 
-        StringBuilder current = new StringBuilder();
-        for (String paragraph : paragraphs) {
-            String trimmed = paragraph.trim();
-            if (trimmed.isEmpty()) {
-                continue;
+    /**
+     * Incremental equivalent of splitting on blank lines, packing paragraphs up to maxChars and
+     * prefixing each chunk with the tail of the previous one. A paragraph longer than maxChars is
+     * cut at the last whitespace so a single huge paragraph cannot grow the buffers without bound.
+     */
+    public static class ChunkStream {
+        private final int maxChars;
+        private final int overlap;
+        private final Consumer<Chunk> sink;
+
+        private final StringBuilder paragraph = new StringBuilder();
+        private final StringBuilder pendingWhitespace = new StringBuilder();
+        private int pendingNewlines;
+
+        private final StringBuilder current = new StringBuilder();
+        private String lastContent;
+        private int lastOverlapChars;
+        private String beforeLastContent;
+        private int nextIndex;
+        private int emitted;
+
+        private ChunkStream(int maxChars, int overlap, Consumer<Chunk> sink) {
+            this.maxChars = maxChars;
+            this.overlap = overlap;
+            this.sink = sink;
+        }
+
+        public void write(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                accept(text.charAt(i));
             }
+        }
 
-            if (current.length() + trimmed.length() + 2 > maxChars) {
-                addWithOverlap(chunks, current.toString(), overlap);
-                current.setLength(0);
+        public void write(char[] ch, int start, int length) {
+            for (int i = start; i < start + length; i++) {
+                accept(ch[i]);
             }
+        }
 
+        /**
+         * Flush everything still buffered and emit the final chunk.
+         *
+         * @return total number of chunks emitted
+         */
+        public int finish() {
+            endParagraph();
             if (current.length() > 0) {
-                current.append("\n\n");
+                addWithOverlap(current.toString());
+                current.setLength(0);
             }
-            current.append(trimmed);
+            if (lastContent != null) {
+                sink.accept(new Chunk(nextIndex - 1, lastContent, beforeLastContent, null, lastOverlapChars));
+                emitted++;
+                lastContent = null;
+            }
+            return emitted;
         }
 
-        if (current.length() > 0) {
-            addWithOverlap(chunks, current.toString(), overlap);
+        private void accept(char c) {
+            if (c == '\r') {
+                return;
+            }
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f') {
+                if (paragraph.length() == 0) {
+                    return;
+                }
+                pendingWhitespace.append(c);
+                if (c == '\n') {
+                    pendingNewlines++;
+                }
+                return;
+            }
+            if (pendingNewlines >= 2) {
+                endParagraph();
+            } else {
+                paragraph.append(pendingWhitespace);
+            }
+            pendingWhitespace.setLength(0);
+            pendingNewlines = 0;
+            paragraph.append(c);
+
+            if (paragraph.length() >= maxChars) {
+                splitOversizedParagraph();
+            }
         }
 
-        return chunks;
-    }
+        private void splitOversizedParagraph() {
+            int cut = paragraph.lastIndexOf(" ");
+            if (cut <= 0) {
+                cut = paragraph.length();
+            }
+            String head = paragraph.substring(0, cut);
+            String tail = paragraph.substring(cut).trim();
+            paragraph.setLength(0);
+            addParagraph(head);
+            paragraph.append(tail);
+        }
 
-    private void addWithOverlap(List<String> chunks, String content, int overlap) {
-        if (content.length() <= overlap || chunks.isEmpty()) {
-            chunks.add(content);
-            return;
+        private void endParagraph() {
+            if (paragraph.length() > 0) {
+                addParagraph(paragraph.toString());
+                paragraph.setLength(0);
+            }
+            pendingWhitespace.setLength(0);
+            pendingNewlines = 0;
         }
 
-        String prev = chunks.get(chunks.size() - 1);
-        String overlapText = prev.substring(Math.max(0, prev.length() - overlap));
-        if (!content.startsWith(overlapText)) {
-            content = overlapText + "\n" + content;
+        private void addParagraph(String raw) {
+            String trimmed = raw.trim();
+            if (trimmed.isEmpty()) {
+                return;
+            }
+            if (current.length() > 0 && current.length() + trimmed.length() + 2 > maxChars) {
+                addWithOverlap(current.toString());
+                current.setLength(0);
+            }
+            if (current.length() > 0) {
+                current.append("\n\n");
+            }
+            current.append(trimmed);
+        }
+
+        private void addWithOverlap(String content) {
+            int overlapChars = 0;
+            if (content.length() > overlap && lastContent != null) {
+                String overlapText = lastContent.substring(Math.max(0, lastContent.length() - overlap));
+                if (!content.startsWith(overlapText)) {
+                    content = overlapText + "\n" + content;
+                    overlapChars = overlapText.length() + 1;
+                }
+            }
+            if (lastContent != null) {
+                // The previous chunk is complete now that its successor is known
+                sink.accept(new Chunk(nextIndex - 1, lastContent, beforeLastContent, content, lastOverlapChars));
+                emitted++;
+            }
+            beforeLastContent = lastContent;
+            lastContent = content;
+            lastOverlapChars = overlapChars;
+            nextIndex++;
         }
-        chunks.add(content);
     }
 }
-
@@ -1,37 +1,294 @@
 package com.codmer.turepulseai.util;
 
+import com.codmer.turepulseai.config.IngestionProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.parser.AutoDetectParser;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @Slf4j
 @Component
 public class DocumentTextExtractor {
 
+    // AutoDetectParser is thread-safe and expensive to build (it loads every parser via the service loader)
+    private final AutoDetectParser parser = new AutoDetectParser();
+    private final DocumentChunker documentChunker;
+    private final IngestionProperties ingestionProperties;
+    private final ThreadPoolTaskExecutor documentParseExecutor;
+
+    public DocumentTextExtractor(DocumentChunker documentChunker,
+                                 IngestionProperties ingestionProperties,
+                                 @Qualifier("documentParseExecutor") ThreadPoolTaskExecutor documentParseExecutor) {
+        this.documentChunker = documentChunker;
+        this.ingestionProperties = ingestionProperties;
+        this.documentParseExecutor = documentParseExecutor;
+    }
+
     public String extractText(MultipartFile file) {
         try (InputStream inputStream = file.getInputStream()) {
+            return extractText(inputStream, file.getOriginalFilename());
+        } catch (IOException e) {
+            log.error("Failed to read document: {}. {}", file.getOriginalFilename(), e.getMessage(), e);
+            throw new IllegalStateException("Failed to extract text from document", e);
+        }
+    }
+
+    public String extractText(InputStream inputStream, String fileName) {
+        StringBuilder text = new StringBuilder();
+        parse(inputStream, fileName, text::append);
+        return text.toString().trim();
+    }
+
+    /**
+     * Stream the document through Tika straight into an incremental chunker.
+     * Peak memory is bounded by the chunk size rather than the document size; extraction stops at
+     * app.ingestion.max-extracted-chars or app.ingestion.parse-timeout-seconds, whichever comes first.
+     *
+     * @return number of chunks handed to the sink
+     */
+    public int extractChunks(InputStream inputStream, String fileName, Consumer<DocumentChunker.Chunk> sink) {
+        DocumentChunker.ChunkStream chunkStream = documentChunker.stream(sink);
+        parse(inputStream, fileName, chunkStream::write);
+        return chunkStream.finish();
+    }
+
+    /**
+     * Tika runs on a parse thread and only hands copies of its text over a bounded queue; the sink (chunking,
+     * and in ingestion the embedding and inserts) is written here on the calling thread. The caller waits for
+     * text at most app.ingestion.parse-timeout-seconds in total, so time spent in the sink is not counted, and a
+     * slow sink pauses the parser instead of letting text pile up. A parser that loops or blocks without producing
+     * text never reaches the handler's own deadline check; on timeout the parse is abandoned (queued text is
+     * dropped, no more text reaches the sink), its thread interrupted and the stream closed, and the caller keeps
+     * what was extracted so far.
+     */
+    private void parse(InputStream inputStream, String fileName, TextSink sink) {
+        TextHandoff handoff = new TextHandoff();
+        StreamingTextHandler handler = new StreamingTextHandler(handoff);
+        Future<?> parsing;
+        try {
+            parsing = documentParseExecutor.submit(() -> {
+                try {
+                    runParser(inputStream, fileName, handler);
+                } finally {
+                    handoff.end();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Every parse thread is taken (possibly by runaway parses); parse here with the in-handler deadline only
+            log.warn("No parse thread free for {}; parsing on the calling thread", fileName);
+            runParser(inputStream, fileName, new StreamingTextHandler(sink::write));
+            return;
+        }
+        boolean finished = false;
+        try {
+            long budget = TimeUnit.SECONDS.toNanos(ingestionProperties.getParseTimeoutSeconds());
+            long waited = 0;
+            while (true) {
+                long before = System.nanoTime();
+                char[] piece = handoff.pieces.poll(budget - waited, TimeUnit.NANOSECONDS);
+                waited += System.nanoTime() - before;
+                if (piece == null) {
+                    log.warn("Stopped extracting {} early: parse timeout of {}s reached", fileName,
+                            ingestionProperties.getParseTimeoutSeconds());
+                    return;
+                }
+                if (piece == TextHandoff.END) {
+                    break;
+                }
+                sink.write(piece, 0, piece.length);
+            }
+            parsing.get();
+            finished = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while extracting text from document", e);
+        } catch (ExecutionException e) {
+            finished = true;
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Failed to extract text from document", e.getCause());
+        } finally {
+            if (!finished) {
+                stop(parsing, inputStream, handler, handoff);
+            }
+        }
+    }
+
+    private void stop(Future<?> parsing, InputStream inputStream, StreamingTextHandler handler, TextHandoff handoff) {
+        handler.cancel();
+        handoff.abandon();
+        parsing.cancel(true);
+        try {
+            // Unblocks a parser stuck reading, e.g. inflating a zip bomb
+            inputStream.close();
+        } catch (IOException e) {
+            log.debug("Could not close abandoned document stream: {}", e.getMessage());
+        }
+    }
+
+    private void runParser(InputStream inputStream, String fileName, StreamingTextHandler handler) {
+        try {
             Metadata metadata = new Metadata();
-            metadata.set("resourceName", file.getOriginalFilename());
+            metadata.set("resourceName", fileName);
+            parser.parse(inputStream, new BodyContentHandler(handler), metadata, new ParseContext());
+        } catch (StopExtractionException e) {
+            log.warn("Stopped extracting {} early: {}", fileName, e.getMessage());
+        } catch (SAXException e) {
+            if (e.getException() instanceof StopExtractionException stop) {
+                log.warn("Stopped extracting {} early: {}", fileName, stop.getMessage());
+                return;
+            }
+            failed(fileName, handler, e);
+        } catch (IOException | TikaException e) {
+            if (e.getCause() instanceof StopExtractionException stop) {
+                log.warn("Stopped extracting {} early: {}", fileName, stop.getMessage());
+                return;
+            }
+            failed(fileName, handler, e);
+        }
+    }
+
+    private void failed(String fileName, StreamingTextHandler handler, Exception e) {
+        if (handler.isCancelled()) {
+            // The caller gave up on this parse and closed its stream; nobody is waiting for the error
+            log.debug("Abandoned parse of {} ended: {}", fileName, e.getMessage());
+            return;
+        }
+        log.error("Failed to extract text from document: {}. {}", fileName, e.getMessage(), e);
+        throw new IllegalStateException("Failed to extract text from document", e);
+    }
 
-            AutoDetectParser parser = new AutoDetectParser();
-            BodyContentHandler handler = new BodyContentHandler(-1);
-            ParseContext context = new ParseContext();
-            parser.parse(inputStream, handler, metadata, context);
+    private interface TextSink {
+        void write(char[] ch, int start, int length);
+    }
 
-            String content = handler.toString();
-            return content != null ? content.trim() : "";
-        } catch (IOException | SAXException | TikaException e) {
-            log.error("Failed to extract text from document: {}. {}", file.getOriginalFilename(), e.getMessage(), e);
-            throw new IllegalStateException("Failed to extract text from document", e);
+    /**
+     * Where the handler sends text on the parse thread; may stop the parse by throwing
+     */
+    private interface TextTarget {
+        void write(char[] ch, int start, int length) throws SAXException;
+    }
+
+    /**
+     * Text on its way from the parse thread to the thread that called parse(), which alone writes to the sink.
+     * Bounded, so the parse thread waits while the sink catches up.
+     */
+    private static class TextHandoff implements TextTarget {
+        private static final int PIECES_IN_FLIGHT = 256;
+        private static final char[] END = new char[0];
+
+        private final BlockingQueue<char[]> pieces = new ArrayBlockingQueue<>(PIECES_IN_FLIGHT);
+        private volatile boolean abandoned;
+
+        @Override
+        public void write(char[] ch, int start, int length) throws SAXException {
+            offer(Arrays.copyOfRange(ch, start, start + length));
+        }
+
+        private void end() {
+            try {
+                offer(END);
+            } catch (SAXException e) {
+                // Abandoned: nobody is reading any more
+            }
+        }
+
+        private void offer(char[] piece) throws SAXException {
+            try {
+                while (!pieces.offer(piece, 100, TimeUnit.MILLISECONDS)) {
+                    if (abandoned) {
+                        throw new StopExtractionException("extraction cancelled");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StopExtractionException("extraction cancelled");
+            }
+        }
+
+        private void abandon() {
+            abandoned = true;
+            pieces.clear();
+        }
+    }
+
+    /**
+     * Receives body text from Tika and forwards it without buffering, enforcing the character cap
+     * and the parse deadline on every callback. Time spent waiting for the sink to take the text is not
+     * parse time, so it does not count towards the deadline.
+     */
+    private class StreamingTextHandler extends DefaultHandler {
+        private final TextTarget target;
+        private final long maxChars = ingestionProperties.getMaxExtractedChars();
+        private final long budget = TimeUnit.SECONDS.toNanos(ingestionProperties.getParseTimeoutSeconds());
+        private final long started = System.nanoTime();
+        private long sinkNanos;
+        private long written;
+        private volatile boolean cancelled;
+
+        private StreamingTextHandler(TextTarget target) {
+            this.target = target;
+        }
+
+        private void cancel() {
+            cancelled = true;
+        }
+
+        private boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (cancelled) {
+                throw new StopExtractionException("extraction cancelled");
+            }
+            if (System.nanoTime() - started - sinkNanos > budget) {
+                throw new StopExtractionException("parse timeout of "
+                        + ingestionProperties.getParseTimeoutSeconds() + "s reached");
+            }
+            int allowed = (int) Math.min(length, maxChars - written);
+            if (allowed > 0) {
+                long before = System.nanoTime();
+                target.write(ch, start, allowed);
+                sinkNanos += System.nanoTime() - before;
+                written += allowed;
+            }
+            if (allowed < length) {
+                throw new StopExtractionException("character cap of " + maxChars + " reached");
+            }
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            characters(ch, start, length);
+        }
+    }
+
+    private static class StopExtractionException extends SAXException {
+        private StopExtractionException(String message) {
+            super(message);
         }
     }
 }
@@ -0,0 +1,117 @@
+package com.codmer.turepulseai.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Base64;
+
+/**
+ * Moves image payloads from the provider to their destination through one fixed-size buffer, so a
+ * multi-megabyte image is never held as a full byte[] or Base64 String on the way.
+ */
+public final class ImageStreams {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Enough for every signature detectMimeType looks at
+    private static final int HEAD_SIZE = 12;
+
+    private ImageStreams() {
+    }
+
+    /**
+     * Thrown once a payload passes the configured size limit; the destination then holds a partial image
+     */
+    public static class ImageTooLargeException extends IOException {
+        public ImageTooLargeException(long maxBytes) {
+            super("Image exceeds the limit of " + maxBytes + " bytes");
+        }
+    }
+
+    /**
+     * Bytes written and the MIME type sniffed from the first of them
+     */
+    public record CopyResult(long bytes, String mimeType) {
+    }
+
+    /**
+     * Copy {@code in} to {@code out} until end of stream or until more than {@code maxBytes} were read
+     *
+     * @throws ImageTooLargeException when the payload is larger than maxBytes
+     */
+    public static CopyResult copy(InputStream in, OutputStream out, long maxBytes) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] head = new byte[HEAD_SIZE];
+        int headLength = 0;
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new ImageTooLargeException(maxBytes);
+            }
+            if (headLength < HEAD_SIZE) {
+                int take = Math.min(read, HEAD_SIZE - headLength);
+                System.arraycopy(buffer, 0, head, headLength, take);
+                headLength += take;
+            }
+            out.write(buffer, 0, read);
+        }
+        return new CopyResult(total, detectMimeType(head, headLength));
+    }
+
+    /**
+     * Decode a Base64 payload (b64_json) while copying, without materializing the decoded image
+     */
+    public static CopyResult copyBase64(String base64, OutputStream out, long maxBytes) throws IOException {
+        // Decoded size is about 3/4 of the encoded size; reject early instead of decoding a payload we would discard
+        if ((long) base64.length() / 4 * 3 > maxBytes + 3) {
+            throw new ImageTooLargeException(maxBytes);
+        }
+        try (InputStream decoded = Base64.getMimeDecoder().wrap(new AsciiInputStream(base64))) {
+            return copy(decoded, out, maxBytes);
+        }
+    }
+
+    /**
+     * The provider documents PNG, but some models answer with JPEG or WebP; sniff the magic bytes
+     */
+    public static String detectMimeType(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return "image/png";
+    }
+
+    /**
+     * Reads the characters of a Base64 String as bytes, instead of copying it with getBytes()
+     */
+    private static final class AsciiInputStream extends InputStream {
+        private final String text;
+        private int position;
+
+        private AsciiInputStream(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read() {
+            return position < text.length() ? text.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (position >= text.length()) {
+                return -1;
+            }
+            int count = Math.min(length, text.length() - position);
+            for (int i = 0; i < count; i++) {
+                target[offset + i] = (byte) text.charAt(position++);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.codmer.turepulseai.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+public final class LlmJsonParser {
+
+    private LlmJsonParser() {
+    }
+
+    /**
+     * Parse a JSON array of strings out of an LLM response that may wrap it in prose or code fences
+     */
+    public static List<String> parseStringList(String response) {
+        if (response == null) {
+            return List.of();
+        }
+        try {
+            // Clean response to extract JSON array
+            String cleaned = response.trim();
+            int start = cleaned.indexOf('[');
+            int end = cleaned.lastIndexOf(']');
+
+            if (start == -1 || end == -1 || start >= end) {
+                log.warn("No valid JSON array found in response: {}", response);
+                return List.of();
+            }
+
+            String jsonArray = cleaned.substring(start, end + 1);
+            log.debug("Extracted JSON array: {}", jsonArray);
+
+            // Simple parsing - extract items between quotes
+            List<String> items = new ArrayList<>();
+            String[] parts = jsonArray.split("\"");
+            for (int i = 1; i < parts.length; i += 2) {
+                String item = parts[i].trim();
+                if (!item.isEmpty()) {
+                    items.add(item);
+                    log.debug("Parsed item: '{}'", item);
+                }
+            }
+
+            log.info("Successfully parsed {} items from response", items.size());
+            return items;
+        } catch (Exception e) {
+            log.warn("Failed to parse JSON list from LLM response: {}", response, e);
+            return List.of();
+        }
+    }
+}
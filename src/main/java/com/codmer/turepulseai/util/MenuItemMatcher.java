@@ -0,0 +1,202 @@
+package com.codmer.turepulseai.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fuzzy lookup of requested items in a menu, built once per catalog.
+ * <p>
+ * Matching is STRICT: a requested item matches a menu item when their word counts differ by at most one,
+ * words are compared position by position, every compared word is equal or a typo of the other, at least
+ * 80% of the words line up and at least half of them are exact. A typo is a word of similar length
+ * (80% length ratio) within a bounded edit distance of 25% of the longer word.
+ * <p>
+ * Because at least one word must be exact, only menu items sharing a word with the request can match,
+ * so candidates come from a word-level inverted index instead of a scan over the whole menu. Menu words
+ * are normalized and split once at build time.
+ */
+public final class MenuItemMatcher {
+
+    private static final double MIN_MATCH_RATE = 0.8;
+    private static final double MIN_EXACT_RATE = 0.5;
+    private static final double MIN_LENGTH_RATIO = 0.8;
+    private static final double MAX_TYPO_RATE = 0.25;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    public record Match(String item, double score, boolean exact) {
+    }
+
+    private final String[] names;
+    private final String[][] words;
+    private final Map<String, Integer> exactIndex = new HashMap<>();
+    private final Map<String, int[]> postings;
+
+    private MenuItemMatcher(List<String> normalizedNames) {
+        int size = normalizedNames.size();
+        this.names = normalizedNames.toArray(new String[0]);
+        this.words = new String[size][];
+        Map<String, List<Integer>> byWord = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            words[i] = split(names[i]);
+            exactIndex.putIfAbsent(names[i], i);
+            for (String word : words[i]) {
+                List<Integer> ids = byWord.computeIfAbsent(word, w -> new ArrayList<>());
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != i) {
+                    ids.add(i);
+                }
+            }
+        }
+        this.postings = new HashMap<>(byWord.size() * 2);
+        byWord.forEach((word, ids) -> postings.put(word, ids.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * @param normalizedNames menu item names, already lower-cased with whitespace collapsed
+     */
+    public static MenuItemMatcher build(List<String> normalizedNames) {
+        return new MenuItemMatcher(normalizedNames);
+    }
+
+    /**
+     * Best matching menu item for an already normalized request, exact matches first
+     */
+    public Optional<Match> bestMatch(String normalizedRequest) {
+        List<Match> matches = candidates(normalizedRequest, 1);
+        return matches.isEmpty() ? Optional.empty() : Optional.of(matches.get(0));
+    }
+
+    /**
+     * All menu items matching the request, ranked by score (1.0 is an exact match)
+     */
+    public List<Match> candidates(String normalizedRequest, int limit) {
+        Integer exact = exactIndex.get(normalizedRequest);
+        if (exact != null) {
+            return List.of(new Match(names[exact], 1.0, true));
+        }
+
+        String[] requestWords = split(normalizedRequest);
+        if (requestWords.length == 0) {
+            return List.of();
+        }
+        // Menu items sharing at least one word with the request; each is verified once
+        int[] candidates = NO_POSTINGS;
+        int count = 0;
+        for (String word : requestWords) {
+            int[] ids = postings.getOrDefault(word, NO_POSTINGS);
+            if (ids.length == 0) {
+                continue;
+            }
+            if (count + ids.length > candidates.length) {
+                candidates = Arrays.copyOf(candidates, Math.max(16, (count + ids.length) * 2));
+            }
+            System.arraycopy(ids, 0, candidates, count, ids.length);
+            count += ids.length;
+        }
+        if (count == 0) {
+            return List.of();
+        }
+        Arrays.sort(candidates, 0, count);
+
+        List<Match> matches = new ArrayList<>();
+        int previous = -1;
+        for (int c = 0; c < count; c++) {
+            int id = candidates[c];
+            if (id == previous) {
+                continue;
+            }
+            previous = id;
+            double score = score(requestWords, words[id]);
+            if (score > 0) {
+                matches.add(new Match(names[id], score, false));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::score).reversed());
+        return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * @return 0 when the items do not match, otherwise the share of aligned words weighted by typo distance
+     */
+    private static double score(String[] requested, String[] menu) {
+        if (Math.abs(requested.length - menu.length) > 1) {
+            return 0;
+        }
+        int totalWords = Math.max(requested.length, menu.length);
+        int compared = Math.min(requested.length, menu.length);
+        if ((double) compared / totalWords < MIN_MATCH_RATE) {
+            return 0;
+        }
+
+        int exactMatches = 0;
+        double weight = 0;
+        for (int i = 0; i < compared; i++) {
+            String r = requested[i];
+            String m = menu[i];
+            if (r.equals(m)) {
+                exactMatches++;
+                weight += 1.0;
+                continue;
+            }
+            int maxLength = Math.max(r.length(), m.length());
+            if ((double) Math.min(r.length(), m.length()) / maxLength < MIN_LENGTH_RATIO) {
+                return 0;
+            }
+            int distance = boundedEditDistance(r, m, (int) (maxLength * MAX_TYPO_RATE));
+            if (distance < 0) {
+                return 0;
+            }
+            weight += 1.0 - (double) distance / maxLength;
+        }
+        if (exactMatches < Math.ceil(totalWords * MIN_EXACT_RATE)) {
+            return 0;
+        }
+        // Scaled below 1.0 so a fuzzy match never outranks an exact one
+        return 0.99 * weight / totalWords;
+    }
+
+    /**
+     * Levenshtein distance restricted to a diagonal band of the given width
+     *
+     * @return the distance, or -1 when it exceeds maxDistance
+     */
+    static int boundedEditDistance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return -1;
+        }
+        int inf = maxDistance + 1;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j <= maxDistance ? j : inf;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(b.length(), i + maxDistance);
+            Arrays.fill(current, inf);
+            current[0] = i <= maxDistance ? i : inf;
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, inf);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return -1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxDistance ? previous[b.length()] : -1;
+    }
+
+    private static String[] split(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+}
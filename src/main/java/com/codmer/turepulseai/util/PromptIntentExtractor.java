@@ -0,0 +1,386 @@
+package com.codmer.turepulseai.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the marketing intent of an image prompt (occasion, hero product, call to action, offer and quoted
+ * copy) in one scan of the text, built once per keyword dictionary.
+ * <p>
+ * All keyword dictionaries, plus the words that can start an offer, are compiled into a single Aho-Corasick
+ * automaton that is fed the prompt one character at a time, case-insensitively, without a lower-cased copy.
+ * The same loop tokenizes digit runs, currency and percent signs, sentence ends and quotes, so no second pass
+ * over the prompt is needed. The offer grammars are then confirmed with anchored matches at the few candidate
+ * positions only. Results are identical to searching the prompt once per keyword and per pattern: dictionary
+ * order decides between several occasions or hero keywords, and the leftmost match wins for everything else.
+ */
+public final class PromptIntentExtractor {
+
+    public static final Pattern PRICE_VALUE_PATTERN = Pattern.compile("(?i)(\\$\\s?\\d+|\\d+\\s?\\$)");
+    private static final Pattern ANY_TWO_OFFER_PATTERN = Pattern.compile("(?i)(any\\s+two\\s+[a-z\\s]+?\\s+\\$?\\d+)");
+    private static final Pattern BUY_GET_PATTERN = Pattern.compile("(?i)buy\\s+\\d+\\s+get\\s+\\d+");
+    private static final Pattern PERCENT_OFF_PATTERN = Pattern.compile("(?i)\\d+%\\s*(?:off|discount)");
+
+    private static final int OCCASION = 0;
+    private static final int HERO = 1;
+    private static final int CTA = 2;
+    // "buy any two ..." up to the end of the sentence is taken as one combined offer
+    private static final int BUY_ANY_TWO = 3;
+    private static final int ANY = 4;
+    private static final int BUY = 5;
+
+    private static final int[] NO_OUTPUT = new int[0];
+
+    public enum OfferKind {
+        // "buy any two ..." up to the end of its sentence
+        COMBINED,
+        // "any two <item> $20"
+        ANY_TWO,
+        // "buy 1 get 1"
+        BUY_GET,
+        // "20% off"
+        PERCENT_OFF,
+        // "$20" or "20$"
+        PRICE
+    }
+
+    /**
+     * @param text the offer exactly as written in the prompt; formatting is up to the caller
+     */
+    public record Offer(OfferKind kind, String text) {
+    }
+
+    /**
+     * Keywords are returned as they appear in the dictionary
+     */
+    public record Intent(String occasion, String heroProduct, String cta, Offer offer, List<String> quotedPhrases) {
+
+        static final Intent EMPTY = new Intent(null, null, null, null, List.of());
+    }
+
+    // Keyword characters map to columns of the transition table; any other character is column 0
+    private final int[] asciiColumns = new int[128];
+    private final Map<Character, Integer> otherColumns = new HashMap<>();
+    private final int[][] transitions;
+    private final int[][] outputs;
+    private final String[] keywords;
+    private final int[] groups;
+    private final int[] ranks;
+
+    private PromptIntentExtractor(List<String> occasions, List<String> heroKeywords, List<String> ctaPhrases) {
+        List<String> words = new ArrayList<>();
+        List<Integer> wordGroups = new ArrayList<>();
+        List<Integer> wordRanks = new ArrayList<>();
+        addAll(words, wordGroups, wordRanks, occasions, OCCASION);
+        addAll(words, wordGroups, wordRanks, heroKeywords, HERO);
+        addAll(words, wordGroups, wordRanks, ctaPhrases, CTA);
+        addAll(words, wordGroups, wordRanks, List.of("buy any two"), BUY_ANY_TWO);
+        addAll(words, wordGroups, wordRanks, List.of("any"), ANY);
+        addAll(words, wordGroups, wordRanks, List.of("buy"), BUY);
+        this.keywords = words.toArray(new String[0]);
+        this.groups = wordGroups.stream().mapToInt(Integer::intValue).toArray();
+        this.ranks = wordRanks.stream().mapToInt(Integer::intValue).toArray();
+
+        int columns = 1;
+        for (String keyword : keywords) {
+            for (char c : keyword.toCharArray()) {
+                if (column(c) == 0) {
+                    if (c < 128) {
+                        asciiColumns[c] = columns++;
+                    } else {
+                        otherColumns.put(c, columns++);
+                    }
+                }
+            }
+        }
+
+        // Trie
+        List<int[]> next = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        next.add(newRow(columns));
+        out.add(new ArrayList<>());
+        for (int k = 0; k < keywords.length; k++) {
+            int state = 0;
+            for (char c : keywords[k].toCharArray()) {
+                int col = column(c);
+                if (next.get(state)[col] <= 0) {
+                    next.get(state)[col] = next.size();
+                    next.add(newRow(columns));
+                    out.add(new ArrayList<>());
+                }
+                state = next.get(state)[col];
+            }
+            out.get(state).add(k);
+        }
+
+        // Failure links, folded into a complete transition table so scanning never follows a link
+        int[] fail = new int[next.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        int[] root = next.get(0);
+        for (int col = 0; col < columns; col++) {
+            if (root[col] > 0) {
+                fail[root[col]] = 0;
+                queue.add(root[col]);
+            } else {
+                root[col] = 0;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = next.get(state);
+            out.get(state).addAll(out.get(fail[state]));
+            for (int col = 0; col < columns; col++) {
+                int child = row[col];
+                if (child > 0) {
+                    fail[child] = next.get(fail[state])[col];
+                    queue.add(child);
+                } else {
+                    row[col] = next.get(fail[state])[col];
+                }
+            }
+        }
+
+        this.transitions = next.toArray(new int[0][]);
+        this.outputs = new int[out.size()][];
+        for (int state = 0; state < out.size(); state++) {
+            List<Integer> matches = out.get(state);
+            outputs[state] = matches.isEmpty() ? NO_OUTPUT : matches.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * @param occasions    checked in this order when a prompt names several
+     * @param heroKeywords checked in this order when a prompt names several
+     * @param ctaPhrases   calls to action; the first one in the prompt wins
+     */
+    public static PromptIntentExtractor compile(List<String> occasions, List<String> heroKeywords, List<String> ctaPhrases) {
+        return new PromptIntentExtractor(occasions, heroKeywords, ctaPhrases);
+    }
+
+    public Intent extract(String prompt) {
+        if (prompt == null || prompt.isBlank()) {
+            return Intent.EMPTY;
+        }
+        int length = prompt.length();
+        int occasion = -1;
+        int hero = -1;
+        int cta = -1;
+        int ctaStart = Integer.MAX_VALUE;
+        int combinedStart = -1;
+        Positions anyStarts = new Positions();
+        Positions buyStarts = new Positions();
+        Positions percentStarts = new Positions();
+        Positions priceStarts = new Positions();
+        Positions periods = new Positions();
+        Positions exclamations = new Positions();
+        Positions questions = new Positions();
+        Positions doubleQuotes = new Positions();
+        Positions singleQuotes = new Positions();
+
+        int state = 0;
+        int digitRun = -1;
+        for (int i = 0; i < length; i++) {
+            char c = prompt.charAt(i);
+
+            state = transitions[state][column(Character.toLowerCase(c))];
+            for (int k : outputs[state]) {
+                int start = i - keywords[k].length() + 1;
+                switch (groups[k]) {
+                    case OCCASION -> occasion = occasion < 0 || ranks[k] < ranks[occasion] ? k : occasion;
+                    case HERO -> hero = hero < 0 || ranks[k] < ranks[hero] ? k : hero;
+                    case CTA -> {
+                        if (start < ctaStart) {
+                            ctaStart = start;
+                            cta = k;
+                        }
+                    }
+                    case BUY_ANY_TWO -> combinedStart = combinedStart < 0 ? start : combinedStart;
+                    case ANY -> anyStarts.add(start);
+                    case BUY -> buyStarts.add(start);
+                    default -> {
+                    }
+                }
+            }
+
+            if (c >= '0' && c <= '9') {
+                if (digitRun < 0) {
+                    digitRun = i;
+                    priceStarts.add(i);
+                }
+                continue;
+            }
+            if (c == '%' && digitRun >= 0) {
+                percentStarts.add(digitRun);
+            }
+            digitRun = -1;
+            switch (c) {
+                case '$' -> priceStarts.add(i);
+                case '.' -> periods.add(i);
+                case '!' -> exclamations.add(i);
+                case '?' -> questions.add(i);
+                case '"' -> doubleQuotes.add(i);
+                case '\'' -> singleQuotes.add(i);
+                default -> {
+                }
+            }
+        }
+
+        return new Intent(
+                occasion < 0 ? null : keywords[occasion],
+                hero < 0 ? null : keywords[hero],
+                cta < 0 ? null : keywords[cta],
+                offer(prompt, combinedStart, anyStarts, buyStarts, percentStarts, priceStarts, periods, exclamations, questions),
+                quotedPhrases(prompt, doubleQuotes, singleQuotes));
+    }
+
+    private static Offer offer(String prompt, int combinedStart, Positions anyStarts, Positions buyStarts,
+                               Positions percentStarts, Positions priceStarts,
+                               Positions periods, Positions exclamations, Positions questions) {
+        if (combinedStart >= 0) {
+            // Up to the sentence end: a period if there is one, else an exclamation or question mark
+            int end = periods.firstAtOrAfter(combinedStart);
+            if (end < 0) {
+                end = exclamations.firstAtOrAfter(combinedStart);
+            }
+            if (end < 0) {
+                end = questions.firstAtOrAfter(combinedStart);
+            }
+            String span = prompt.substring(combinedStart, end < 0 ? prompt.length() : end).trim();
+            if (!span.isEmpty()) {
+                return new Offer(OfferKind.COMBINED, span);
+            }
+        }
+        Matcher anyTwo = firstMatchAt(ANY_TWO_OFFER_PATTERN, prompt, anyStarts);
+        if (anyTwo != null) {
+            return new Offer(OfferKind.ANY_TWO, anyTwo.group(1));
+        }
+        Matcher buyGet = firstMatchAt(BUY_GET_PATTERN, prompt, buyStarts);
+        if (buyGet != null) {
+            return new Offer(OfferKind.BUY_GET, buyGet.group());
+        }
+        Matcher percent = firstMatchAt(PERCENT_OFF_PATTERN, prompt, percentStarts);
+        if (percent != null) {
+            return new Offer(OfferKind.PERCENT_OFF, percent.group());
+        }
+        Matcher price = firstMatchAt(PRICE_VALUE_PATTERN, prompt, priceStarts);
+        if (price != null) {
+            return new Offer(OfferKind.PRICE, price.group());
+        }
+        return null;
+    }
+
+    /**
+     * A match can only begin where its first token does, so trying the pattern anchored at those positions, in
+     * order, finds the same match as a find() over the whole prompt
+     */
+    private static Matcher firstMatchAt(Pattern pattern, String prompt, Positions starts) {
+        if (starts.size == 0) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(prompt);
+        for (int i = 0; i < starts.size; i++) {
+            matcher.region(starts.values[i], prompt.length());
+            if (matcher.lookingAt()) {
+                return matcher;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Non-blank text between a quote and the next quote of the same kind, matched left to right like
+     * {@code "([^"]+)"|'([^']+)'}; an unclosed or empty quote is skipped
+     */
+    private static List<String> quotedPhrases(String prompt, Positions doubleQuotes, Positions singleQuotes) {
+        if (doubleQuotes.size < 2 && singleQuotes.size < 2) {
+            return List.of();
+        }
+        List<String> phrases = new ArrayList<>();
+        int cursor = 0;
+        int d = 0;
+        int s = 0;
+        while (true) {
+            while (d < doubleQuotes.size && doubleQuotes.values[d] < cursor) {
+                d++;
+            }
+            while (s < singleQuotes.size && singleQuotes.values[s] < cursor) {
+                s++;
+            }
+            boolean useDouble;
+            if (d < doubleQuotes.size && s < singleQuotes.size) {
+                useDouble = doubleQuotes.values[d] < singleQuotes.values[s];
+            } else if (d < doubleQuotes.size || s < singleQuotes.size) {
+                useDouble = d < doubleQuotes.size;
+            } else {
+                return phrases;
+            }
+            Positions quotes = useDouble ? doubleQuotes : singleQuotes;
+            int index = useDouble ? d : s;
+            int open = quotes.values[index];
+            int close = index + 1 < quotes.size ? quotes.values[index + 1] : -1;
+            if (close > open + 1) {
+                String phrase = prompt.substring(open + 1, close);
+                if (!phrase.isBlank()) {
+                    phrases.add(phrase.trim());
+                }
+                cursor = close + 1;
+            } else {
+                cursor = open + 1;
+            }
+        }
+    }
+
+    private int column(char c) {
+        if (c < 128) {
+            return asciiColumns[c];
+        }
+        Integer col = otherColumns.get(c);
+        return col == null ? 0 : col;
+    }
+
+    private static int[] newRow(int columns) {
+        int[] row = new int[columns];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static void addAll(List<String> words, List<Integer> wordGroups, List<Integer> wordRanks,
+                               List<String> dictionary, int group) {
+        for (int rank = 0; rank < dictionary.size(); rank++) {
+            words.add(dictionary.get(rank).toLowerCase(Locale.ROOT));
+            wordGroups.add(group);
+            wordRanks.add(rank);
+        }
+    }
+
+    /**
+     * Growable list of ascending character positions
+     */
+    private static final class Positions {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+
+        private int firstAtOrAfter(int position) {
+            int index = Arrays.binarySearch(values, 0, size, position);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < size ? values[index] : -1;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+-- Durable embedding cache (L2 tier behind the in-memory embedding cache)
+-- Embeddings are addressed by SHA-256(normalized text) + model + dimensions so they survive restarts
+-- and never collide across models or vector sizes.
+
+CREATE TABLE IF NOT EXISTS embedding_cache (
+    id BIGSERIAL PRIMARY KEY,
+    content_hash VARCHAR(64) NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    dimensions INTEGER NOT NULL,
+    embedding vector NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_embedding_cache_key UNIQUE (content_hash, model, dimensions)
+);
+
+COMMENT ON TABLE embedding_cache IS 'Persistent embedding store keyed by content hash, model and dimensions.';
+COMMENT ON COLUMN embedding_cache.content_hash IS 'Hex SHA-256 of the whitespace-normalized input text';
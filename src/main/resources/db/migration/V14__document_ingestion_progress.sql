@@ -0,0 +1,11 @@
+-- Asynchronous document ingestion: progress tracking on business_documents
+-- status moves PROCESSING -> READY / EMPTY / FAILED; PROCESSING rows are resumed on startup
+
+ALTER TABLE business_documents
+    ADD COLUMN IF NOT EXISTS chunks_total INTEGER,
+    ADD COLUMN IF NOT EXISTS chunks_done INTEGER,
+    ADD COLUMN IF NOT EXISTS error_message TEXT;
+
+CREATE INDEX IF NOT EXISTS idx_business_documents_status ON business_documents(status);
+
+COMMENT ON COLUMN business_documents.storage_path IS 'Staged upload used by the ingestion job; removed once the job finishes';
@@ -0,0 +1,10 @@
+-- Per-chunk content hash so a re-uploaded document only re-embeds chunks whose text changed
+
+ALTER TABLE business_document_chunks
+    ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+UPDATE business_document_chunks
+SET content_hash = encode(sha256(convert_to(content, 'UTF8')), 'hex')
+WHERE content_hash IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_doc_chunks_document_hash ON business_document_chunks(document_id, content_hash);
@@ -0,0 +1,9 @@
+-- Neighbour-by-reference chunk storage
+-- prev_content/next_content are no longer written; neighbours are fetched by (document_id, chunk_index +/- 1).
+-- overlap_chars records how many leading characters of content repeat the end of the previous chunk.
+-- Existing rows are rewritten by ChunkStorageCompactor (app.ingestion.compact-existing-chunks=true).
+
+ALTER TABLE business_document_chunks
+    ADD COLUMN IF NOT EXISTS overlap_chars INTEGER;
+
+CREATE INDEX IF NOT EXISTS idx_doc_chunks_document_index ON business_document_chunks(document_id, chunk_index);
@@ -0,0 +1,7 @@
+-- Lexical side of hybrid document search (full-text ranking fused with vector ranking)
+
+ALTER TABLE business_document_chunks
+    ADD COLUMN IF NOT EXISTS content_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('english', content)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_doc_chunks_content_tsv ON business_document_chunks USING gin (content_tsv);
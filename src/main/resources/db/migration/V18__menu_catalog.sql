@@ -0,0 +1,18 @@
+-- Menu items extracted once per document ingestion instead of on every order
+
+CREATE TABLE IF NOT EXISTS menu_catalog_items (
+    id BIGSERIAL PRIMARY KEY,
+    document_id BIGINT NOT NULL,
+    business_id VARCHAR(255) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    normalized_name VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_menu_catalog_business_entity ON menu_catalog_items(business_id, entity_id);
+CREATE INDEX IF NOT EXISTS idx_menu_catalog_document ON menu_catalog_items(document_id);
+
+-- Hash of the text the document's catalog was extracted from; NULL means not catalogued yet
+ALTER TABLE business_documents
+    ADD COLUMN IF NOT EXISTS menu_catalog_hash VARCHAR(64);
@@ -0,0 +1,23 @@
+-- Asynchronous image generation jobs; the finished image is stored on disk at storage_path
+
+CREATE TABLE IF NOT EXISTS business_image_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    display_name VARCHAR(255) NOT NULL,
+    prompt TEXT NOT NULL,
+    image_size VARCHAR(255),
+    status VARCHAR(255) NOT NULL,
+    error_message TEXT,
+    revised_prompt TEXT,
+    overlays TEXT,
+    storage_path TEXT,
+    mime_type VARCHAR(255),
+    size_bytes BIGINT,
+    sha256 VARCHAR(64),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_business_image_jobs_username ON business_image_jobs(username);
+CREATE INDEX IF NOT EXISTS idx_business_image_jobs_status ON business_image_jobs(status);
@@ -0,0 +1,5 @@
+-- Generated image cache flags on image jobs; the cache itself lives on disk under app.image-cache.storage-dir
+
+ALTER TABLE business_image_jobs
+    ADD COLUMN IF NOT EXISTS force_new BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD COLUMN IF NOT EXISTS cached BOOLEAN;
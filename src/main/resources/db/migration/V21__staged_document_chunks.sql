@@ -0,0 +1,5 @@
+-- Chunks written by an ingestion run stay staged (hidden from search) until the run publishes the document,
+-- together with the removal of the chunks they replace, in one transaction
+
+ALTER TABLE business_document_chunks
+    ADD COLUMN IF NOT EXISTS staged BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,4 @@
+-- Chunks whose embedding batch failed are stored without an embedding and re-embedded by the next ingestion run
+
+ALTER TABLE business_document_chunks
+    ALTER COLUMN embedding DROP NOT NULL;
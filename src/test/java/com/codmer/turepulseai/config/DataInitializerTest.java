@@ -0,0 +1,78 @@
+package com.codmer.turepulseai.config;
+
+import com.codmer.turepulseai.config.VectorSearchProperties.IndexType;
+import com.codmer.turepulseai.config.VectorSearchProperties.Metric;
+import com.codmer.turepulseai.config.VectorSearchProperties.Quantization;
+import com.codmer.turepulseai.repository.RoleRepository;
+import com.codmer.turepulseai.support.PgvectorTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Testcontainers(disabledWithoutDocker = true)
+class DataInitializerTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = PgvectorTestDatabase.container();
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = PgvectorTestDatabase.jdbcTemplate(POSTGRES);
+        PgvectorTestDatabase.recreateChunkTable(jdbcTemplate);
+        PgvectorTestDatabase.insertRandomChunks(jdbcTemplate, "alpha", 7, "menu", 200);
+        when(roleRepository.findByName(anyString())).thenReturn(Optional.empty());
+        when(roleRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void changingTheVectorSettingsReplacesTheAnnIndex() {
+        VectorSearchProperties before = VectorSearchPropertiesTest.properties(Metric.COSINE, Quantization.NONE, IndexType.HNSW);
+        VectorSearchProperties after = VectorSearchPropertiesTest.properties(Metric.L2, Quantization.HALFVEC, IndexType.IVFFLAT);
+
+        new DataInitializer(roleRepository, jdbcTemplate, before).init();
+        assertThat(annIndexes()).containsExactly(before.annIndexName());
+
+        new DataInitializer(roleRepository, jdbcTemplate, after).init();
+        assertThat(annIndexes()).containsExactly(after.annIndexName());
+        assertThat(indexNames()).contains("idx_doc_chunks_business_id", "idx_doc_chunks_content_tsv");
+    }
+
+    @Test
+    void keepsAMatchingIndexUnderAnotherName() {
+        VectorSearchProperties properties = VectorSearchPropertiesTest.properties(Metric.COSINE, Quantization.NONE, IndexType.HNSW);
+        jdbcTemplate.execute("CREATE INDEX legacy_embedding_idx ON business_document_chunks "
+                + properties.annIndexDefinition());
+
+        new DataInitializer(roleRepository, jdbcTemplate, properties).init();
+
+        assertThat(annIndexes()).containsExactly("legacy_embedding_idx");
+    }
+
+    private List<String> annIndexes() {
+        return jdbcTemplate.queryForList("""
+                SELECT indexname FROM pg_indexes
+                WHERE tablename = 'business_document_chunks'
+                  AND (indexdef ILIKE '%USING hnsw %' OR indexdef ILIKE '%USING ivfflat %')
+                """, String.class);
+    }
+
+    private List<String> indexNames() {
+        return jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'business_document_chunks'", String.class);
+    }
+}
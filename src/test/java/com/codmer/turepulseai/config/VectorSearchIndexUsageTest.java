@@ -0,0 +1,109 @@
+package com.codmer.turepulseai.config;
+
+import com.codmer.turepulseai.config.VectorSearchProperties.IndexType;
+import com.codmer.turepulseai.config.VectorSearchProperties.Metric;
+import com.codmer.turepulseai.config.VectorSearchProperties.Quantization;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepositoryImpl;
+import com.codmer.turepulseai.support.PgvectorTestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs the statement ChunkVectorSearchRepositoryImpl really sends for a similarity search (entity and
+ * business filter, NOT staged, ef_search / probes set in the same transaction) under default planner settings,
+ * and checks that Postgres answers it with the ANN index rather than a sequential scan and sort.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class VectorSearchIndexUsageTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = PgvectorTestDatabase.container();
+
+    private static ExplainingJdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void loadChunks() {
+        jdbcTemplate = new ExplainingJdbcTemplate(PgvectorTestDatabase.jdbcTemplate(POSTGRES).getDataSource());
+        PgvectorTestDatabase.recreateChunkTable(jdbcTemplate);
+        // One large entity, as in the production table, next to a long tail of small tenants
+        PgvectorTestDatabase.insertRandomChunks(jdbcTemplate, "alpha", 7, "menu", 5000);
+        for (int tenant = 0; tenant < 20; tenant++) {
+            PgvectorTestDatabase.insertRandomChunks(jdbcTemplate, "tenant-" + tenant, tenant, "menu", 50);
+        }
+        jdbcTemplate.update("UPDATE business_document_chunks SET staged = TRUE WHERE id % 40 = 0");
+        jdbcTemplate.execute("ANALYZE business_document_chunks");
+    }
+
+    @ParameterizedTest
+    @MethodSource("com.codmer.turepulseai.config.VectorSearchPropertiesTest#settings")
+    void similaritySearchUsesTheAnnIndex(Metric metric, Quantization quantization, IndexType indexType) {
+        VectorSearchProperties properties = VectorSearchPropertiesTest.properties(metric, quantization, indexType);
+        ChunkVectorSearchRepositoryImpl repository = new ChunkVectorSearchRepositoryImpl(
+                jdbcTemplate, PgvectorTestDatabase.transactionTemplate(jdbcTemplate), properties);
+        ChunkSearch search = new ChunkSearch("alpha", 7L, "menu",
+                PgvectorTestDatabase.randomUnitVector(new Random(2)), 10, null);
+
+        jdbcTemplate.execute("CREATE INDEX " + properties.annIndexName() + " ON business_document_chunks "
+                + properties.annIndexDefinition());
+        try {
+            repository.findNearestChunks(search);
+
+            assertThat(jdbcTemplate.plan).contains("Index Scan using " + properties.annIndexName())
+                    .doesNotContain("Seq Scan");
+        } finally {
+            jdbcTemplate.execute("DROP INDEX " + properties.annIndexName());
+        }
+    }
+
+    /**
+     * Prepares every row query as EXPLAIN of the same statement, keeps the plan and returns no rows.
+     * Plain statements (set_config, DDL) run unchanged on the same transaction-bound connection.
+     */
+    private static class ExplainingJdbcTemplate extends JdbcTemplate {
+
+        private String plan;
+
+        ExplainingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public <T> List<T> query(PreparedStatementCreator creator, RowMapper<T> rowMapper) {
+            plan = String.join("\n", super.query(
+                    connection -> creator.createPreparedStatement(explaining(connection)),
+                    (rs, rowNum) -> rs.getString(1)));
+            return List.of();
+        }
+
+        private static Connection explaining(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement") && args.length == 1) {
+                            args = new Object[]{"EXPLAIN " + args[0]};
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
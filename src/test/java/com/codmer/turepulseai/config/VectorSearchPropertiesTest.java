@@ -0,0 +1,79 @@
+package com.codmer.turepulseai.config;
+
+import com.codmer.turepulseai.config.VectorSearchProperties.IndexType;
+import com.codmer.turepulseai.config.VectorSearchProperties.Metric;
+import com.codmer.turepulseai.config.VectorSearchProperties.Quantization;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VectorSearchPropertiesTest {
+
+    private static final Pattern INDEX_DEFINITION =
+            Pattern.compile("USING (hnsw|ivfflat) \\((.+) ([a-z0-9_]+_ops)\\)( WITH \\(lists = \\d+\\))?");
+
+    // Distance operator each operator class supports
+    private static final Map<String, String> OPERATORS = Map.of(
+            "vector_cosine_ops", "<=>", "vector_ip_ops", "<#>", "vector_l2_ops", "<->",
+            "halfvec_cosine_ops", "<=>", "halfvec_ip_ops", "<#>", "halfvec_l2_ops", "<->",
+            "bit_hamming_ops", "<~>");
+
+    static Stream<Arguments> settings() {
+        return Arrays.stream(Metric.values()).flatMap(metric -> Arrays.stream(Quantization.values())
+                .flatMap(quantization -> Arrays.stream(IndexType.values())
+                        .map(indexType -> Arguments.of(metric, quantization, indexType))));
+    }
+
+    static VectorSearchProperties properties(Metric metric, Quantization quantization, IndexType indexType) {
+        VectorSearchProperties properties = new VectorSearchProperties();
+        properties.setMetric(metric);
+        properties.setQuantization(quantization);
+        properties.setIndexType(indexType);
+        return properties;
+    }
+
+    @ParameterizedTest
+    @MethodSource("settings")
+    void orderByMatchesTheIndexedExpressionAndOperatorClass(Metric metric, Quantization quantization, IndexType indexType) {
+        VectorSearchProperties properties = properties(metric, quantization, indexType);
+
+        Matcher index = INDEX_DEFINITION.matcher(properties.annIndexDefinition());
+        assertThat(index.matches()).as(properties.annIndexDefinition()).isTrue();
+        assertThat(index.group(1)).isEqualTo(indexType.name().toLowerCase());
+        String expression = unwrap(index.group(2));
+        String operatorClass = index.group(3);
+        assertThat(operatorClass).isEqualTo(properties.annOperatorClass());
+
+        String orderBy = properties.quantizedOrderBy(quantization, "?");
+        assertThat(orderBy).startsWith(expression + " " + OPERATORS.get(operatorClass) + " ");
+        // The query vector is cast to the indexed type, so the operator resolves to the indexed operator class
+        String queryVector = orderBy.substring(expression.length() + OPERATORS.get(operatorClass).length() + 2);
+        switch (quantization) {
+            case NONE -> assertThat(queryVector).isEqualTo("?");
+            case HALFVEC -> assertThat(queryVector).isEqualTo("CAST(? AS halfvec(" + properties.getDimensions() + "))");
+            case BINARY -> assertThat(queryVector).isEqualTo("binary_quantize(CAST(? AS vector))");
+        }
+        assertThat(operatorClass).startsWith(switch (quantization) {
+            case NONE -> "vector_";
+            case HALFVEC -> "halfvec_";
+            case BINARY -> "bit_";
+        });
+        if (quantization != Quantization.BINARY) {
+            assertThat(operatorClass).isIn(metric.getOperatorClass(), metric.getHalfvecOperatorClass());
+        }
+    }
+
+    private static String unwrap(String expression) {
+        return expression.startsWith("(") && expression.endsWith(")")
+                ? expression.substring(1, expression.length() - 1)
+                : expression;
+    }
+}
@@ -0,0 +1,22 @@
+package com.codmer.turepulseai.repository;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkVectorSearchRepositoryImplTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "vegan pizza                  | vegan or pizza",
+            "gluten-free \"pad thai\"       | gluten or free or pad or thai",
+            "-spicy !(a & b) : <-> 'x'    | spicy or a or b or x",
+            "pizza OR pasta or salad      | pizza or pasta or salad",
+            "Crème brûlée n°5             | Crème or brûlée or n or 5",
+            "&&& !!! ::: ()                | ''",
+    })
+    void anyWordQueryKeepsOnlyWordsJoinedWithOr(String queryText, String expected) {
+        assertThat(ChunkVectorSearchRepositoryImpl.anyWordQuery(queryText)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,65 @@
+package com.codmer.turepulseai.repository;
+
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkHit;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
+import com.codmer.turepulseai.support.PgvectorTestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class HybridChunkSearchTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = PgvectorTestDatabase.container();
+
+    private static ChunkVectorSearchRepositoryImpl repository;
+
+    @BeforeAll
+    static void loadChunks() {
+        JdbcTemplate jdbcTemplate = PgvectorTestDatabase.jdbcTemplate(POSTGRES);
+        PgvectorTestDatabase.recreateChunkTable(jdbcTemplate);
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            PgvectorTestDatabase.insertChunk(jdbcTemplate, random, "alpha", i / 10, 7, "menu", i % 10,
+                    "Dish number " + i + " with rice and vegetables");
+        }
+        PgvectorTestDatabase.insertChunk(jdbcTemplate, random, "alpha", 20, 7, "menu", 0,
+                "Our signature SKU-4471 truffle risotto");
+        PgvectorTestDatabase.insertChunk(jdbcTemplate, random, "beta", 21, 7, "menu", 0,
+                "Another business also sells truffle risotto");
+        repository = new ChunkVectorSearchRepositoryImpl(jdbcTemplate,
+                PgvectorTestDatabase.transactionTemplate(jdbcTemplate), new VectorSearchProperties());
+    }
+
+    @Test
+    void anExactTermTheEmbeddingMissesStillSurfaces() {
+        List<ChunkHit> hits = repository.findHybridChunks(search(), "do you have truffle risotto or sushi?");
+
+        assertThat(hits).hasSize(4);
+        assertThat(hits).extracting(ChunkHit::content).anyMatch(content -> content.contains("SKU-4471"));
+        assertThat(hits).extracting(ChunkHit::content).noneMatch(content -> content.startsWith("Another business"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "   ", "the and of", "it's", "a & b | !c", "-truffle", "\"truffle", "risotto:*",
+            "(((", "<->", "\\", "'; DROP TABLE business_document_chunks; --"})
+    void anyQueryTextIsAcceptedAndFallsBackToTheVectorRanking(String queryText) {
+        assertThat(repository.findHybridChunks(search(), queryText)).hasSize(4);
+    }
+
+    private static ChunkSearch search() {
+        return new ChunkSearch("alpha", 7L, "menu", PgvectorTestDatabase.randomUnitVector(new Random(4)), 4, null);
+    }
+}
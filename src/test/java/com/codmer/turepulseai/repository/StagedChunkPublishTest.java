@@ -0,0 +1,152 @@
+package com.codmer.turepulseai.repository;
+
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import com.codmer.turepulseai.entity.BusinessDocumentChunk;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkHit;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
+import com.codmer.turepulseai.support.PgvectorTestDatabase;
+import com.pgvector.PGvector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * The re-ingestion path of a replaced document: new chunks are written staged, and one transaction moves the
+ * kept chunks, deletes the removed ones and publishes the staged ones. Searches on another connection must see
+ * either the whole previous version or the whole new one.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class StagedChunkPublishTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = PgvectorTestDatabase.container();
+
+    private final Random random = new Random(8);
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private BusinessDocumentChunkRepositoryImpl writer;
+    private ChunkVectorSearchRepositoryImpl reader;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = PgvectorTestDatabase.jdbcTemplate(POSTGRES);
+        transactionTemplate = PgvectorTestDatabase.transactionTemplate(jdbcTemplate);
+        PgvectorTestDatabase.recreateChunkTable(jdbcTemplate);
+        PgvectorTestDatabase.insertChunk(jdbcTemplate, random, "alpha", 1, 7, "menu", 0, "Starters: bruschetta");
+        PgvectorTestDatabase.insertChunk(jdbcTemplate, random, "alpha", 1, 7, "menu", 1, "Mains: truffle risotto");
+        PgvectorTestDatabase.insertChunk(jdbcTemplate, random, "alpha", 1, 7, "menu", 2, "Desserts: tiramisu");
+        writer = new BusinessDocumentChunkRepositoryImpl(jdbcTemplate);
+
+        // Searches run on their own connections, outside the writer's transaction
+        JdbcTemplate readerJdbc = PgvectorTestDatabase.jdbcTemplate(POSTGRES);
+        reader = new ChunkVectorSearchRepositoryImpl(readerJdbc,
+                PgvectorTestDatabase.transactionTemplate(readerJdbc), new VectorSearchProperties());
+    }
+
+    @Test
+    void stagedChunksStayHiddenUntilPublished() {
+        writer.batchInsert(List.of(staged("alpha", 1, "Soups: minestrone"), staged("alpha", 3, "Drinks: espresso")));
+
+        assertThat(visible()).containsExactly(entry("Starters: bruschetta", 0), entry("Mains: truffle risotto", 1),
+                entry("Desserts: tiramisu", 2));
+        assertThat(reader.findHybridChunks(search(), "minestrone espresso")).extracting(ChunkHit::content)
+                .doesNotContain("Soups: minestrone", "Drinks: espresso");
+        assertThat(writer.findStoredChunkRefs("alpha", 1L)).hasSize(5);
+    }
+
+    @Test
+    void publishingSwitchesToTheNewVersionInOneStep() {
+        writer.batchInsert(List.of(staged("alpha", 1, "Soups: minestrone"), staged("beta", 0, "Another tenant")));
+        long mains = id("Mains: truffle risotto");
+        long desserts = id("Desserts: tiramisu");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.batchUpdatePositions(List.of(position(mains, 2)));
+            writer.deleteByIds("alpha", List.of(desserts));
+            assertThat(writer.publishStaged("alpha", 1L)).isEqualTo(1);
+
+            assertThat(visible()).containsExactly(entry("Starters: bruschetta", 0),
+                    entry("Mains: truffle risotto", 1), entry("Desserts: tiramisu", 2));
+        });
+
+        assertThat(visible()).containsExactly(entry("Starters: bruschetta", 0), entry("Soups: minestrone", 1),
+                entry("Mains: truffle risotto", 2));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT staged FROM business_document_chunks WHERE business_id = 'beta'", Boolean.class)).isTrue();
+    }
+
+    @Test
+    void aFailedPublishLeavesThePreviousVersion() {
+        writer.batchInsert(List.of(staged("alpha", 1, "Soups: minestrone")));
+        long desserts = id("Desserts: tiramisu");
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            writer.deleteByIds("alpha", List.of(desserts));
+            writer.publishStaged("alpha", 1L);
+            throw new IllegalStateException("ingestion worker died");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(visible()).containsExactly(entry("Starters: bruschetta", 0), entry("Mains: truffle risotto", 1),
+                entry("Desserts: tiramisu", 2));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT staged FROM business_document_chunks WHERE content = 'Soups: minestrone'", Boolean.class)).isTrue();
+    }
+
+    /**
+     * Chunk text to chunk index of everything an exact search returns, in chunk order
+     */
+    private Map<String, Integer> visible() {
+        List<ChunkHit> hits = reader.findExactChunks(search());
+        return hits.stream()
+                .sorted(Comparator.comparingInt(ChunkHit::chunkIndex))
+                .collect(Collectors.toMap(ChunkHit::content, ChunkHit::chunkIndex,
+                        (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private ChunkSearch search() {
+        return new ChunkSearch("alpha", 7L, "menu", PgvectorTestDatabase.randomUnitVector(random), 10, null);
+    }
+
+    private long id(String content) {
+        return jdbcTemplate.queryForObject("SELECT id FROM business_document_chunks WHERE content = ?", Long.class, content);
+    }
+
+    private BusinessDocumentChunk staged(String businessId, int chunkIndex, String content) {
+        BusinessDocumentChunk chunk = new BusinessDocumentChunk();
+        chunk.setDocumentId(1L);
+        chunk.setBusinessId(businessId);
+        chunk.setEntityId(7L);
+        chunk.setDisplayName("menu");
+        chunk.setChunkIndex(chunkIndex);
+        chunk.setContent(content);
+        chunk.setContentHash(Integer.toHexString(content.hashCode()));
+        chunk.setOverlapChars(0);
+        chunk.setEmbeddingDimension(PgvectorTestDatabase.DIMENSIONS);
+        chunk.setEmbedding(new PGvector(PgvectorTestDatabase.randomUnitVector(random)));
+        return chunk;
+    }
+
+    private static BusinessDocumentChunk position(long id, int chunkIndex) {
+        BusinessDocumentChunk chunk = new BusinessDocumentChunk();
+        chunk.setId(id);
+        chunk.setBusinessId("alpha");
+        chunk.setChunkIndex(chunkIndex);
+        chunk.setOverlapChars(0);
+        return chunk;
+    }
+}
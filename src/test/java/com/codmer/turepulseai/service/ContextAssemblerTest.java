@@ -0,0 +1,110 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.service.ContextAssembler.AssembledContext;
+import com.codmer.turepulseai.service.ContextAssembler.ContextPiece;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContextAssemblerTest {
+
+    private ContextAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        // One token per character keeps the budgets easy to read
+        TokenCountEstimator estimator = mock(TokenCountEstimator.class);
+        when(estimator.estimate(anyString())).thenAnswer(invocation -> invocation.<String>getArgument(0).length());
+        assembler = new ContextAssembler(estimator);
+    }
+
+    @Test
+    void mergesConsecutiveChunksOfADocumentWithoutRepeatingTheOverlap() {
+        AssembledContext context = assembler.assemble(List.of(
+                new ContextPiece(1, 0, "alpha beta", 0, 0),
+                new ContextPiece(1, 1, " beta\ngamma delta", 6, 1),
+                new ContextPiece(1, 3, "omega", 7, 2),
+                new ContextPiece(2, 2, "other", 0, 3)), 1000);
+
+        assertThat(context.blocks()).containsExactly("alpha beta\ngamma delta", "omega", "other");
+        assertThat(context.droppedBlocks()).isZero();
+        assertThat(context.tokens()).isEqualTo(22 + 1 + 5 + 1 + 5);
+        assertThat(context.rawTokens()).isEqualTo(10 + 2 + 17 + 2 + 5 + 2 + 5);
+        assertThat(context.savedTokens()).isEqualTo(context.rawTokens() - context.tokens());
+    }
+
+    @Test
+    void aMergedBlockTakesTheBestRankOfItsChunks() {
+        AssembledContext context = assembler.assemble(List.of(
+                new ContextPiece(1, 0, "first", 0, 0),
+                new ContextPiece(2, 4, "before", 0, 1),
+                new ContextPiece(2, 5, "hit", 0, 1),
+                new ContextPiece(3, 0, "second", 0, 2)), 1000);
+
+        assertThat(context.blocks()).containsExactly("first", "before\n\nhit", "second");
+    }
+
+    @Test
+    void aRepeatedChunkIsKeptOnceAtItsBestRank() {
+        AssembledContext context = assembler.assemble(List.of(
+                new ContextPiece(1, 0, "first", 0, 1),
+                new ContextPiece(2, 5, "repeated", 0, 3),
+                new ContextPiece(2, 5, "repeated", 0, 0)), 1000);
+
+        assertThat(context.blocks()).containsExactly("repeated", "first");
+        assertThat(context.rawTokens()).isEqualTo(8 + 2 + 5);
+    }
+
+    @Test
+    void dropsBlocksThatDoNotFitButKeepsLaterSmallerOnes() {
+        AssembledContext context = assembler.assemble(List.of(
+                new ContextPiece(1, 0, "a".repeat(10), 0, 0),
+                new ContextPiece(2, 0, "b".repeat(5), 0, 1),
+                new ContextPiece(3, 0, "c".repeat(2), 0, 2)), 14);
+
+        assertThat(context.blocks()).containsExactly("a".repeat(10), "c".repeat(2));
+        assertThat(context.tokens()).isEqualTo(13);
+        assertThat(context.droppedBlocks()).isEqualTo(1);
+    }
+
+    @Test
+    void truncatesTheBestBlockWhenItAloneIsOverBudget() {
+        AssembledContext context = assembler.assemble(List.of(
+                new ContextPiece(1, 0, "x".repeat(100), 0, 0),
+                new ContextPiece(2, 0, "y".repeat(5), 0, 1)), 30);
+
+        assertThat(context.blocks()).containsExactly("x".repeat(30));
+        assertThat(context.tokens()).isEqualTo(30);
+        assertThat(context.droppedBlocks()).isEqualTo(1);
+    }
+
+    @Test
+    void accumulatesStatsAcrossCalls() {
+        assembler.assemble(List.of(
+                new ContextPiece(1, 0, "alpha beta", 0, 0),
+                new ContextPiece(1, 1, " beta\ngamma delta", 6, 1)), 1000);
+        assembler.assemble(List.of(new ContextPiece(1, 0, "x".repeat(100), 0, 0)), 30);
+
+        assertThat(assembler.stats().getAssemblies()).isEqualTo(2);
+        assertThat(assembler.stats().getRawTokens()).isEqualTo(29 + 100);
+        assertThat(assembler.stats().getAssembledTokens()).isEqualTo(22 + 30);
+        assertThat(assembler.stats().getSavedTokens()).isEqualTo(7 + 70);
+        assertThat(assembler.stats().getDroppedBlocks()).isZero();
+    }
+
+    @Test
+    void nothingToAssemble() {
+        AssembledContext context = assembler.assemble(List.of(), 100);
+
+        assertThat(context.blocks()).isEmpty();
+        assertThat(context.text()).isEmpty();
+        assertThat(context.tokens()).isZero();
+    }
+}
@@ -0,0 +1,49 @@
+package com.codmer.turepulseai.service;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentRouterTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "I want to order a chicken biryani",
+            "I'd like to order 2 garlic naans",
+            "Can I order the paneer tikka please",
+            "Place an order for two pizzas",
+            "Order me 3 mango lassis",
+            "Add two samosas to my order",
+            "I'll take a margherita pizza and a coke",
+            "Can I get a large coffee"
+    })
+    void explicitOrdersAreDecidedByRule(String query) {
+        assertThat(IntentRouter.ruleDecision(query)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "How do I place an order?",
+            "Can I order online?",
+            "How can I order for delivery?",
+            "Where can I place my order?",
+            "Is it possible to order ahead for pickup?",
+            "I want to order online, is that possible?"
+    })
+    void questionsAboutOrderingAreNotTakenAsOrders(String query) {
+        // Left to the embedding or LLM band
+        assertThat(IntentRouter.ruleDecision(query)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "What are your opening hours?",
+            "Is the chicken curry spicy?",
+            "How much does the biryani cost?",
+            "Do you have vegan options?"
+    })
+    void plainQuestionsAreDecidedByRule(String query) {
+        assertThat(IntentRouter.ruleDecision(query)).isFalse();
+    }
+}
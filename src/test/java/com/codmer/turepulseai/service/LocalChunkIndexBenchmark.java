@@ -0,0 +1,87 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkVector;
+import com.codmer.turepulseai.support.PgvectorTestDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * One top-10 search against a warm entity snapshot of 1536-dimension chunks. The scan is exact, so the time
+ * grows linearly with the chunk count; app.vector-search.local-index.max-chunks-per-entity is set from these
+ * numbers. Run from the IDE, or after {@code mvn test-compile} with
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main LocalChunkIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalChunkIndexBenchmark {
+
+    @Param({"500", "1000", "5000", "20000"})
+    private int chunks;
+
+    private LocalChunkIndex index;
+    private List<ChunkSearch> searches;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ChunkVector> rows = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            rows.add(new ChunkVector(i, i / 100, i % 100, "alpha", "chunk " + i, 0,
+                    PgvectorTestDatabase.randomUnitVector(random)));
+        }
+        BusinessDocumentChunkRepository repository = mock(BusinessDocumentChunkRepository.class);
+        when(repository.findEntityVectors(any(), anyLong(), any(), anyInt())).thenReturn(rows);
+        VectorSearchProperties properties = new VectorSearchProperties();
+        properties.getLocalIndex().setEnabled(true);
+        properties.getLocalIndex().setMaxChunksPerEntity(chunks);
+        properties.getLocalIndex().setMaxMemoryMb(1024);
+        index = new LocalChunkIndex(properties, repository, LocalChunkIndexTest.inline());
+
+        searches = new ArrayList<>();
+        for (int q = 0; q < 16; q++) {
+            searches.add(new ChunkSearch("alpha", 7L, "menu", PgvectorTestDatabase.randomUnitVector(random), 10, null));
+        }
+        index.findNearest(searches.get(0));
+    }
+
+    @Benchmark
+    public Object findNearest() {
+        next = (next + 1) % searches.size();
+        return index.findNearest(searches.get(next)).orElseThrow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LocalChunkIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import com.codmer.turepulseai.config.VectorSearchProperties.Metric;
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkHit;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepositoryImpl;
+import com.codmer.turepulseai.support.PgvectorTestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The in-process index must return the same chunks, in the same order, as the exact (index-free) SQL search,
+ * including when another business has chunks under the same entity and display name.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class LocalChunkIndexExactSearchTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = PgvectorTestDatabase.container();
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void loadChunks() {
+        jdbcTemplate = PgvectorTestDatabase.jdbcTemplate(POSTGRES);
+        PgvectorTestDatabase.recreateChunkTable(jdbcTemplate);
+        Random random = new Random(11);
+        for (int i = 0; i < 400; i++) {
+            PgvectorTestDatabase.insertChunk(jdbcTemplate, random, i % 2 == 0 ? "alpha" : "beta", i / 50, 7,
+                    "menu", i, "chunk " + i);
+        }
+        jdbcTemplate.update("UPDATE business_document_chunks SET staged = TRUE WHERE id % 25 = 0");
+        jdbcTemplate.update("UPDATE business_document_chunks SET embedding = NULL WHERE id % 31 = 0");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Metric.class)
+    void topKMatchesTheExactSqlOrdering(Metric metric) {
+        VectorSearchProperties properties = new VectorSearchProperties();
+        properties.setMetric(metric);
+        properties.getLocalIndex().setEnabled(true);
+        ChunkVectorSearchRepositoryImpl database = new ChunkVectorSearchRepositoryImpl(
+                jdbcTemplate, PgvectorTestDatabase.transactionTemplate(jdbcTemplate), properties);
+        BusinessDocumentChunkRepository repository = mock(BusinessDocumentChunkRepository.class);
+        when(repository.findEntityVectors(any(), anyLong(), any(), anyInt())).thenAnswer(invocation ->
+                database.findEntityVectors(invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(2), invocation.getArgument(3)));
+        LocalChunkIndex index = new LocalChunkIndex(properties, repository, LocalChunkIndexTest.inline());
+
+        Random random = new Random(12);
+        for (String businessId : List.of("alpha", "beta")) {
+            index.findNearest(search(businessId, PgvectorTestDatabase.randomUnitVector(random)));
+            for (int q = 0; q < 10; q++) {
+                ChunkSearch search = search(businessId, PgvectorTestDatabase.randomUnitVector(random));
+                List<ChunkHit> exact = database.findExactChunks(search);
+
+                assertThat(index.findNearest(search).orElseThrow()).extracting(ChunkHit::id)
+                        .containsExactlyElementsOf(exact.stream().map(ChunkHit::id).toList());
+            }
+        }
+    }
+
+    private static ChunkSearch search(String businessId, float[] embedding) {
+        return new ChunkSearch(businessId, 7L, "menu", embedding, 10, null);
+    }
+}
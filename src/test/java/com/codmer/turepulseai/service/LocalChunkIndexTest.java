@@ -0,0 +1,168 @@
+package com.codmer.turepulseai.service;
+
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import com.codmer.turepulseai.config.VectorSearchProperties.Metric;
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepository;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkHit;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkSearch;
+import com.codmer.turepulseai.repository.ChunkVectorSearchRepository.ChunkVector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LocalChunkIndexTest {
+
+    private static final int DIMENSIONS = 16;
+
+    private final BusinessDocumentChunkRepository repository = mock(BusinessDocumentChunkRepository.class);
+    private final VectorSearchProperties properties = new VectorSearchProperties();
+    private final Random random = new Random(9);
+    private LocalChunkIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties.getLocalIndex().setEnabled(true);
+        index = new LocalChunkIndex(properties, repository, LocalChunkIndexTest.inline());
+    }
+
+    /**
+     * Runs snapshot builds on the calling thread, so the second search of an entity is served from memory
+     */
+    static ThreadPoolTaskExecutor inline() {
+        return new ThreadPoolTaskExecutor() {
+            @Override
+            public void execute(Runnable task) {
+                task.run();
+            }
+        };
+    }
+
+    @Test
+    void keepsEachBusinessInItsOwnSnapshot() {
+        List<ChunkVector> alpha = chunks("alpha", 0, 20);
+        List<ChunkVector> beta = chunks("beta", 100, 20);
+        when(repository.findEntityVectors(eq("alpha"), eq(7L), eq("menu"), anyInt())).thenReturn(alpha);
+        when(repository.findEntityVectors(eq("beta"), eq(7L), eq("menu"), anyInt())).thenReturn(beta);
+
+        ChunkSearch alphaSearch = search("alpha", randomVector(), 50);
+        ChunkSearch betaSearch = search("beta", randomVector(), 50);
+        assertThat(index.findNearest(alphaSearch)).isEmpty();
+        assertThat(index.findNearest(betaSearch)).isEmpty();
+
+        assertThat(index.findNearest(alphaSearch).orElseThrow()).extracting(ChunkHit::id)
+                .containsExactlyInAnyOrderElementsOf(alpha.stream().map(ChunkVector::id).toList());
+        assertThat(index.findHybrid(betaSearch, "chunk").orElseThrow()).extracting(ChunkHit::id)
+                .allMatch(id -> id >= 100);
+    }
+
+    @Test
+    void invalidatingOneBusinessLeavesTheOtherWarm() {
+        when(repository.findEntityVectors(eq("alpha"), eq(7L), eq("menu"), anyInt())).thenReturn(chunks("alpha", 0, 5));
+        when(repository.findEntityVectors(eq("beta"), eq(7L), eq("menu"), anyInt())).thenReturn(chunks("beta", 100, 5));
+        ChunkSearch alphaSearch = search("alpha", randomVector(), 3);
+        ChunkSearch betaSearch = search("beta", randomVector(), 3);
+        index.findNearest(alphaSearch);
+        index.findNearest(betaSearch);
+
+        index.invalidate("alpha", 7L, "menu");
+
+        assertThat(index.findNearest(alphaSearch)).isEmpty();
+        assertThat(index.findNearest(betaSearch)).isPresent();
+        verify(repository, times(2)).findEntityVectors(eq("alpha"), eq(7L), eq("menu"), anyInt());
+        verify(repository, times(1)).findEntityVectors(eq("beta"), eq(7L), eq("menu"), anyInt());
+    }
+
+    @Test
+    void searchesWithoutABusinessGoToTheDatabase() {
+        assertThat(index.findNearest(search(null, randomVector(), 3))).isEmpty();
+        assertThat(index.findNearest(search(null, randomVector(), 3))).isEmpty();
+        verify(repository, never()).findEntityVectors(eq(null), eq(7L), eq("menu"), anyInt());
+    }
+
+    @Test
+    void entitiesOverTheChunkCapStayInTheDatabase() {
+        properties.getLocalIndex().setMaxChunksPerEntity(10);
+        when(repository.findEntityVectors(eq("alpha"), eq(7L), eq("menu"), anyInt())).thenReturn(chunks("alpha", 0, 11));
+        ChunkSearch search = search("alpha", randomVector(), 3);
+
+        index.findNearest(search);
+
+        assertThat(index.findNearest(search)).isEmpty();
+        verify(repository, times(1)).findEntityVectors(eq("alpha"), eq(7L), eq("menu"), eq(11));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Metric.class)
+    void topKMatchesAnExactOrderingByThePgvectorDistance(Metric metric) {
+        properties.setMetric(metric);
+        List<ChunkVector> rows = chunks("alpha", 0, 500);
+        when(repository.findEntityVectors(eq("alpha"), eq(7L), eq("menu"), anyInt())).thenReturn(rows);
+        index.findNearest(search("alpha", randomVector(), 10));
+
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVector();
+            List<Long> expected = rows.stream()
+                    .sorted(Comparator.comparingDouble(row -> distance(metric, query, row.embedding())))
+                    .limit(10)
+                    .map(ChunkVector::id)
+                    .toList();
+
+            assertThat(index.findNearest(search("alpha", query, 10)).orElseThrow())
+                    .extracting(ChunkHit::id).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private static double distance(Metric metric, float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        double squared = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+            squared += (a[i] - b[i]) * (a[i] - b[i]);
+        }
+        return switch (metric) {
+            case COSINE -> 1 - dot / Math.sqrt(normA * normB);
+            case INNER_PRODUCT -> -dot;
+            case L2 -> Math.sqrt(squared);
+        };
+    }
+
+    private ChunkSearch search(String businessId, float[] embedding, int limit) {
+        return new ChunkSearch(businessId, 7L, "menu", embedding, limit, null);
+    }
+
+    private List<ChunkVector> chunks(String businessId, long firstId, int count) {
+        List<ChunkVector> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new ChunkVector(firstId + i, 1, i, businessId, "chunk " + businessId + " " + i, 0, randomVector()));
+        }
+        return rows;
+    }
+
+    private float[] randomVector() {
+        float[] vector = new float[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
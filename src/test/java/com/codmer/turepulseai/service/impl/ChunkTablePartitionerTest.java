@@ -0,0 +1,170 @@
+package com.codmer.turepulseai.service.impl;
+
+import com.codmer.turepulseai.config.VectorSearchProperties;
+import com.codmer.turepulseai.support.PgvectorTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class ChunkTablePartitionerTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = PgvectorTestDatabase.container();
+
+    private JdbcTemplate jdbcTemplate;
+    private ChunkTablePartitioner partitioner;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = PgvectorTestDatabase.jdbcTemplate(POSTGRES);
+        PgvectorTestDatabase.recreateChunkTable(jdbcTemplate);
+        Random random = new Random(5);
+        for (int i = 0; i < 60; i++) {
+            PgvectorTestDatabase.insertChunk(jdbcTemplate, random, "tenant-" + (i % 5), i / 10, i % 3,
+                    "menu", i % 10, "chunk " + i);
+        }
+        // Remove a few rows so ids have gaps the copy has to step over
+        jdbcTemplate.update("DELETE FROM business_document_chunks WHERE id IN (3, 17, 18)");
+
+        partitionerWithBatchSize(7);
+    }
+
+    @Test
+    void copiesEveryRowAndSwapsInThePartitionedTable() {
+        List<String> before = rows("business_document_chunks");
+
+        assertThat(partitioner.partition()).isEqualTo(57);
+
+        assertThat(relkind("business_document_chunks")).isEqualTo("p");
+        assertThat(rows("business_document_chunks")).isEqualTo(before);
+        assertThat(rows("business_document_chunks_unpartitioned")).isEqualTo(before);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'business_document_chunks'::regclass", Integer.class))
+                .isEqualTo(4);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'business_document_chunks'", String.class))
+                .contains("business_document_chunks_pkey", "idx_doc_chunks_business_id", "idx_doc_chunks_content_tsv",
+                        "idx_doc_chunks_display_name", new VectorSearchProperties().annIndexName());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_trigger WHERE tgname = 'business_document_chunks_mirror'", Integer.class)).isZero();
+
+        // New rows keep counting from the old table's ids and land in the partition of their tenant
+        PgvectorTestDatabase.insertChunk(jdbcTemplate, new Random(6), "tenant-1", 99, 1, "menu", 0, "after");
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM business_document_chunks WHERE content = 'after'", Long.class))
+                .isGreaterThan(60);
+        assertThat(partitioner.partition()).isZero();
+    }
+
+    /**
+     * Whether a write lands before the copy reaches its row, during it, or after the swap, it must survive
+     */
+    @Test
+    void writesDuringTheConversionAreKept() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO business_document_chunks (document_id, business_id, entity_id, display_name, chunk_index,
+                    content, embedding_dimension, embedding, created_at)
+                SELECT 100 + n / 50, 'tenant-' || (n % 7), 1, 'menu', n % 50, 'bulk ' || n, ?,
+                    array_fill(0.1::real, ARRAY[?])::vector, now()
+                FROM generate_series(1, 3000) AS n
+                """, PgvectorTestDatabase.DIMENSIONS, PgvectorTestDatabase.DIMENSIONS);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM business_document_chunks ORDER BY id", Long.class);
+        partitionerWithBatchSize(10);
+
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        Future<?> writes = writer.submit(() -> {
+            for (int i = 0; i < 300; i++) {
+                long id = ids.get(i * 9 % ids.size());
+                switch (i % 3) {
+                    case 0 -> jdbcTemplate.update("UPDATE business_document_chunks SET content = ? WHERE id = ?",
+                            "edited " + id, id);
+                    case 1 -> jdbcTemplate.update("DELETE FROM business_document_chunks WHERE id = ?", id);
+                    default -> PgvectorTestDatabase.insertChunk(jdbcTemplate, new Random(i), "tenant-2", 500, 1,
+                            "menu", i, "inserted " + i);
+                }
+            }
+        });
+        partitioner.partition();
+        writes.get(2, TimeUnit.MINUTES);
+        writer.shutdown();
+
+        List<String> expected = new ArrayList<>();
+        Set<Long> deleted = new HashSet<>();
+        Set<Long> edited = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            long id = ids.get(i * 9 % ids.size());
+            switch (i % 3) {
+                case 0 -> edited.add(id);
+                case 1 -> deleted.add(id);
+                default -> expected.add("inserted " + i);
+            }
+        }
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT id, content FROM business_document_chunks_unpartitioned WHERE content NOT LIKE 'inserted %'")) {
+            long id = ((Number) row.get("id")).longValue();
+            if (!deleted.contains(id)) {
+                expected.add(edited.contains(id) ? "edited " + id : (String) row.get("content"));
+            }
+        }
+        assertThat(relkind("business_document_chunks")).isEqualTo("p");
+        assertThat(jdbcTemplate.queryForList("SELECT content FROM business_document_chunks", String.class))
+                .containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void skipsWhileAnotherInstanceHoldsTheLock() throws Exception {
+        try (Connection other = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+             PreparedStatement lock = other.prepareStatement("SELECT pg_advisory_lock(hashtext(?))")) {
+            lock.setString(1, "business_document_chunks_partitioning");
+            lock.executeQuery().close();
+
+            assertThat(partitioner.partition()).isZero();
+            assertThat(relkind("business_document_chunks")).isEqualTo("r");
+            assertThat(relkind("business_document_chunks_partitioned")).isNull();
+        }
+
+        assertThat(partitioner.partition()).isEqualTo(57);
+        assertThat(relkind("business_document_chunks")).isEqualTo("p");
+    }
+
+    private void partitionerWithBatchSize(int copyBatchSize) {
+        VectorSearchProperties properties = new VectorSearchProperties();
+        properties.getPartitioning().setEnabled(true);
+        properties.getPartitioning().setPartitions(4);
+        properties.getPartitioning().setCopyBatchSize(copyBatchSize);
+        partitioner = new ChunkTablePartitioner(jdbcTemplate, PgvectorTestDatabase.transactionTemplate(jdbcTemplate),
+                properties, new ThreadPoolTaskExecutor());
+    }
+
+    private List<String> rows(String table) {
+        return jdbcTemplate.queryForList("SELECT id || ':' || business_id || ':' || chunk_index || ':' || content"
+                + " || ':' || (embedding IS NOT NULL) FROM " + table + " ORDER BY id", String.class);
+    }
+
+    private String relkind(String table) {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, table);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.codmer.turepulseai.service.impl;
+
+import com.codmer.turepulseai.repository.BusinessDocumentChunkRepositoryCustom.StoredChunkRef;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentIngestionWorkerChunkDiffTest {
+
+    @Test
+    void eachStoredChunkIsClaimedOnce() {
+        DocumentIngestionWorker.ChunkDiff diff = new DocumentIngestionWorker.ChunkDiff(List.of(
+                new StoredChunkRef(10, 0, "h1", true),
+                new StoredChunkRef(11, 1, "h2", true)));
+
+        assertThat(diff.claim("h2")).isEqualTo(11L);
+        assertThat(diff.claim("h2")).isNull();
+        assertThat(diff.claim("missing")).isNull();
+        assertThat(diff.unclaimedIds()).containsExactly(10L);
+    }
+
+    @Test
+    void duplicateContentIsClaimedInStoredOrder() {
+        DocumentIngestionWorker.ChunkDiff diff = new DocumentIngestionWorker.ChunkDiff(List.of(
+                new StoredChunkRef(10, 0, "same", true),
+                new StoredChunkRef(11, 1, "other", true),
+                new StoredChunkRef(12, 2, "same", true)));
+
+        assertThat(diff.claim("same")).isEqualTo(10L);
+        assertThat(diff.claim("same")).isEqualTo(12L);
+        assertThat(diff.claim("same")).isNull();
+        assertThat(diff.unclaimedIds()).containsExactly(11L);
+    }
+
+    @Test
+    void chunksWithoutHashOrEmbeddingAreNeverKept() {
+        DocumentIngestionWorker.ChunkDiff diff = new DocumentIngestionWorker.ChunkDiff(List.of(
+                new StoredChunkRef(10, 0, null, true),
+                new StoredChunkRef(11, 1, "h1", false),
+                new StoredChunkRef(12, 2, "h1", true)));
+
+        assertThat(diff.claim("h1")).isEqualTo(12L);
+        assertThat(diff.claim("h1")).isNull();
+        assertThat(diff.unclaimedIds()).containsExactlyInAnyOrder(10L, 11L);
+    }
+
+    @Test
+    void nothingStored() {
+        DocumentIngestionWorker.ChunkDiff diff = new DocumentIngestionWorker.ChunkDiff(List.of());
+
+        assertThat(diff.claim("h1")).isNull();
+        assertThat(diff.unclaimedIds()).isEmpty();
+    }
+}
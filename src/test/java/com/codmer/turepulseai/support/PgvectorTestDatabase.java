@@ -0,0 +1,119 @@
+package com.codmer.turepulseai.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Random;
+
+/**
+ * A pgvector Postgres for tests that need the real planner or real SQL, with business_document_chunks laid out
+ * the way Hibernate (ddl-auto) and DataInitializer leave it
+ */
+public final class PgvectorTestDatabase {
+
+    public static final int DIMENSIONS = 1536;
+
+    private PgvectorTestDatabase() {
+    }
+
+    public static PostgreSQLContainer<?> container() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"));
+    }
+
+    public static JdbcTemplate jdbcTemplate(PostgreSQLContainer<?> container) {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                container.getJdbcUrl(), container.getUsername(), container.getPassword()));
+    }
+
+    public static TransactionTemplate transactionTemplate(JdbcTemplate jdbcTemplate) {
+        return new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    }
+
+    /**
+     * Drop whatever a previous test left behind, including a half-finished partitioning, and create an empty table
+     */
+    public static void recreateChunkTable(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS vector");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS business_document_chunks, business_document_chunks_partitioned,"
+                + " business_document_chunks_unpartitioned CASCADE");
+        jdbcTemplate.execute("DROP FUNCTION IF EXISTS business_document_chunks_mirror() CASCADE");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS business_document_chunks_part_id_seq");
+        jdbcTemplate.execute("""
+                CREATE TABLE business_document_chunks (
+                    id BIGSERIAL PRIMARY KEY,
+                    document_id BIGINT NOT NULL,
+                    business_id VARCHAR(255) NOT NULL,
+                    entity_id BIGINT NOT NULL,
+                    display_name VARCHAR(255) NOT NULL,
+                    chunk_index INTEGER NOT NULL,
+                    content TEXT NOT NULL,
+                    content_hash VARCHAR(64),
+                    overlap_chars INTEGER,
+                    prev_content TEXT,
+                    next_content TEXT,
+                    embedding_dimension INTEGER NOT NULL,
+                    staged BOOLEAN NOT NULL DEFAULT FALSE,
+                    embedding vector(%d),
+                    created_by VARCHAR(255),
+                    created_at TIMESTAMP(6) NOT NULL,
+                    updated_at TIMESTAMP(6),
+                    content_tsv tsvector GENERATED ALWAYS AS (to_tsvector('english', content)) STORED
+                )""".formatted(DIMENSIONS));
+        jdbcTemplate.execute("CREATE INDEX idx_doc_chunks_document_id ON business_document_chunks (document_id)");
+        jdbcTemplate.execute("CREATE INDEX idx_doc_chunks_business_id ON business_document_chunks (business_id)");
+        jdbcTemplate.execute("CREATE INDEX idx_doc_chunks_content_tsv ON business_document_chunks USING gin (content_tsv)");
+    }
+
+    /**
+     * Insert a published chunk with a random unit-length embedding
+     */
+    public static void insertChunk(JdbcTemplate jdbcTemplate, Random random, String businessId, long documentId,
+                                   long entityId, String displayName, int chunkIndex, String content) {
+        jdbcTemplate.update("""
+                INSERT INTO business_document_chunks (document_id, business_id, entity_id, display_name, chunk_index,
+                    content, content_hash, embedding_dimension, embedding, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, md5(?), ?, CAST(? AS vector), now())
+                """, documentId, businessId, entityId, displayName, chunkIndex, content, content, DIMENSIONS,
+                vectorLiteral(randomUnitVector(random)));
+    }
+
+    /**
+     * Insert {@code count} published chunks of one entity, with random embeddings generated by Postgres itself
+     */
+    public static void insertRandomChunks(JdbcTemplate jdbcTemplate, String businessId, long entityId,
+                                          String displayName, int count) {
+        jdbcTemplate.update("""
+                INSERT INTO business_document_chunks (document_id, business_id, entity_id, display_name, chunk_index,
+                    content, content_hash, embedding_dimension, embedding, created_at)
+                SELECT g / 50, ?, ?, ?, g % 50, 'chunk ' || g, md5('chunk ' || g), ?,
+                       CAST(ARRAY(SELECT random() - 0.5 FROM generate_series(1, ?) WHERE g > 0) AS vector), now()
+                FROM generate_series(1, ?) AS g
+                """, businessId, entityId, displayName, DIMENSIONS, DIMENSIONS, count);
+    }
+
+    public static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = (float) random.nextGaussian();
+            norm += vector[d] * vector[d];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] *= scale;
+        }
+        return vector;
+    }
+
+    public static String vectorLiteral(float[] vector) {
+        StringBuilder literal = new StringBuilder("[");
+        for (int d = 0; d < vector.length; d++) {
+            literal.append(d == 0 ? "" : ",").append(vector[d]);
+        }
+        return literal.append(']').toString();
+    }
+}
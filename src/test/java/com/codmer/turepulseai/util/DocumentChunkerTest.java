@@ -0,0 +1,114 @@
+package com.codmer.turepulseai.util;
+
+import com.codmer.turepulseai.util.DocumentChunker.Chunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentChunkerTest {
+
+    private final DocumentChunker chunker = new DocumentChunker();
+
+    @Test
+    void prefixesEachChunkWithTheTailOfThePreviousOne() {
+        List<Chunk> chunks = chunker.chunk("alpha beta\n\ngamma delta\n\nepsilon", 15, 5);
+
+        assertThat(chunks).extracting(Chunk::getContent)
+                .containsExactly("alpha beta", " beta\ngamma delta", "delta\nepsilon");
+        assertThat(chunks).extracting(Chunk::getOverlapChars).containsExactly(0, 6, 6);
+        assertThat(chunks).extracting(Chunk::getIndex).containsExactly(0, 1, 2);
+        assertThat(chunks.get(1).getPrevContent()).isEqualTo("alpha beta");
+        assertThat(chunks.get(1).getNextContent()).isEqualTo("delta\nepsilon");
+        assertThat(chunks.get(0).getPrevContent()).isNull();
+        assertThat(chunks.get(2).getNextContent()).isNull();
+    }
+
+    @Test
+    void joinDropsTheOverlapTheSecondChunkStartsWith() {
+        List<Chunk> chunks = chunker.chunk("alpha beta\n\ngamma delta\n\nepsilon", 15, 5);
+
+        assertThat(DocumentChunker.join(chunks.get(0).getContent(), chunks.get(1).getContent(),
+                chunks.get(1).getOverlapChars())).isEqualTo("alpha beta\ngamma delta");
+        assertThat(DocumentChunker.join(chunks.get(1).getContent(), chunks.get(2).getContent(),
+                chunks.get(2).getOverlapChars())).isEqualTo(" beta\ngamma delta\nepsilon");
+    }
+
+    @Test
+    void joinKeepsBothChunksWhenThereIsNoUsableOverlap() {
+        assertThat(DocumentChunker.join("first", "second", 0)).isEqualTo("first\n\nsecond");
+        assertThat(DocumentChunker.join("first", "second", 7)).isEqualTo("first\n\nsecond");
+    }
+
+    @Test
+    void overlapIsTheExactTailOfThePreviousChunk() {
+        List<Chunk> chunks = chunker.chunk(document(new Random(3), 60), 1200, 200);
+
+        assertThat(chunks).hasSizeGreaterThan(3);
+        for (int i = 1; i < chunks.size(); i++) {
+            Chunk previous = chunks.get(i - 1);
+            Chunk chunk = chunks.get(i);
+            int overlapChars = chunk.getOverlapChars();
+            assertThat(overlapChars).isEqualTo(200 + 1);
+            assertThat(previous.getContent()).endsWith(chunk.getContent().substring(0, overlapChars - 1));
+            assertThat(chunk.getContent().charAt(overlapChars - 1)).isEqualTo('\n');
+            assertThat(chunk.getPrevContent()).isEqualTo(previous.getContent());
+            assertThat(previous.getNextContent()).isEqualTo(chunk.getContent());
+        }
+    }
+
+    @Test
+    void streamingInArbitraryPiecesMatchesChunkingTheWholeText() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            String text = document(random, 5 + random.nextInt(40));
+            List<Chunk> streamed = new ArrayList<>();
+            DocumentChunker.ChunkStream stream = chunker.stream(streamed::add);
+            int position = 0;
+            while (position < text.length()) {
+                int length = Math.min(text.length() - position, 1 + random.nextInt(300));
+                if (random.nextBoolean()) {
+                    stream.write(text.substring(position, position + length));
+                } else {
+                    stream.write(text.toCharArray(), position, length);
+                }
+                position += length;
+            }
+
+            assertThat(stream.finish()).isEqualTo(streamed.size());
+            assertThat(streamed).isEqualTo(chunker.chunk(text));
+        }
+    }
+
+    @Test
+    void cutsAnOversizedParagraphAtWhitespace() {
+        String word = "lorem ";
+        String text = word.repeat(1000).trim();
+
+        List<Chunk> chunks = chunker.chunk(text);
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks).allSatisfy(chunk -> {
+            String own = chunk.getContent().substring(chunk.getOverlapChars());
+            assertThat(own.length()).isLessThanOrEqualTo(1200);
+            assertThat(own).doesNotStartWith(" ").doesNotEndWith(" ");
+        });
+    }
+
+    private static String document(Random random, int paragraphs) {
+        String[] words = {"menu", "order", "delivery", "refund", "the", "kitchen", "opens", "at", "noon",
+                "allergens", "include", "nuts", "and", "dairy", "policy", "weekend", "hours"};
+        StringBuilder text = new StringBuilder();
+        for (int p = 0; p < paragraphs; p++) {
+            int length = 5 + random.nextInt(random.nextInt(10) == 0 ? 400 : 60);
+            for (int w = 0; w < length; w++) {
+                text.append(words[random.nextInt(words.length)]).append(random.nextInt(8) == 0 ? "\n" : " ");
+            }
+            text.append(random.nextBoolean() ? "\n\n" : "\r\n\r\n\t");
+        }
+        return text.toString();
+    }
+}
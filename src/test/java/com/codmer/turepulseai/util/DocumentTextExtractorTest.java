@@ -0,0 +1,110 @@
+package com.codmer.turepulseai.util;
+
+import com.codmer.turepulseai.config.IngestionProperties;
+import com.codmer.turepulseai.util.DocumentChunker.Chunk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class DocumentTextExtractorTest {
+
+    private ThreadPoolTaskExecutor parseExecutor;
+    private DocumentTextExtractor extractor;
+
+    @BeforeEach
+    void setUp() {
+        IngestionProperties properties = new IngestionProperties();
+        properties.setParseTimeoutSeconds(1);
+        parseExecutor = new ThreadPoolTaskExecutor();
+        parseExecutor.setCorePoolSize(1);
+        parseExecutor.setMaxPoolSize(2);
+        parseExecutor.setQueueCapacity(0);
+        parseExecutor.initialize();
+        extractor = new DocumentTextExtractor(new DocumentChunker(), properties, parseExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parseExecutor.shutdown();
+    }
+
+    @Test
+    void extractsPlainText() {
+        InputStream in = new ByteArrayInputStream("Opening hours are 9 to 5.".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(extractor.extractText(in, "hours.txt")).isEqualTo("Opening hours are 9 to 5.");
+    }
+
+    @Test
+    void timeoutHoldsWhenTheParserNeverProducesText() {
+        BlockingInputStream in = new BlockingInputStream();
+
+        String text = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> extractor.extractText(in, "stuck.pdf"));
+
+        assertThat(text).isEmpty();
+        assertThat(in.closed.getCount()).isZero();
+    }
+
+    @Test
+    void timeSpentInTheSinkDoesNotCountTowardsTheParseTimeout() {
+        String document = "Our menu changes with the seasons. ".repeat(300);
+        InputStream in = new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8));
+        List<Chunk> chunks = new ArrayList<>();
+        Set<Thread> sinkThreads = new HashSet<>();
+
+        int total = extractor.extractChunks(in, "menu.txt", chunk -> {
+            sinkThreads.add(Thread.currentThread());
+            chunks.add(chunk);
+            // Slower than the whole 1s parse budget across the document, like embedding each chunk
+            sleep(300);
+        });
+
+        assertThat(total).isGreaterThan(4).isEqualTo(chunks.size());
+        assertThat(sinkThreads).containsExactly(Thread.currentThread());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks every read until closed, like a parser stuck on a malformed document
+     */
+    private static final class BlockingInputStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("stream closed");
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
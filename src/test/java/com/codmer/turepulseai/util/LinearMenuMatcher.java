@@ -0,0 +1,68 @@
+package com.codmer.turepulseai.util;
+
+import java.util.List;
+
+/**
+ * The nested-loop matcher MenuItemMatcher replaced, kept verbatim (minus logging) as the reference for the
+ * equivalence test and the benchmark
+ */
+final class LinearMenuMatcher {
+
+    private LinearMenuMatcher() {
+    }
+
+    static boolean found(String requested, List<String> menu) {
+        if (menu.contains(requested)) {
+            return true;
+        }
+        for (String menuItem : menu) {
+            if (similarItem(requested, menuItem)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean similarItem(String requested, String menuItem) {
+        if (requested.equals(menuItem)) {
+            return true;
+        }
+        String[] requestedWords = requested.split("\\s+");
+        String[] menuWords = menuItem.split("\\s+");
+        if (Math.abs(requestedWords.length - menuWords.length) > 1) {
+            return false;
+        }
+        int exactMatches = 0;
+        int typoMatches = 0;
+        int totalWords = Math.max(requestedWords.length, menuWords.length);
+        for (int i = 0; i < Math.min(requestedWords.length, menuWords.length); i++) {
+            String rWord = requestedWords[i];
+            String mWord = menuWords[i];
+            if (rWord.equals(mWord)) {
+                exactMatches++;
+            } else if (wordsSimilar(rWord, mWord)) {
+                typoMatches++;
+            } else {
+                return false;
+            }
+        }
+        double matchRate = (double) (exactMatches + typoMatches) / totalWords;
+        return matchRate >= 0.8 && exactMatches >= Math.ceil(totalWords * 0.5);
+    }
+
+    private static boolean wordsSimilar(String word1, String word2) {
+        int len1 = word1.length();
+        int len2 = word2.length();
+        double lengthRatio = (double) Math.min(len1, len2) / Math.max(len1, len2);
+        if (lengthRatio < 0.8) {
+            return false;
+        }
+        int matches = 0;
+        for (int i = 0; i < Math.min(len1, len2); i++) {
+            if (word1.charAt(i) == word2.charAt(i)) {
+                matches++;
+            }
+        }
+        return (double) matches / Math.max(len1, len2) >= 0.75;
+    }
+}
@@ -0,0 +1,53 @@
+package com.codmer.turepulseai.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generated menus and typo'd requests shared by the matcher test and benchmark
+ */
+final class MenuFixtures {
+
+    private MenuFixtures() {
+    }
+
+    static List<String> menu(Random random, int size) {
+        String[] words = {"chicken", "mutton", "paneer", "veg", "biryani", "tikka", "masala", "butter", "garlic",
+                "naan", "lassi", "mango", "dosa", "idli", "sambar", "curry", "korma", "kebab", "roll", "rice",
+                "fried", "spicy", "special", "tandoori", "kadai", "palak", "dal", "makhani", "jeera", "aloo"};
+        Set<String> names = new LinkedHashSet<>();
+        while (names.size() < size) {
+            int count = 1 + random.nextInt(4);
+            List<String> name = new ArrayList<>();
+            for (int w = 0; w < count; w++) {
+                name.add(words[random.nextInt(words.length)]);
+            }
+            names.add(String.join(" ", name));
+        }
+        return new ArrayList<>(names);
+    }
+
+    static String withTypos(Random random, String name, boolean insertOrDelete) {
+        String[] words = name.split(" ");
+        for (int w = 0; w < words.length; w++) {
+            if (random.nextInt(3) != 0 || words[w].length() < 3) {
+                continue;
+            }
+            StringBuilder word = new StringBuilder(words[w]);
+            int at = random.nextInt(word.length());
+            char letter = (char) ('a' + random.nextInt(26));
+            if (!insertOrDelete) {
+                word.setCharAt(at, letter);
+            } else if (random.nextBoolean()) {
+                word.insert(at, letter);
+            } else {
+                word.deleteCharAt(at);
+            }
+            words[w] = word.toString();
+        }
+        return String.join(" ", words);
+    }
+}
@@ -0,0 +1,87 @@
+package com.codmer.turepulseai.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability check of one order against a menu: the nested-loop matcher versus the indexed MenuItemMatcher,
+ * with half the requests carrying typos and a tenth not on the menu at all. Run from the IDE, or after
+ * {@code mvn test-compile} with {@code java -cp <test classpath> org.openjdk.jmh.Main MenuItemMatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuItemMatcherBenchmark {
+
+    private static final int REQUESTS = 64;
+
+    @Param({"1000", "5000"})
+    private int menuSize;
+
+    private List<String> menu;
+    private MenuItemMatcher matcher;
+    private List<String> requests;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        menu = MenuFixtures.menu(random, menuSize);
+        matcher = MenuItemMatcher.build(menu);
+        requests = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            String item = menu.get(random.nextInt(menu.size()));
+            requests.add(switch (i % 10) {
+                case 0 -> "pizza margherita";
+                case 1, 2, 3, 4, 5 -> MenuFixtures.withTypos(random, item, i % 2 == 0);
+                default -> item;
+            });
+        }
+    }
+
+    @Benchmark
+    public void linear(Blackhole blackhole) {
+        for (String request : requests) {
+            blackhole.consume(LinearMenuMatcher.found(request, menu));
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole blackhole) {
+        for (String request : requests) {
+            blackhole.consume(matcher.bestMatch(request).isPresent());
+        }
+    }
+
+    /**
+     * Paid once per catalog version, not per request
+     */
+    @Benchmark
+    public MenuItemMatcher buildIndex() {
+        return MenuItemMatcher.build(menu);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MenuItemMatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.codmer.turepulseai.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MenuItemMatcherTest {
+
+    private static final List<String> MENU = List.of(
+            "chicken biryani", "mutton biryani", "veg biryani", "paneer tikka", "paneer butter masala",
+            "garlic naan", "butter naan", "mango lassi", "masala dosa", "chicken tikka masala",
+            "tandoori chicken");
+
+    private final MenuItemMatcher matcher = MenuItemMatcher.build(MENU);
+
+    @ParameterizedTest
+    @CsvSource({
+            // (int)(7 * 0.25) = 1 edit allowed for a 7-letter word
+            "chicken biryanu, true, true",
+            "chicxxn biryani, false, false",
+            // (int)(8 * 0.25) = 2 edits allowed for an 8-letter word
+            "tandxxri chicken, true, true",
+            // Length ratio below 80%
+            "paneer tk, false, false",
+            // ceil(3 * 0.5) = 2 exact words needed out of three
+            "chicken tikkx masala, true, true",
+            "chicken tikkx masalx, false, false",
+            // ceil(2 * 0.5) = 1 exact word needed out of two
+            "garlic naxn, true, true",
+            "garlix naxn, false, false",
+            "mangoo lassii, false, false",
+            // An extra word drops the match rate below 80%
+            "chicken biryani special, false, false",
+            "chicken, false, false",
+            "pizza margherita, false, false",
+            // Dropped or doubled letters shift every later position, which only the edit distance forgives
+            "chiken biryani, false, true",
+            "paneer tika, false, true",
+            "chiken tikka masala, false, true"
+    })
+    void pinsTheStrictMatchingRules(String request, boolean linear, boolean indexed) {
+        assertThat(LinearMenuMatcher.found(request, MENU)).isEqualTo(linear);
+        assertThat(matcher.bestMatch(request).isPresent()).isEqualTo(indexed);
+    }
+
+    @Test
+    void exactMatchesScoreOneAndRankFirst() {
+        MenuItemMatcher.Match match = matcher.bestMatch("paneer tikka").orElseThrow();
+
+        assertThat(match.exact()).isTrue();
+        assertThat(match.score()).isEqualTo(1.0);
+        assertThat(matcher.candidates("chiken tikka masala", 5))
+                .allSatisfy(candidate -> assertThat(candidate.score()).isLessThan(1.0));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "biryani, biryani, 0, 0",
+            "biryani, biriyani, 1, 1",
+            "biryani, biriyani, 0, -1",
+            "masala, masaal, 2, 2",
+            "masala, masaal, 1, -1",
+            "naan, nan, 1, 1",
+            "lassi, lassiee, 1, -1"
+    })
+    void boundedEditDistanceStopsAtTheBand(String a, String b, int maxDistance, int expected) {
+        assertThat(MenuItemMatcher.boundedEditDistance(a, b, maxDistance)).isEqualTo(expected);
+    }
+
+    /**
+     * Substitution typos, the only kind the linear matcher understood, must give the same found/missing answer;
+     * every request the linear matcher accepted must still be accepted.
+     */
+    @Test
+    void agreesWithTheLinearMatcherOnGeneratedMenus() {
+        Random random = new Random(42);
+        List<String> menu = MenuFixtures.menu(random, 1000);
+        MenuItemMatcher indexed = MenuItemMatcher.build(menu);
+
+        for (int i = 0; i < 5000; i++) {
+            String base = menu.get(random.nextInt(menu.size()));
+            String substituted = MenuFixtures.withTypos(random, base, false);
+            assertThat(indexed.bestMatch(substituted).isPresent())
+                    .as("substitution typo '%s' of '%s'", substituted, base)
+                    .isEqualTo(LinearMenuMatcher.found(substituted, menu));
+
+            String edited = MenuFixtures.withTypos(random, base, true);
+            if (LinearMenuMatcher.found(edited, menu)) {
+                assertThat(indexed.bestMatch(edited)).as("edited request '%s'", edited).isPresent();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.codmer.turepulseai.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Intent extraction for a set of image prompts: the regex detectors versus the single-scan PromptIntentExtractor.
+ * Long prompts are the short ones with a paragraph of art direction in front, which is where the repeated passes
+ * over the prompt cost the most. Run from the IDE, or after {@code mvn test-compile} with
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main PromptIntentExtractorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptIntentExtractorBenchmark {
+
+    private static final List<String> PROMPTS = List.of(
+            "Diwali poster for our biryani house, buy any two biryani for 20$ get a free drink. Order now!",
+            "Christmas special: any two pizzas $15, Shop Now",
+            "Buy 1 get 1 on every Burger this Eid",
+            "Holi sale 30% off on all desserts, visit today",
+            "Fresh coffee only 5 $ at our salon cafe",
+            "New Year party at the spa, \"Glow up\" and 'Relax' packages. Call now?",
+            "Navratri festival offer 25 % discount, book now",
+            "A calm minimalist poster with no offer at all");
+    private static final String ART_DIRECTION = "Warm golden lighting, shallow depth of field, rustic wooden table, "
+            + "steam rising from the plate, garnish of fresh coriander, brass serving bowls, soft bokeh of string "
+            + "lights in the background, rich saturated colours, editorial food photography style, space at the "
+            + "top for a headline and at the bottom for the logo. ";
+
+    @Param({"short", "long"})
+    private String length;
+
+    private PromptIntentExtractor extractor;
+    private List<String> prompts;
+
+    @Setup
+    public void setUp() {
+        extractor = RegexPromptIntentDetector.compileExtractor();
+        prompts = "long".equals(length)
+                ? PROMPTS.stream().map(prompt -> ART_DIRECTION.repeat(4) + prompt).toList()
+                : PROMPTS;
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (String prompt : prompts) {
+            blackhole.consume(RegexPromptIntentDetector.intent(prompt));
+        }
+    }
+
+    @Benchmark
+    public void singleScan(Blackhole blackhole) {
+        for (String prompt : prompts) {
+            blackhole.consume(extractor.extract(prompt));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PromptIntentExtractorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
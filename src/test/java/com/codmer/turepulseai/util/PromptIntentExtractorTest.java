@@ -0,0 +1,62 @@
+package com.codmer.turepulseai.util;
+
+import com.codmer.turepulseai.util.PromptIntentExtractor.Intent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptIntentExtractorTest {
+
+    private final PromptIntentExtractor extractor = RegexPromptIntentDetector.compileExtractor();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Diwali poster for our biryani house, buy any two biryani for 20$ get a free drink. Order now!",
+            "Christmas special: any two pizzas $15, Shop Now",
+            "Buy 1 get 1 on every Burger this Eid",
+            "Holi sale 30% off on all desserts, visit today",
+            "Fresh coffee only 5 $ at our salon cafe",
+            "New Year party at the spa, \"Glow up\" and 'Relax' packages. Call now?",
+            "Thanksgiving TACO night! buy any two tacos",
+            "Navratri festival offer 25 % discount, book now",
+            "Valentine's Day dessert box \"Sweet Love\" for $ 12.",
+            "A calm minimalist poster with no offer at all",
+            "Pizza, coffee and biryani. BUY ANY TWO for 10$? order NOW",
+            "buy any two",
+            "Don't miss it: 'Biryani Fest' \"\" '' any two  chicken biryani 9"
+    })
+    void matchesTheRegexDetectorsOnRepresentativePrompts(String prompt) {
+        assertThat(extractor.extract(prompt)).isEqualTo(RegexPromptIntentDetector.intent(prompt));
+    }
+
+    @Test
+    void matchesTheRegexDetectorsOnRandomPrompts() {
+        String[] tokens = {"buy", "any", "two", "get", "biryani", "pizza", "Coffee", "order now", "Book Now",
+                "visit today", "holi", "Diwali", "eid", "new year", "valentine's day", "off", "discount", "for",
+                "20", "5", "$", "%", ".", "!", "?", "\"", "'", "free", "drink", "festival", "offer", "the", "spa"};
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder prompt = new StringBuilder();
+            int count = 1 + random.nextInt(16);
+            for (int t = 0; t < count; t++) {
+                prompt.append(tokens[random.nextInt(tokens.length)]);
+                if (random.nextInt(4) != 0) {
+                    prompt.append(' ');
+                }
+            }
+            String text = prompt.toString();
+            assertThat(extractor.extract(text)).as("prompt '%s'", text).isEqualTo(RegexPromptIntentDetector.intent(text));
+        }
+    }
+
+    @Test
+    void blankPromptHasNoIntent() {
+        assertThat(extractor.extract("  ")).isEqualTo(new Intent(null, null, null, null, List.of()));
+        assertThat(extractor.extract(null)).isEqualTo(new Intent(null, null, null, null, List.of()));
+    }
+}
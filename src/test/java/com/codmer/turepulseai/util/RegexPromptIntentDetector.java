@@ -0,0 +1,105 @@
+package com.codmer.turepulseai.util;
+
+import com.codmer.turepulseai.util.PromptIntentExtractor.Intent;
+import com.codmer.turepulseai.util.PromptIntentExtractor.Offer;
+import com.codmer.turepulseai.util.PromptIntentExtractor.OfferKind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The per-keyword and per-pattern detectors PromptIntentExtractor replaced, kept as the reference for the
+ * equivalence test and the benchmark. Each offer branch is tagged with the kind whose formatting it applied, and
+ * the call to action is lower-cased to its dictionary form, since the caller title-cases both the same way.
+ * The dictionaries are BusinessImageServiceImpl's.
+ */
+final class RegexPromptIntentDetector {
+
+    static final List<String> KNOWN_OCCASIONS = List.of(
+            "holi", "diwali", "eid", "christmas", "thanksgiving", "new year", "valentine's day", "navratri");
+    static final List<String> HERO_KEYWORDS = List.of(
+            "biryani", "pizza", "coffee", "spa", "salon", "burger", "taco", "dessert", "festival", "offer");
+    static final List<String> CTA_PHRASES = List.of(
+            "order now", "book now", "shop now", "visit today", "call now");
+
+    private static final Pattern QUOTED_TEXT_PATTERN = Pattern.compile("\"([^\"]+)\"|'([^']+)'");
+    private static final Pattern ANY_TWO_OFFER_PATTERN = Pattern.compile("(?i)(any\\s+two\\s+[a-z\\s]+?\\s+\\$?\\d+)");
+    private static final Pattern BUY_GET_PATTERN = Pattern.compile("(?i)buy\\s+\\d+\\s+get\\s+\\d+");
+    private static final Pattern PERCENT_OFF_PATTERN = Pattern.compile("(?i)\\d+%\\s*(?:off|discount)");
+    private static final Pattern PRICE_VALUE_PATTERN = Pattern.compile("(?i)(\\$\\s?\\d+|\\d+\\s?\\$)");
+    private static final Pattern CTA_PATTERN = Pattern.compile("(?i)(order now|book now|shop now|visit today|call now)");
+
+    private RegexPromptIntentDetector() {
+    }
+
+    static PromptIntentExtractor compileExtractor() {
+        return PromptIntentExtractor.compile(KNOWN_OCCASIONS, HERO_KEYWORDS, CTA_PHRASES);
+    }
+
+    static Intent intent(String userPrompt) {
+        if (userPrompt == null || userPrompt.isBlank()) {
+            return new Intent(null, null, null, null, List.of());
+        }
+        String lower = userPrompt.toLowerCase(Locale.ROOT);
+        String occasion = KNOWN_OCCASIONS.stream().filter(lower::contains).findFirst().orElse(null);
+        String hero = HERO_KEYWORDS.stream().filter(lower::contains).findFirst().orElse(null);
+        Matcher cta = CTA_PATTERN.matcher(userPrompt);
+        return new Intent(occasion, hero, cta.find() ? cta.group(1).toLowerCase(Locale.ROOT) : null,
+                offer(userPrompt), copyPhrases(userPrompt));
+    }
+
+    private static Offer offer(String userPrompt) {
+        String lower = userPrompt.toLowerCase(Locale.ROOT);
+        int buyIdx = lower.indexOf("buy any two");
+        if (buyIdx >= 0) {
+            int endIdx = lower.indexOf('.', buyIdx);
+            if (endIdx < 0) {
+                endIdx = lower.indexOf('!', buyIdx);
+            }
+            if (endIdx < 0) {
+                endIdx = lower.indexOf('?', buyIdx);
+            }
+            if (endIdx < 0) {
+                endIdx = userPrompt.length();
+            }
+            String span = userPrompt.substring(buyIdx, endIdx).trim();
+            if (!span.isEmpty()) {
+                return new Offer(OfferKind.COMBINED, span);
+            }
+        }
+        Matcher anyTwo = ANY_TWO_OFFER_PATTERN.matcher(userPrompt);
+        if (anyTwo.find()) {
+            return new Offer(OfferKind.ANY_TWO, anyTwo.group(1));
+        }
+        Matcher buyGet = BUY_GET_PATTERN.matcher(userPrompt);
+        if (buyGet.find()) {
+            return new Offer(OfferKind.BUY_GET, buyGet.group());
+        }
+        Matcher percent = PERCENT_OFF_PATTERN.matcher(userPrompt);
+        if (percent.find()) {
+            return new Offer(OfferKind.PERCENT_OFF, percent.group());
+        }
+        Matcher price = PRICE_VALUE_PATTERN.matcher(userPrompt);
+        if (price.find()) {
+            return new Offer(OfferKind.PRICE, price.group());
+        }
+        return null;
+    }
+
+    private static List<String> copyPhrases(String userPrompt) {
+        List<String> phrases = new ArrayList<>();
+        Matcher m = QUOTED_TEXT_PATTERN.matcher(userPrompt);
+        while (m.find()) {
+            String g1 = m.group(1);
+            String g2 = m.group(2);
+            String val = g1 != null ? g1 : g2;
+            if (val != null && !val.isBlank()) {
+                phrases.add(val.trim());
+            }
+        }
+        return phrases;
+    }
+}